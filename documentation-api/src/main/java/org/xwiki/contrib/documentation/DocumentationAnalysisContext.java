@@ -0,0 +1,161 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.xwiki.rendering.block.XDOM;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+
+/**
+ * State shared by all the {@link DocumentationCheck}s executed during a single analysis of a document. It memoizes the
+ * values needed by several checks (the parsed content of the document, the parsed macro bodies, etc.) so that they're
+ * computed only once per analysis instead of once per check.
+ * <p>
+ * A new context is created for each analysis. It can be accessed concurrently when the checks are executed in
+ * parallel, and the memoized values must thus not be modified by the checks.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+public class DocumentationAnalysisContext
+{
+    private static final String XDOM_KEY = "xdom";
+
+    private final XWikiDocument document;
+
+    private final List<DocumentationCheck> checks;
+
+    private final Map<Object, Memo<?>> values;
+
+    private final DocumentationCancellationToken cancellationToken;
+
+    /**
+     * Create a context for checking a document outside of a full analysis (i.e. with a single check).
+     *
+     * @param document the document being analysed
+     */
+    public DocumentationAnalysisContext(XWikiDocument document)
+    {
+        this(document, List.of());
+    }
+
+    /**
+     * @param document the document being analysed
+     * @param checks the checks executed during the analysis
+     */
+    public DocumentationAnalysisContext(XWikiDocument document, List<DocumentationCheck> checks)
+    {
+        this(document, List.copyOf(checks), new ConcurrentHashMap<>(), new DocumentationCancellationToken());
+    }
+
+    private DocumentationAnalysisContext(XWikiDocument document, List<DocumentationCheck> checks,
+        Map<Object, Memo<?>> values, DocumentationCancellationToken cancellationToken)
+    {
+        this.document = document;
+        this.checks = checks;
+        this.values = values;
+        this.cancellationToken = cancellationToken;
+    }
+
+    /**
+     * @param token the cancellation token of a check
+     * @return a view of this context, sharing its memoized values, to pass to a check executed with the passed token
+     * @since 1.17
+     */
+    public DocumentationAnalysisContext withCancellationToken(DocumentationCancellationToken token)
+    {
+        return new DocumentationAnalysisContext(this.document, this.checks, this.values, token);
+    }
+
+    /**
+     * @return the token telling the check executed with this context to stop because it exceeded its time budget,
+     *     never cancelled when the check has no time budget
+     * @since 1.17
+     */
+    public DocumentationCancellationToken getCancellationToken()
+    {
+        return this.cancellationToken;
+    }
+
+    /**
+     * @return the document being analysed
+     */
+    public XWikiDocument getDocument()
+    {
+        return this.document;
+    }
+
+    /**
+     * @return the checks executed during the analysis, allowing a check to perform some work on behalf of the other
+     *     checks (e.g. walking the content once for all of them); empty when a check is executed on its own
+     */
+    public List<DocumentationCheck> getChecks()
+    {
+        return this.checks;
+    }
+
+    /**
+     * @return the parsed content of the document being analysed, computed once per analysis
+     */
+    public XDOM getXDOM()
+    {
+        return computeIfAbsent(XDOM_KEY, this.document::getXDOM);
+    }
+
+    /**
+     * Return the value memoized under the passed key, computing it with the passed supplier the first time it's
+     * requested during this analysis. Concurrent requests for the same key wait for the first computation to complete
+     * instead of computing the value again. A {@code null} value is memoized too, while a supplier failing with an
+     * exception leaves the key unset so that a later request computes it again.
+     *
+     * @param key the key identifying the value (must implement {@link Object#equals(Object)} and
+     *     {@link Object#hashCode()})
+     * @param supplier computes the value when it's not memoized yet
+     * @param <T> the type of the value
+     * @return the memoized value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T computeIfAbsent(Object key, Supplier<T> supplier)
+    {
+        Memo<T> memo = (Memo<T>) this.values.computeIfAbsent(key, k -> new Memo<>());
+        return memo.get(supplier);
+    }
+
+    private static final class Memo<T>
+    {
+        private boolean computed;
+
+        private T value;
+
+        synchronized T get(Supplier<T> supplier)
+        {
+            if (!this.computed) {
+                this.value = supplier.get();
+                this.computed = true;
+            }
+            return this.value;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tells a {@link DocumentationCheck} to stop because it exceeded its time budget (or the one of the whole analysis).
+ * Cancellation is cooperative: checks performing long computations (e.g. loops over the content of the document)
+ * should regularly call {@link #checkCancelled()}, or {@link #isCancelled()} when they can stop by themselves. A
+ * cancelled check is reported as timed out and its violations are not stored, while the violations found by the
+ * other checks of the analysis are.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+public final class DocumentationCancellationToken
+{
+    private final DocumentationCancellationToken parent;
+
+    private final boolean bounded;
+
+    /**
+     * The {@link System#nanoTime()} after which the token is cancelled, when bounded.
+     */
+    private final long deadline;
+
+    private volatile boolean cancelled;
+
+    /**
+     * Create a token cancelled only by {@link #cancel()}.
+     */
+    public DocumentationCancellationToken()
+    {
+        this(null, 0);
+    }
+
+    /**
+     * @param timeout the time after which the token is cancelled, or a negative or zero value for no time limit
+     * @param unit the unit of the timeout
+     */
+    public DocumentationCancellationToken(long timeout, TimeUnit unit)
+    {
+        this(null, unit.toNanos(timeout));
+    }
+
+    private DocumentationCancellationToken(DocumentationCancellationToken parent, long timeout)
+    {
+        this.parent = parent;
+        this.bounded = timeout > 0;
+        this.deadline = this.bounded ? System.nanoTime() + timeout : 0;
+    }
+
+    /**
+     * @param timeout the time after which the new token is cancelled, or a negative or zero value for no other time
+     *     limit than the one of this token
+     * @param unit the unit of the timeout
+     * @return a new token, cancelled after the passed timeout or as soon as this token is cancelled
+     */
+    public DocumentationCancellationToken newChild(long timeout, TimeUnit unit)
+    {
+        return new DocumentationCancellationToken(this, unit.toNanos(timeout));
+    }
+
+    /**
+     * Cancel this token (and its children) immediately.
+     */
+    public void cancel()
+    {
+        this.cancelled = true;
+    }
+
+    /**
+     * @return {@code true} if this token has been cancelled or exceeded its time limit
+     */
+    public boolean isCancelled()
+    {
+        return this.cancelled || (this.bounded && System.nanoTime() - this.deadline >= 0)
+            || (this.parent != null && this.parent.isCancelled());
+    }
+
+    /**
+     * @throws CancellationException if this token has been cancelled or exceeded its time limit
+     */
+    public void checkCancelled()
+    {
+        if (isCancelled()) {
+            throw new CancellationException("The documentation check exceeded its time budget");
+        }
+    }
+
+    /**
+     * @param unit the unit of the returned value
+     * @return the time left before this token is cancelled, {@link Long#MAX_VALUE} if it has no time limit
+     */
+    public long getRemaining(TimeUnit unit)
+    {
+        long remaining;
+        if (this.cancelled) {
+            remaining = 0;
+        } else {
+            remaining = this.bounded ? unit.convert(Math.max(0, this.deadline - System.nanoTime()),
+                TimeUnit.NANOSECONDS) : Long.MAX_VALUE;
+            if (this.parent != null) {
+                remaining = Math.min(remaining, this.parent.getRemaining(unit));
+            }
+        }
+        return remaining;
+    }
+}
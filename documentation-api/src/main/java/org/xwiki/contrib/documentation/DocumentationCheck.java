@@ -19,7 +19,9 @@
  */
 package org.xwiki.contrib.documentation;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import org.xwiki.component.annotation.Role;
 
@@ -41,4 +43,51 @@ public interface DocumentationCheck
      * @return the violations found or an empty list if none are found
      */
     List<DocumentationViolation> check(XWikiDocument document) throws DocumentationException;
+
+    /**
+     * Check the document of the given analysis for documentation violations. The context is shared by all the checks
+     * executed during the same analysis, so that the values they all need (e.g. the parsed content of the document)
+     * are computed only once. Long-running checks should regularly poll the
+     * {@link DocumentationAnalysisContext#getCancellationToken() cancellation token} of the context, so that they stop
+     * when they exceed their time budget. The default implementation ignores the context and calls
+     * {@link #check(XWikiDocument)}.
+     *
+     * @param context the context of the analysis, holding the document to check
+     * @return the violations found or an empty list if none are found
+     * @throws DocumentationException if the check fails
+     * @since 1.17
+     */
+    default List<DocumentationViolation> check(DocumentationAnalysisContext context) throws DocumentationException
+    {
+        return check(context.getDocument());
+    }
+
+    /**
+     * Called for each check of an analysis before any of them is executed, with the cancellation token of the whole
+     * analysis, to compute the values shared by several checks (e.g. walking the content once for all of them) and
+     * memoize them in the context. This way the time spent computing these values is not charged to the time budget
+     * of whichever check needs them first. The default implementation does nothing.
+     *
+     * @param context the context of the analysis, holding the document to check
+     * @throws DocumentationException if the shared values cannot be computed
+     * @since 1.17
+     */
+    default void prepare(DocumentationAnalysisContext context) throws DocumentationException
+    {
+        // Nothing to share by default.
+    }
+
+    /**
+     * The facets of the document read by this check. When a document is analysed again, the check is executed only if
+     * one of these facets changed since the previous analysis, and the violations it found previously are kept
+     * otherwise. A check must thus not read document data outside of its facets. The default implementation returns
+     * all the facets.
+     *
+     * @return the facets of the document read by this check
+     * @since 1.17
+     */
+    default Set<DocumentationFacet> getFacets()
+    {
+        return EnumSet.allOf(DocumentationFacet.class);
+    }
 }
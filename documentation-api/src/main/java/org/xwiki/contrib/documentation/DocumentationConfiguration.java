@@ -0,0 +1,92 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation;
+
+import org.xwiki.component.annotation.Role;
+
+/**
+ * Configuration options for the Documentation analysis, read from {@code xwiki.properties} (all keys are prefixed
+ * with {@code documentation.}).
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@Role
+public interface DocumentationConfiguration
+{
+    /**
+     * @return the maximum number of threads used to analyse saved documentation pages in the background
+     *     ({@code documentation.analysis.threads})
+     */
+    int getAnalysisThreads();
+
+    /**
+     * @return the time in milliseconds to wait after a save before analysing the page, so that several saves of the
+     *     same page done in that window are collapsed into a single analysis ({@code documentation.analysis.delay})
+     */
+    long getAnalysisDelay();
+
+    /**
+     * @return the number of documentation checks executed concurrently when analysing a single page; {@code 1} or
+     *     less means that checks run one after another in the analysing thread
+     *     ({@code documentation.checks.parallelism})
+     */
+    int getCheckParallelism();
+
+    /**
+     * @return the hint of the {@link DocumentationViolationStore} used to store the violations found by the analysis
+     *     ({@code documentation.violations.store}), e.g. {@code xobject} (the default) to store them as XObjects of
+     *     the analysed page or {@code file} to store them in the permanent directory without saving the page
+     */
+    String getViolationStore();
+
+    /**
+     * @return the number of documentation pages loaded and analysed at once when re-analysing all the documentation
+     *     pages of a wiki ({@code documentation.batch.size})
+     */
+    int getBatchSize();
+
+    /**
+     * @return the maximum number of documentation pages analysed per second when re-analysing all the documentation
+     *     pages of a wiki, so that the analysis doesn't starve the request threads; {@code 0} or less means no limit
+     *     ({@code documentation.batch.rate})
+     */
+    int getBatchRate();
+
+    /**
+     * @return the time budget of a single documentation check, in milliseconds, after which the check is cancelled
+     *     and reported as timed out; {@code 0} or less means no limit ({@code documentation.checks.timeout})
+     */
+    long getCheckTimeout();
+
+    /**
+     * @return the time budget of all the documentation checks of an analysis, in milliseconds, after which the checks
+     *     still running are cancelled and reported as timed out; {@code 0} or less means no limit
+     *     ({@code documentation.analysis.timeout})
+     */
+    long getAnalysisTimeout();
+
+    /**
+     * @return the maximum number of nested macro bodies inspected by the checks analysing the content of a page, e.g.
+     *     {@code 2} to check an image located in an info macro, itself located in a version macro; {@code 0} means
+     *     that macro bodies are not inspected ({@code documentation.checks.macroDepth})
+     */
+    int getMacroDepth();
+}
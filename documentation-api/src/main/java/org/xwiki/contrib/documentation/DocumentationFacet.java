@@ -0,0 +1,65 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation;
+
+/**
+ * The parts of a document that the {@link DocumentationCheck}s can read. A check declares the facets it depends on
+ * (see {@link DocumentationCheck#getFacets()}) so that it's executed again only when one of them changes.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+public enum DocumentationFacet
+{
+    /**
+     * The content of the document.
+     */
+    CONTENT,
+
+    /**
+     * The syntax of the document.
+     */
+    SYNTAX,
+
+    /**
+     * The title of the document.
+     */
+    TITLE,
+
+    /**
+     * The reference of the document (its name and the spaces containing it).
+     */
+    REFERENCE,
+
+    /**
+     * The names of the attachments of the document.
+     */
+    ATTACHMENTS,
+
+    /**
+     * The {@code faq} property of the DocumentationClass XObject.
+     */
+    FAQ,
+
+    /**
+     * The {@code type} property of the DocumentationClass XObject.
+     */
+    TYPE
+}
@@ -19,6 +19,9 @@
  */
 package org.xwiki.contrib.documentation;
 
+import java.util.List;
+import java.util.Map;
+
 import org.xwiki.component.annotation.Role;
 import org.xwiki.index.IndexException;
 
@@ -39,4 +42,31 @@ public interface DocumentationManager
      * @throws IndexException if an error occurs while indexing the document when it's executing synchronously
      */
     void analyse(XWikiDocument document) throws IndexException;
+
+    /**
+     * Analyses of the same document don't run at the same time, and an analysis is dropped (without storing anything)
+     * when the analysed document isn't the latest version of the document anymore, since the latest version is then
+     * analysed in turn.
+     *
+     * @param document the document on which to perform the documentation analysis
+     * @param force {@code true} to analyse the document even when the data read by the documentation checks didn't
+     *     change since its last analysis, {@code false} to skip the analysis in that case
+     * @throws IndexException if an error occurs while indexing the document when it's executing synchronously
+     * @since 1.17
+     */
+    default void analyse(XWikiDocument document, boolean force) throws IndexException
+    {
+        analyse(document);
+    }
+
+    /**
+     * Execute the documentation checks on the passed document without storing the violations found (dry run), e.g. to
+     * report the problems of a page without modifying it.
+     *
+     * @param document the document to check
+     * @return the violations found by each check, indexed by check hint, in the order in which the checks are executed
+     * @throws DocumentationException if the checks cannot be executed
+     * @since 1.17
+     */
+    Map<String, List<DocumentationViolation>> check(XWikiDocument document) throws DocumentationException;
 }
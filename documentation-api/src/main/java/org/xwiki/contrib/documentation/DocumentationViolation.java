@@ -19,8 +19,12 @@
  */
 package org.xwiki.contrib.documentation;
 
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
 /**
- * A single documentation violation (message and context).
+ * A single documentation violation (message and context). Two violations with the same message, context and severity
+ * are equal.
  *
  * @version $Id$
  * @since 1.0
@@ -70,4 +74,31 @@ public class DocumentationViolation
     {
         return this.violationSeverity;
     }
+
+    @Override
+    public boolean equals(Object object)
+    {
+        if (this == object) {
+            return true;
+        }
+        if (object == null || getClass() != object.getClass()) {
+            return false;
+        }
+        DocumentationViolation violation = (DocumentationViolation) object;
+        return new EqualsBuilder()
+            .append(this.violationMessage, violation.violationMessage)
+            .append(this.violationContext, violation.violationContext)
+            .append(this.violationSeverity, violation.violationSeverity)
+            .isEquals();
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return new HashCodeBuilder(17, 37)
+            .append(this.violationMessage)
+            .append(this.violationContext)
+            .append(this.violationSeverity)
+            .toHashCode();
+    }
 }
@@ -0,0 +1,94 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation;
+
+import java.util.List;
+import java.util.Map;
+
+import org.xwiki.component.annotation.Role;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+
+/**
+ * Stores the violations found by the analysis of documentation pages. The store to use is configured with
+ * {@link DocumentationConfiguration#getViolationStore()}.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@Role
+public interface DocumentationViolationStore
+{
+    /**
+     * @param document the analysed document
+     * @return the violations stored for the document, indexed by the hint of the check that reported them (violations
+     *     stored before the checks were recorded are indexed by an empty hint)
+     * @throws DocumentationException if the violations cannot be read
+     */
+    Map<String, List<DocumentationViolation>> getViolations(XWikiDocument document) throws DocumentationException;
+
+    /**
+     * @param document the analysed document
+     * @return the fingerprint of the analysis that found the stored violations, as passed to {@link #save}, or
+     *     {@code null} if it's unknown
+     * @throws DocumentationException if the fingerprint cannot be read
+     */
+    String getFingerprint(XWikiDocument document) throws DocumentationException;
+
+    /**
+     * Replace the violations stored for the document. Stores saving the document itself must not persist the passed
+     * (analysed) instance, but apply the violations to the latest version of the document, and only when it's still
+     * the analysed version, so that the changes saved in the meantime are not overwritten.
+     *
+     * @param document the analysed document
+     * @param violations the violations found by the analysis, indexed by the hint of the check that reported them
+     * @param fingerprint the fingerprint of the analysis, to be returned by {@link #getFingerprint}
+     * @return {@code true} if the violations have been stored (or were already), {@code false} if they have been
+     *     dropped because the document has been modified or deleted since the analysed version
+     * @throws DocumentationException if the violations cannot be saved
+     */
+    boolean save(XWikiDocument document, Map<String, List<DocumentationViolation>> violations, String fingerprint)
+        throws DocumentationException;
+
+    /**
+     * Remove the violations stored for a document that has been deleted (or renamed). Does nothing by default, which
+     * suits the stores keeping the violations in the document itself.
+     *
+     * @param document the deleted document
+     * @throws DocumentationException if the violations cannot be removed
+     * @since 1.17
+     */
+    default void delete(XWikiDocument document) throws DocumentationException
+    {
+        // The violations are deleted with the document by default.
+    }
+
+    /**
+     * @param document the analysed document
+     * @return the summary of the violations stored for the document, which is cheaper to read than the violations
+     *     themselves when the store records it with the violations
+     * @throws DocumentationException if the summary cannot be read
+     * @since 1.17
+     */
+    default DocumentationViolationSummary getSummary(XWikiDocument document) throws DocumentationException
+    {
+        return DocumentationViolationSummary.of(getViolations(document), null, null);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact summary of the violations stored for a documentation page, so that displaying the page doesn't require
+ * reading all its violations.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+public class DocumentationViolationSummary
+{
+    private final int errorCount;
+
+    private final int warningCount;
+
+    private final Date analysisDate;
+
+    private final String checksVersion;
+
+    /**
+     * @param errorCount see {@link #getErrorCount()}
+     * @param warningCount see {@link #getWarningCount()}
+     * @param analysisDate see {@link #getAnalysisDate()}
+     * @param checksVersion see {@link #getChecksVersion()}
+     */
+    public DocumentationViolationSummary(int errorCount, int warningCount, Date analysisDate, String checksVersion)
+    {
+        this.errorCount = errorCount;
+        this.warningCount = warningCount;
+        this.analysisDate = analysisDate != null ? new Date(analysisDate.getTime()) : null;
+        this.checksVersion = checksVersion;
+    }
+
+    /**
+     * @param violations violations indexed by the hint of the check that reported them
+     * @param analysisDate see {@link #getAnalysisDate()}
+     * @param checksVersion see {@link #getChecksVersion()}
+     * @return the summary of the passed violations
+     */
+    public static DocumentationViolationSummary of(Map<String, List<DocumentationViolation>> violations,
+        Date analysisDate, String checksVersion)
+    {
+        int errors = 0;
+        int warnings = 0;
+        for (List<DocumentationViolation> checkViolations : violations.values()) {
+            for (DocumentationViolation violation : checkViolations) {
+                if (violation.getViolationSeverity() == DocumentationViolationSeverity.ERROR) {
+                    errors++;
+                } else {
+                    warnings++;
+                }
+            }
+        }
+        return new DocumentationViolationSummary(errors, warnings, analysisDate, checksVersion);
+    }
+
+    /**
+     * @return the highest severity of the violations, or {@code null} if there's no violation
+     */
+    public DocumentationViolationSeverity getMaxSeverity()
+    {
+        if (this.errorCount > 0) {
+            return DocumentationViolationSeverity.ERROR;
+        }
+        return this.warningCount > 0 ? DocumentationViolationSeverity.WARNING : null;
+    }
+
+    /**
+     * @return the number of violations with the {@link DocumentationViolationSeverity#ERROR} severity
+     */
+    public int getErrorCount()
+    {
+        return this.errorCount;
+    }
+
+    /**
+     * @return the number of violations with the {@link DocumentationViolationSeverity#WARNING} severity
+     */
+    public int getWarningCount()
+    {
+        return this.warningCount;
+    }
+
+    /**
+     * @return the total number of violations
+     */
+    public int getViolationCount()
+    {
+        return this.errorCount + this.warningCount;
+    }
+
+    /**
+     * @return the date of the analysis that last changed the violations, or {@code null} if it's unknown
+     */
+    public Date getAnalysisDate()
+    {
+        return this.analysisDate != null ? new Date(this.analysisDate.getTime()) : null;
+    }
+
+    /**
+     * @return an identifier of the set of checks executed by the analysis that last changed the violations, which
+     *     changes when checks are added or removed, or {@code null} if it's unknown
+     */
+    public String getChecksVersion()
+    {
+        return this.checksVersion;
+    }
+}
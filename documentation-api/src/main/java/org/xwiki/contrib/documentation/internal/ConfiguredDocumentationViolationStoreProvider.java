@@ -0,0 +1,62 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.contrib.documentation.DocumentationConfiguration;
+import org.xwiki.contrib.documentation.DocumentationViolationStore;
+
+/**
+ * Provides the {@link DocumentationViolationStore} configured with
+ * {@link DocumentationConfiguration#getViolationStore()}.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@Component
+@Singleton
+public class ConfiguredDocumentationViolationStoreProvider implements Provider<DocumentationViolationStore>
+{
+    @Inject
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    @Inject
+    private DocumentationConfiguration configuration;
+
+    @Override
+    public DocumentationViolationStore get()
+    {
+        String hint = this.configuration.getViolationStore();
+        try {
+            return this.componentManagerProvider.get().getInstance(DocumentationViolationStore.class, hint);
+        } catch (ComponentLookupException e) {
+            throw new IllegalStateException(
+                String.format("Failed to find the configured documentation violation store [%s]", hint), e);
+        }
+    }
+}
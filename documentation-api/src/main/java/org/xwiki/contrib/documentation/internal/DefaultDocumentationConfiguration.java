@@ -0,0 +1,117 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.contrib.documentation.DocumentationConfiguration;
+
+/**
+ * Reads the Documentation configuration from {@code xwiki.properties}.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@Component
+@Singleton
+public class DefaultDocumentationConfiguration implements DocumentationConfiguration
+{
+    private static final String PREFIX = "documentation.";
+
+    private static final int DEFAULT_ANALYSIS_THREADS = 2;
+
+    private static final long DEFAULT_ANALYSIS_DELAY = 500L;
+
+    private static final int DEFAULT_CHECK_PARALLELISM = 1;
+
+    private static final String DEFAULT_VIOLATION_STORE = "xobject";
+
+    private static final int DEFAULT_BATCH_SIZE = 100;
+
+    private static final int DEFAULT_BATCH_RATE = 10;
+
+    private static final long DEFAULT_CHECK_TIMEOUT = 10000L;
+
+    private static final long DEFAULT_ANALYSIS_TIMEOUT = 30000L;
+
+    private static final int DEFAULT_MACRO_DEPTH = 5;
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @Override
+    public int getAnalysisThreads()
+    {
+        return this.configuration.getProperty(PREFIX + "analysis.threads", DEFAULT_ANALYSIS_THREADS);
+    }
+
+    @Override
+    public long getAnalysisDelay()
+    {
+        return this.configuration.getProperty(PREFIX + "analysis.delay", DEFAULT_ANALYSIS_DELAY);
+    }
+
+    @Override
+    public int getCheckParallelism()
+    {
+        return this.configuration.getProperty(PREFIX + "checks.parallelism", DEFAULT_CHECK_PARALLELISM);
+    }
+
+    @Override
+    public String getViolationStore()
+    {
+        return this.configuration.getProperty(PREFIX + "violations.store", DEFAULT_VIOLATION_STORE);
+    }
+
+    @Override
+    public int getBatchSize()
+    {
+        return this.configuration.getProperty(PREFIX + "batch.size", DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public int getBatchRate()
+    {
+        return this.configuration.getProperty(PREFIX + "batch.rate", DEFAULT_BATCH_RATE);
+    }
+
+    @Override
+    public long getCheckTimeout()
+    {
+        return this.configuration.getProperty(PREFIX + "checks.timeout", DEFAULT_CHECK_TIMEOUT);
+    }
+
+    @Override
+    public long getAnalysisTimeout()
+    {
+        return this.configuration.getProperty(PREFIX + "analysis.timeout", DEFAULT_ANALYSIS_TIMEOUT);
+    }
+
+    @Override
+    public int getMacroDepth()
+    {
+        return this.configuration.getProperty(PREFIX + "checks.macroDepth", DEFAULT_MACRO_DEPTH);
+    }
+}
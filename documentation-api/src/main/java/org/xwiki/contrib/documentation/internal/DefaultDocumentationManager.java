@@ -20,30 +20,34 @@
 package org.xwiki.contrib.documentation.internal;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
 
 import javax.inject.Inject;
-import javax.inject.Named;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
+import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
-import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.contrib.documentation.DocumentationAnalysisContext;
 import org.xwiki.contrib.documentation.DocumentationCheck;
+import org.xwiki.contrib.documentation.DocumentationException;
 import org.xwiki.contrib.documentation.DocumentationManager;
 import org.xwiki.contrib.documentation.DocumentationViolation;
+import org.xwiki.contrib.documentation.DocumentationViolationStore;
 import org.xwiki.index.IndexException;
-import org.xwiki.index.TaskManager;
-import org.xwiki.model.reference.LocalDocumentReference;
-import org.xwiki.user.SuperAdminUserReference;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.XWikiDocument;
-import com.xpn.xwiki.objects.BaseObject;
 
 /**
- * Perform documentation analysis using the {@link TaskManager} API (i.e. asynchronously).
+ * Perform documentation analysis synchronously, in the calling thread, holding a per-document lock so that the
+ * analyses of the same document don't save their violations on top of each other. The analyses triggered by document
+ * saves are made asynchronous by {@link DocumentationAnalysisQueue}, which calls this manager from its own threads.
  *
  * @version $Id$
  * @since 1.0
@@ -52,121 +56,146 @@ import com.xpn.xwiki.objects.BaseObject;
 @Singleton
 public class DefaultDocumentationManager implements DocumentationManager
 {
-    private static final List<String> SPACES = List.of("DocApp", "Code");
+    @Inject
+    private DocumentationCheckRegistry checkRegistry;
 
-    private static final LocalDocumentReference VIOLATION_CLASS_REFERENCE =
-        new LocalDocumentReference(SPACES, "DocumentationViolationClass");
+    @Inject
+    private Provider<DocumentationViolationStore> storeProvider;
 
-    private static final String MESSAGE = "message";
+    @Inject
+    private DocumentationCheckRunner checkRunner;
 
-    private static final String CONTEXT = "context";
+    @Inject
+    private DocumentationFingerprints fingerprints;
 
-    private static final String SEVERITY = "severity";
+    @Inject
+    private DocumentationMetrics metrics;
 
     @Inject
-    @Named("context")
-    private Provider<ComponentManager> componentManagerProvider;
+    private DocumentationAnalysisLocks locks;
 
     @Inject
     private Provider<XWikiContext> xcontextProvider;
 
+    @Inject
+    private Logger logger;
+
     @Override
     public void analyse(XWikiDocument document) throws IndexException
     {
-        ComponentManager cm = this.componentManagerProvider.get();
+        analyse(document, false);
+    }
+
+    @Override
+    public void analyse(XWikiDocument document, boolean force) throws IndexException
+    {
+        // Analyses of the same document are serialized, so that they don't save their violations on top of each other.
+        Lock lock = this.locks.getLock(document.getDocumentReference());
+        lock.lock();
         try {
-            // Step 1: Call the various checkers
-            XWikiContext xcontext = this.xcontextProvider.get();
-            List<DocumentationCheck> checkers = cm.getInstanceList(DocumentationCheck.class);
-            List<DocumentationViolation> violations = new ArrayList<>();
-            for (DocumentationCheck checker : checkers) {
-                violations.addAll(checker.check(document));
+            if (isOutdated(document)) {
+                return;
             }
-
-            // Step 2: Save new violations when they don't already exist + remove violations that were stored but don't
-            //         exist anymore.
-            boolean hasChanges = saveAndDeleteXObjects(document, violations, xcontext);
-
-            // Step 3: Save the document (only if there have been changes)
-            if (hasChanges) {
-                // Save as superadmin, representing the system user, to indicate that the changes are not from the
-                // current author but by the system.
-                document.setAuthor(SuperAdminUserReference.INSTANCE);
-                xcontext.getWiki().saveDocument(document, "Documentation analysis", true, xcontext);
+            DocumentationViolationStore store = this.storeProvider.get();
+            Map<String, DocumentationCheck> checks = this.checkRegistry.getChecks();
+
+            // Step 0: Skip the analysis when the data read by the checks didn't change since the last analysis (e.g.
+            //         when only a review or some tags have been modified), and otherwise only execute the checks
+            //         reading data that changed. All the checks are executed when the violations found by each check
+            //         are not known (e.g. violations stored before the check reporting them was recorded).
+            DocumentationFingerprint fingerprint = this.fingerprints.compute(document, checks);
+            Map<String, List<DocumentationViolation>> storedViolations = store.getViolations(document);
+            DocumentationFingerprint lastAnalysis = force ? null
+                : this.fingerprints.getLastAnalysis(document, storedViolations, store.getFingerprint(document));
+            if (lastAnalysis != null && lastAnalysis.getValue().equals(fingerprint.getValue())) {
+                return;
+            }
+            long start = System.nanoTime();
+            Map<String, DocumentationCheck> changedChecks =
+                getChangedChecks(checks, fingerprint, storedViolations.containsKey("") ? null : lastAnalysis);
+
+            // Step 1: Call the various checkers, sharing a single analysis context so that the values needed by
+            //         several of them (parsed content, etc.) are computed only once.
+            DocumentationCheckResults results = this.checkRunner.run(changedChecks,
+                new DocumentationAnalysisContext(document, new ArrayList<>(changedChecks.values())));
+
+            // Step 2: Store the violations, keeping the ones of the checks that were not executed and dropping the
+            //         ones of the checks that have been removed. The checks that exceeded their time budget are
+            //         executed again by the next analysis.
+            Map<String, List<DocumentationViolation>> violations = new LinkedHashMap<>();
+            for (String check : checks.keySet()) {
+                violations.put(check, results.getViolations().containsKey(check) ? results.getViolations().get(check)
+                    : storedViolations.getOrDefault(check, List.of()));
             }
+            // Drop the analysis when the document has been modified while the checks were executed (the newer version
+            // is analysed in turn). User saves don't take the analysis lock, so the store checks again right before
+            // saving and never persists the analysed instance.
+            if (isOutdated(document)) {
+                return;
+            }
+            DocumentationFingerprint analysed = fingerprint.withoutChecks(results.getTimedOutChecks());
+            if (!store.save(document, violations, analysed.serialize())) {
+                this.logger.debug("Dropped the documentation analysis of [{}] version [{}], the document has been "
+                    + "modified while saving its violations.", document.getDocumentReferenceWithLocale(),
+                    document.getVersion());
+                return;
+            }
+            this.fingerprints.remember(document, analysed, store.getViolations(getLatestDocument(document)));
+            this.metrics.recordStep(DocumentationMetrics.ANALYSIS, System.nanoTime() - start);
         } catch (Exception e) {
             throw new IndexException(String.format(
                 "Failed to perform documentation content validation for [%s]", document.getDocumentReference()), e);
+        } finally {
+            lock.unlock();
         }
     }
 
-    private boolean saveAndDeleteXObjects(XWikiDocument document, List<DocumentationViolation> violations,
-        XWikiContext xcontext) throws XWikiException
+    @Override
+    public Map<String, List<DocumentationViolation>> check(XWikiDocument document) throws DocumentationException
     {
-        boolean hasChanges = false;
-        List<BaseObject> existingViolationObjects = new ArrayList<>(document.getXObjects(VIOLATION_CLASS_REFERENCE));
-
-        // Remove all existing violations that don't exist anymore.
-        for (BaseObject existingViolationObject : existingViolationObjects) {
-            // If we don't find the violation in the new list, remove it.
-            if (existingViolationObject != null && !exists(existingViolationObject, violations)) {
-                document.removeXObject(existingViolationObject);
-                hasChanges = true;
-            }
-        }
-
-        // Add all new violations that don't already exist.'
-        for (DocumentationViolation violation : violations) {
-            // If we don't already have this violation as an xobject, add it.
-            if (!exists(violation, existingViolationObjects)) {
-                BaseObject object = document.newXObject(VIOLATION_CLASS_REFERENCE, xcontext);
-                object.set(MESSAGE, violation.getViolationMessage(), xcontext);
-                object.set(CONTEXT, violation.getViolationContext(), xcontext);
-                object.set(SEVERITY, violation.getViolationSeverity().toString(), xcontext);
-                hasChanges = true;
-            }
-        }
-
-        return hasChanges;
+        Map<String, DocumentationCheck> checks = this.checkRegistry.getChecks();
+        DocumentationAnalysisContext context =
+            new DocumentationAnalysisContext(document, new ArrayList<>(checks.values()));
+        return this.checkRunner.run(checks, context).getViolations();
     }
 
-    private boolean exists(BaseObject existingViolationObject, List<DocumentationViolation> violations)
+    /**
+     * @param document the analysed document
+     * @return {@code true} if the analysed document is not the latest version of the document anymore (e.g. it has
+     *     been saved again, or deleted, since it was loaded), {@code false} otherwise
+     */
+    private boolean isOutdated(XWikiDocument document) throws XWikiException
     {
-        boolean exists = false;
-        for (DocumentationViolation violation : violations) {
-            if (isEqual(existingViolationObject, violation)) {
-                exists = true;
-                break;
-            }
+        XWikiDocument latest = getLatestDocument(document);
+        boolean outdated = latest.isNew() || !Objects.equals(latest.getVersion(), document.getVersion());
+        if (outdated) {
+            this.logger.debug("Dropped the documentation analysis of [{}] version [{}], the latest version is [{}].",
+                document.getDocumentReferenceWithLocale(), document.getVersion(),
+                latest.isNew() ? null : latest.getVersion());
         }
-        return exists;
+        return outdated;
     }
 
-    private boolean exists(DocumentationViolation violation, List<BaseObject> existingViolationObjects)
+    private XWikiDocument getLatestDocument(XWikiDocument document) throws XWikiException
     {
-        boolean exists = false;
-        for (BaseObject existingViolationObject : existingViolationObjects) {
-            if (isEqual(existingViolationObject, violation)) {
-                exists = true;
-                break;
-            }
-        }
-        return exists;
+        XWikiContext xcontext = this.xcontextProvider.get();
+        return xcontext.getWiki().getDocument(document.getDocumentReferenceWithLocale(), xcontext);
     }
 
-    private boolean isEqual(BaseObject existingViolationObject, DocumentationViolation violation)
+    private Map<String, DocumentationCheck> getChangedChecks(Map<String, DocumentationCheck> checks,
+        DocumentationFingerprint fingerprint, DocumentationFingerprint lastAnalysis)
     {
-        boolean result;
-        if (existingViolationObject == null) {
-            result = false;
+        Map<String, DocumentationCheck> changedChecks;
+        if (lastAnalysis == null) {
+            changedChecks = checks;
         } else {
-            String message = existingViolationObject.getStringValue(MESSAGE);
-            String context = existingViolationObject.getStringValue(CONTEXT);
-            String severity = existingViolationObject.getStringValue(SEVERITY);
-            result = violation.getViolationMessage().equals(message)
-                && violation.getViolationContext().equals(context)
-                && violation.getViolationSeverity().toString().equals(severity);
+            changedChecks = new LinkedHashMap<>();
+            for (Map.Entry<String, DocumentationCheck> check : checks.entrySet()) {
+                if (fingerprint.isChanged(check.getKey(), lastAnalysis)) {
+                    changedChecks.put(check.getKey(), check.getValue());
+                }
+            }
         }
-        return result;
+        return changedChecks;
     }
 }
@@ -0,0 +1,239 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.documentation.DocumentationConfiguration;
+import org.xwiki.environment.Environment;
+import org.xwiki.job.AbstractJob;
+import org.xwiki.job.DefaultJobStatus;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+
+/**
+ * Analyses all the documentation pages of a wiki (e.g. after installing new or upgraded documentation checks). The
+ * pages are loaded in batches of {@link DocumentationConfiguration#getBatchSize()} pages and analysed on the
+ * {@link DocumentationAnalysisQueue} worker threads, at most {@link DocumentationConfiguration#getBatchRate()} pages
+ * per second.
+ * <p>
+ * The job can also analyse a given list of pages (see {@link DocumentationAnalysisRequest#getReferences()}), in which
+ * case it doesn't record its progress.
+ * <p>
+ * The last analysed page is recorded in the permanent directory after each batch, so that a job interrupted before
+ * completing (e.g. by a restart) resumes from there when started again.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@Component
+@Named(DocumentationAnalysisJob.JOB_TYPE)
+public class DocumentationAnalysisJob
+    extends AbstractJob<DocumentationAnalysisRequest, DefaultJobStatus<DocumentationAnalysisRequest>>
+{
+    /**
+     * The type of the job.
+     */
+    public static final String JOB_TYPE = "documentation.analysis";
+
+    private static final String OBJECT = "doc.object(DocApp.Code.DocumentationClass) as documentation";
+
+    private static final String WHERE =
+        "where doc.fullName > :lastDocument and doc.space <> 'DocApp' and doc.space not like 'DocApp.%'";
+
+    // Short-form XWQL statement: the "Document doc" declaration is implicit.
+    private static final String BATCH_STATEMENT = "from " + OBJECT + ' ' + WHERE + " order by doc.fullName";
+
+    // Full-form XWQL statement (because of the select clause): "Document doc" must be declared explicitly.
+    private static final String COUNT_STATEMENT =
+        "select count(doc.fullName) from Document doc, " + OBJECT + ' ' + WHERE;
+
+    private static final String LAST_DOCUMENT = "lastDocument";
+
+    @Inject
+    private QueryManager queryManager;
+
+    @Inject
+    private DocumentationAnalysisQueue queue;
+
+    @Inject
+    private DocumentationConfiguration configuration;
+
+    @Inject
+    private DocumentReferenceResolver<String> resolver;
+
+    @Inject
+    private Environment environment;
+
+    private long nextSubmission;
+
+    @Override
+    public String getType()
+    {
+        return JOB_TYPE;
+    }
+
+    @Override
+    protected DefaultJobStatus<DocumentationAnalysisRequest> createNewStatus(DocumentationAnalysisRequest request)
+    {
+        DefaultJobStatus<DocumentationAnalysisRequest> jobStatus = super.createNewStatus(request);
+        jobStatus.setCancelable(true);
+        return jobStatus;
+    }
+
+    @Override
+    protected void runInternal() throws Exception
+    {
+        if (getRequest().getReferences() != null) {
+            analyseDocuments(getRequest().getReferences());
+        } else {
+            analyseWiki(getRequest().getWiki());
+        }
+    }
+
+    private void analyseDocuments(List<DocumentReference> references) throws Exception
+    {
+        int batchSize = Math.max(1, this.configuration.getBatchSize());
+
+        this.progressManager.pushLevelProgress(references.size(), this);
+        try {
+            for (int i = 0; i < references.size() && !getStatus().isCanceled(); i += batchSize) {
+                analyse(references.subList(i, Math.min(i + batchSize, references.size())));
+            }
+        } finally {
+            this.progressManager.popLevelProgress(this);
+        }
+    }
+
+    private void analyseWiki(String wiki) throws Exception
+    {
+        WikiReference wikiReference = new WikiReference(wiki);
+        String lastDocument = getRequest().isResume() ? readCheckpoint(wiki) : "";
+        int batchSize = Math.max(1, this.configuration.getBatchSize());
+
+        this.progressManager.pushLevelProgress(count(wiki, lastDocument), this);
+        try {
+            List<String> batch;
+            do {
+                batch = this.queryManager.createQuery(BATCH_STATEMENT, Query.XWQL).setWiki(wiki)
+                    .bindValue(LAST_DOCUMENT, lastDocument).setLimit(batchSize).execute();
+                int analysed =
+                    analyse(batch.stream().map(document -> this.resolver.resolve(document, wikiReference)).toList());
+                if (analysed > 0) {
+                    lastDocument = batch.get(analysed - 1);
+                    writeCheckpoint(wiki, lastDocument);
+                }
+            } while (batch.size() == batchSize && !getStatus().isCanceled());
+
+            if (!getStatus().isCanceled()) {
+                Files.deleteIfExists(getCheckpoint(wiki));
+            }
+        } finally {
+            this.progressManager.popLevelProgress(this);
+        }
+    }
+
+    private int count(String wiki, String lastDocument) throws QueryException
+    {
+        List<Long> result = this.queryManager.createQuery(COUNT_STATEMENT, Query.XWQL)
+            .setWiki(wiki).bindValue(LAST_DOCUMENT, lastDocument).execute();
+        return result.get(0).intValue();
+    }
+
+    private int analyse(List<DocumentReference> batch) throws Exception
+    {
+        List<Future<?>> analyses = new ArrayList<>(batch.size());
+        for (DocumentReference document : batch) {
+            if (getStatus().isCanceled()) {
+                break;
+            }
+            waitForRate();
+            analyses.add(this.queue.submit(document, getRequest().isForce()));
+        }
+        // Wait for the whole batch so that the checkpoint never goes past a page that wasn't analysed.
+        for (Future<?> analysis : analyses) {
+            this.progressManager.startStep(this);
+            analysis.get();
+            this.progressManager.endStep(this);
+        }
+        return analyses.size();
+    }
+
+    private void waitForRate() throws InterruptedException
+    {
+        int rate = this.configuration.getBatchRate();
+        if (rate > 0) {
+            long now = System.nanoTime();
+            if (this.nextSubmission > now) {
+                TimeUnit.NANOSECONDS.sleep(this.nextSubmission - now);
+            }
+            this.nextSubmission = Math.max(this.nextSubmission, now) + TimeUnit.SECONDS.toNanos(1) / rate;
+        }
+    }
+
+    private String readCheckpoint(String wiki) throws IOException
+    {
+        Properties checkpoint = new Properties();
+        Path file = getCheckpoint(wiki);
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                checkpoint.load(reader);
+            }
+            this.logger.info("Resuming the documentation analysis of wiki [{}] after [{}].", wiki,
+                checkpoint.getProperty(LAST_DOCUMENT));
+        }
+        return checkpoint.getProperty(LAST_DOCUMENT, "");
+    }
+
+    private void writeCheckpoint(String wiki, String lastDocument) throws IOException
+    {
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty(LAST_DOCUMENT, lastDocument);
+        Path file = getCheckpoint(wiki);
+        Files.createDirectories(file.getParent());
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            checkpoint.store(writer, null);
+        }
+    }
+
+    private Path getCheckpoint(String wiki)
+    {
+        return this.environment.getPermanentDirectory().toPath().resolve("documentation").resolve("batch")
+            .resolve(wiki + ".properties");
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+
+/**
+ * Striped locks preventing several analyses of the same document from running at the same time (e.g. when a page is
+ * saved twice in a row, or when a page is analysed by the background queue and by an analysis job), which would
+ * otherwise save their violations on top of each other. The locks are shared by documents whose references fall in
+ * the same stripe, so that the memory used doesn't depend on the number of documents, and there are enough stripes
+ * for the analyses of different documents to almost never wait for each other.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@Component(roles = DocumentationAnalysisLocks.class)
+@Singleton
+public class DocumentationAnalysisLocks
+{
+    private static final int STRIPES = 256;
+
+    private final Lock[] locks = new Lock[STRIPES];
+
+    /**
+     * Default constructor.
+     */
+    public DocumentationAnalysisLocks()
+    {
+        for (int i = 0; i < STRIPES; i++) {
+            this.locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * @param reference the reference of a document (the locale is ignored, so that all the translations of a document
+     *     share the same lock)
+     * @return the lock to hold while analysing the document
+     */
+    public Lock getLock(DocumentReference reference)
+    {
+        DocumentReference documentReference = reference.getLocale() != null ? new DocumentReference(reference, null)
+            : reference;
+        return this.locks[Math.floorMod(documentReference.hashCode(), STRIPES)];
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.contrib.documentation.DocumentationConfiguration;
+import org.xwiki.contrib.documentation.DocumentationManager;
+import org.xwiki.model.reference.DocumentReference;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+
+/**
+ * Analyses saved documentation pages in the background, on a bounded pool of worker threads, so that saving a page
+ * doesn't pay for the documentation checks.
+ * <p>
+ * Analyses are coalesced per document: a page that is saved several times while its analysis is waiting to run is
+ * analysed only once, and always against the latest version loaded from the store when the analysis starts.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@Component(roles = DocumentationAnalysisQueue.class)
+@Singleton
+public class DocumentationAnalysisQueue implements Initializable, Disposable
+{
+    @Inject
+    private Logger logger;
+
+    @Inject
+    private DocumentationManager manager;
+
+    @Inject
+    private DocumentationConfiguration configuration;
+
+    @Inject
+    private ExecutionContextManager executionContextManager;
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    /**
+     * The documents waiting to be analysed, each with whether its analysis is forced. A document is removed from this
+     * map as soon as its analysis starts, so that a save happening during the analysis schedules a new one.
+     */
+    private final Map<DocumentReference, Boolean> pending = new ConcurrentHashMap<>();
+
+    /**
+     * The number of analyses running for each document.
+     */
+    private final Map<DocumentReference, Integer> running = new ConcurrentHashMap<>();
+
+    private ScheduledThreadPoolExecutor executor;
+
+    @Override
+    public void initialize()
+    {
+        BasicThreadFactory threadFactory = BasicThreadFactory.builder()
+            .namingPattern("Documentation analysis-%d")
+            .daemon(true)
+            .priority(Thread.MIN_PRIORITY)
+            .build();
+        this.executor =
+            new ScheduledThreadPoolExecutor(Math.max(1, this.configuration.getAnalysisThreads()), threadFactory);
+        this.executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Schedule the analysis of the passed document, unless an analysis of it is already waiting to run.
+     *
+     * @param reference the reference of the document to analyse
+     */
+    public void enqueue(DocumentReference reference)
+    {
+        enqueue(reference, false);
+    }
+
+    /**
+     * Schedule the analysis of the passed document, unless an analysis of it is already waiting to run (in which case
+     * that analysis is forced if requested).
+     *
+     * @param reference the reference of the document to analyse
+     * @param force {@code true} to analyse the document even when the data read by the documentation checks didn't
+     *     change since its last analysis
+     */
+    public void enqueue(DocumentReference reference, boolean force)
+    {
+        while (true) {
+            Boolean pendingForce = this.pending.putIfAbsent(reference, force);
+            if (pendingForce == null) {
+                this.executor.schedule(
+                    () -> analyse(reference, () -> Boolean.TRUE.equals(this.pending.remove(reference))),
+                    this.configuration.getAnalysisDelay(), TimeUnit.MILLISECONDS);
+                return;
+            }
+            // Retry if the pending analysis started in between, since it might not be forced.
+            if (pendingForce || !force || this.pending.replace(reference, Boolean.FALSE, Boolean.TRUE)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Analyse the passed document as soon as a worker thread is available, without coalescing.
+     *
+     * @param reference the reference of the document to analyse
+     * @param force {@code true} to analyse the document even when the data read by the documentation checks didn't
+     *     change since its last analysis
+     * @return the future completed when the analysis is done (a failed analysis is logged and completes normally)
+     */
+    public Future<?> submit(DocumentReference reference, boolean force)
+    {
+        return this.executor.submit(() -> analyse(reference, () -> force));
+    }
+
+    /**
+     * @param reference the reference of a document
+     * @return {@code true} if an analysis of the document is waiting to run
+     */
+    public boolean isPending(DocumentReference reference)
+    {
+        return this.pending.containsKey(reference);
+    }
+
+    /**
+     * @param reference the reference of a document
+     * @return {@code true} if an analysis of the document is waiting to run or running
+     */
+    public boolean isAnalysing(DocumentReference reference)
+    {
+        return isPending(reference) || this.running.containsKey(reference);
+    }
+
+    /**
+     * @param force tells whether the analysis is forced, called once the document is recorded as being analysed so
+     *     that a pending analysis can be removed without the document being reported as not analysed in between
+     */
+    private void analyse(DocumentReference reference, BooleanSupplier force)
+    {
+        this.running.merge(reference, 1, Integer::sum);
+        boolean forced = force.getAsBoolean();
+        try {
+            this.executionContextManager.initialize(new ExecutionContext());
+            XWikiContext xcontext = this.xcontextProvider.get();
+            xcontext.setWikiId(reference.getWikiReference().getName());
+            XWikiDocument document = xcontext.getWiki().getDocument(reference, xcontext);
+            if (!document.isNew()) {
+                // The document comes from the document cache: clone it since the analysis modifies it.
+                this.manager.analyse(document.clone(), forced);
+            }
+        } catch (Exception e) {
+            this.logger.error("Failed to perform documentation checks on the document [{}].", reference, e);
+        } finally {
+            this.execution.removeContext();
+            this.running.computeIfPresent(reference, (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.xwiki.job.AbstractRequest;
+import org.xwiki.model.reference.DocumentReference;
+
+/**
+ * The request of a {@link DocumentationAnalysisJob}.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+public class DocumentationAnalysisRequest extends AbstractRequest
+{
+    private static final long serialVersionUID = 1L;
+
+    private static final String PROPERTY_WIKI = "wiki";
+
+    private static final String PROPERTY_FORCE = "force";
+
+    private static final String PROPERTY_RESUME = "resume";
+
+    private static final String PROPERTY_REFERENCES = "references";
+
+    private static final String PROPERTY_USER = "user";
+
+    private static final String ID_PREFIX_ANALYSIS = "analysis";
+
+    private static final String ID_PREFIX_DOCUMENTATION = "documentation";
+
+    /**
+     * @param wiki the wiki whose documentation pages should be analysed
+     */
+    public DocumentationAnalysisRequest(String wiki)
+    {
+        setId(getJobId(wiki));
+        setProperty(PROPERTY_WIKI, wiki);
+        setProperty(PROPERTY_FORCE, false);
+        setProperty(PROPERTY_RESUME, true);
+    }
+
+    /**
+     * @param references the documentation pages to analyse, in that order
+     * @since 1.17
+     */
+    public DocumentationAnalysisRequest(List<DocumentReference> references)
+    {
+        setId(List.of(ID_PREFIX_DOCUMENTATION, ID_PREFIX_ANALYSIS, "documents", UUID.randomUUID().toString()));
+        setProperty(PROPERTY_REFERENCES, new ArrayList<>(references));
+        setProperty(PROPERTY_FORCE, false);
+        setProperty(PROPERTY_RESUME, false);
+    }
+
+    /**
+     * @param wiki a wiki
+     * @return the identifier of the job analysing the documentation pages of the wiki
+     */
+    public static List<String> getJobId(String wiki)
+    {
+        return List.of(ID_PREFIX_DOCUMENTATION, ID_PREFIX_ANALYSIS, wiki);
+    }
+
+    /**
+     * @param jobId the identifier of a job
+     * @return {@code true} if the identifier is the one of a job analysing documentation pages, {@code false} otherwise
+     */
+    public static boolean isJobId(List<String> jobId)
+    {
+        return jobId != null && jobId.size() > 2 && ID_PREFIX_DOCUMENTATION.equals(jobId.get(0))
+            && ID_PREFIX_ANALYSIS.equals(jobId.get(1));
+    }
+
+    /**
+     * @return the wiki whose documentation pages should be analysed, or {@code null} if the request is about a list of
+     *     pages
+     */
+    public String getWiki()
+    {
+        return getProperty(PROPERTY_WIKI);
+    }
+
+    /**
+     * @return the documentation pages to analyse, or {@code null} if the request is about all the documentation pages
+     *     of a wiki
+     */
+    public List<DocumentReference> getReferences()
+    {
+        return getProperty(PROPERTY_REFERENCES);
+    }
+
+    /**
+     * @return the user who started the analysis, or {@code null} if it's unknown (e.g. for an analysis started by the
+     *     application itself)
+     */
+    public DocumentReference getUserReference()
+    {
+        return getProperty(PROPERTY_USER);
+    }
+
+    /**
+     * @param userReference see {@link #getUserReference()}
+     */
+    public void setUserReference(DocumentReference userReference)
+    {
+        setProperty(PROPERTY_USER, userReference);
+    }
+
+    /**
+     * @return {@code true} to analyse the pages even when the data read by the documentation checks didn't change since
+     *     their last analysis
+     */
+    public boolean isForce()
+    {
+        return getProperty(PROPERTY_FORCE, false);
+    }
+
+    /**
+     * @param force see {@link #isForce()}
+     */
+    public void setForce(boolean force)
+    {
+        setProperty(PROPERTY_FORCE, force);
+    }
+
+    /**
+     * @return {@code true} to resume from the last page analysed by a previous job that didn't complete (e.g. because
+     *     the server was restarted), {@code false} to start over
+     */
+    public boolean isResume()
+    {
+        return getProperty(PROPERTY_RESUME, true);
+    }
+
+    /**
+     * @param resume see {@link #isResume()}
+     */
+    public void setResume(boolean resume)
+    {
+        setProperty(PROPERTY_RESUME, resume);
+    }
+}
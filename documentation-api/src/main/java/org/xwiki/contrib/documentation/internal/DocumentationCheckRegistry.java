@@ -0,0 +1,96 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.contrib.documentation.DocumentationCheck;
+import org.xwiki.contrib.documentation.DocumentationException;
+
+import com.xpn.xwiki.XWikiContext;
+
+/**
+ * Keeps the available {@link DocumentationCheck}s, ordered by hint, so that they are not looked up (and, for per-lookup
+ * checks, instantiated) for each analysis. The checks are looked up again, per wiki, only after a
+ * {@link DocumentationCheck} component has been registered or unregistered (see
+ * {@link DocumentationCheckRegistryListener}).
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@Component(roles = DocumentationCheckRegistry.class)
+@Singleton
+public class DocumentationCheckRegistry
+{
+    @Inject
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    /**
+     * The checks available in each wiki, indexed by wiki identifier. Replaced (rather than cleared) when invalidated,
+     * so that a lookup running concurrently with an invalidation cannot store outdated checks.
+     */
+    private volatile Map<String, Map<String, DocumentationCheck>> checks = new ConcurrentHashMap<>();
+
+    /**
+     * @return the checks available in the current wiki, indexed and ordered by hint
+     * @throws DocumentationException if the checks cannot be looked up
+     */
+    public Map<String, DocumentationCheck> getChecks() throws DocumentationException
+    {
+        Map<String, Map<String, DocumentationCheck>> cache = this.checks;
+        String wiki = this.xcontextProvider.get().getWikiId();
+        Map<String, DocumentationCheck> wikiChecks = cache.get(wiki);
+        if (wikiChecks == null) {
+            try {
+                Map<String, DocumentationCheck> instances =
+                    this.componentManagerProvider.get().getInstanceMap(DocumentationCheck.class);
+                wikiChecks = Collections.unmodifiableMap(new TreeMap<>(instances));
+            } catch (ComponentLookupException e) {
+                throw new DocumentationException("Failed to look up the documentation checks", e);
+            }
+            // Concurrent lookups may both store their result, which is fine since they are equivalent.
+            cache.put(wiki, wikiChecks);
+        }
+        return wikiChecks;
+    }
+
+    /**
+     * Forget the checks, so that they are looked up again on the next call to {@link #getChecks()}.
+     */
+    public void invalidate()
+    {
+        this.checks = new ConcurrentHashMap<>();
+    }
+}
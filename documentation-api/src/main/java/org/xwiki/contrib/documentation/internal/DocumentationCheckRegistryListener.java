@@ -0,0 +1,67 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.event.ComponentDescriptorAddedEvent;
+import org.xwiki.component.event.ComponentDescriptorRemovedEvent;
+import org.xwiki.contrib.documentation.DocumentationCheck;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+
+/**
+ * Invalidate the {@link DocumentationCheckRegistry} when a {@link DocumentationCheck} component is registered or
+ * unregistered (e.g. when an extension providing checks is installed, upgraded or uninstalled).
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@Component
+@Singleton
+@Named(DocumentationCheckRegistryListener.NAME)
+public class DocumentationCheckRegistryListener extends AbstractEventListener
+{
+    /**
+     * The name of the listener.
+     */
+    public static final String NAME = "DocumentationCheckRegistryListener";
+
+    @Inject
+    private DocumentationCheckRegistry registry;
+
+    /**
+     * Default constructor.
+     */
+    public DocumentationCheckRegistryListener()
+    {
+        super(NAME, new ComponentDescriptorAddedEvent(DocumentationCheck.class),
+            new ComponentDescriptorRemovedEvent(DocumentationCheck.class));
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        this.registry.invalidate();
+    }
+}
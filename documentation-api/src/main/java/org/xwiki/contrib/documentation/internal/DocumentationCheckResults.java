@@ -0,0 +1,78 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.xwiki.contrib.documentation.DocumentationViolation;
+
+/**
+ * The violations found by the checks executed by the {@link DocumentationCheckRunner}, and the checks that were
+ * cancelled because they exceeded their time budget.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+public class DocumentationCheckResults
+{
+    private final Map<String, List<DocumentationViolation>> violations = new LinkedHashMap<>();
+
+    private final Set<String> timedOutChecks = new LinkedHashSet<>();
+
+    /**
+     * @param hint the hint of a check that completed
+     * @param checkViolations the violations found by the check
+     */
+    public void add(String hint, List<DocumentationViolation> checkViolations)
+    {
+        this.violations.put(hint, checkViolations);
+    }
+
+    /**
+     * @param hint the hint of a check that was cancelled because it exceeded its time budget
+     * @param timeoutViolation the violation reporting the timeout, stored in place of the violations of the check
+     */
+    public void addTimeout(String hint, DocumentationViolation timeoutViolation)
+    {
+        this.violations.put(hint, List.of(timeoutViolation));
+        this.timedOutChecks.add(hint);
+    }
+
+    /**
+     * @return the violations found by each check, indexed by check hint, in the iteration order of the executed checks
+     */
+    public Map<String, List<DocumentationViolation>> getViolations()
+    {
+        return Collections.unmodifiableMap(this.violations);
+    }
+
+    /**
+     * @return the hints of the checks that were cancelled because they exceeded their time budget
+     */
+    public Set<String> getTimedOutChecks()
+    {
+        return Collections.unmodifiableSet(this.timedOutChecks);
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextException;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.contrib.documentation.DocumentationAnalysisContext;
+import org.xwiki.contrib.documentation.DocumentationCancellationToken;
+import org.xwiki.contrib.documentation.DocumentationCheck;
+import org.xwiki.contrib.documentation.DocumentationConfiguration;
+import org.xwiki.contrib.documentation.DocumentationException;
+import org.xwiki.contrib.documentation.DocumentationViolation;
+import org.xwiki.contrib.documentation.DocumentationViolationSeverity;
+
+/**
+ * Executes a list of {@link DocumentationCheck}s on a document, either one after another in the calling thread or,
+ * when {@link DocumentationConfiguration#getCheckParallelism()} is greater than 1, concurrently on a dedicated
+ * thread pool.
+ * <p>
+ * In parallel mode each check runs with its own clone of the caller's {@link ExecutionContext} (and thus its own
+ * {@code XWikiContext}), so that checks relying on the context (current wiki, current user, etc.) behave as when run
+ * sequentially without sharing mutable context state. The violations are always returned in the iteration order of
+ * the passed checks, whatever the order in which the checks complete. All the checks share the values memoized in the
+ * same {@link DocumentationAnalysisContext}, which is safe for concurrent use.
+ * <p>
+ * Each check gets a {@link DocumentationCancellationToken} cancelled when it exceeds its own time budget
+ * ({@link DocumentationConfiguration#getCheckTimeout()}) or when the analysis exceeds its time budget
+ * ({@link DocumentationConfiguration#getAnalysisTimeout()}). A cancelled check is reported by a warning violation
+ * instead of its violations. In parallel mode the runner stops waiting for the checks when the analysis exceeds its
+ * time budget, even if they don't poll their token, and interrupts them so that they don't keep holding a thread of
+ * the pool, whereas in sequential mode such checks run to completion. When a check fails, the other checks of the
+ * analysis are cancelled the same way before the failure is propagated. The
+ * values shared by the checks are {@link DocumentationCheck#prepare(DocumentationAnalysisContext) prepared} in the
+ * calling thread before the checks are executed, within the time budget of the analysis only, so that each check is
+ * charged only for its own work.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@Component(roles = DocumentationCheckRunner.class)
+@Singleton
+public class DocumentationCheckRunner implements Initializable, Disposable
+{
+    @Inject
+    private DocumentationConfiguration configuration;
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private ExecutionContextManager executionContextManager;
+
+    @Inject
+    private DocumentationMetrics metrics;
+
+    /**
+     * The pool used to execute checks concurrently, {@code null} when checks are executed sequentially.
+     */
+    private ExecutorService pool;
+
+    @Override
+    public void initialize()
+    {
+        int parallelism = this.configuration.getCheckParallelism();
+        if (parallelism > 1) {
+            // Not a fork-join pool: cancelling a fork-join task doesn't interrupt the thread executing it.
+            BasicThreadFactory threadFactory = BasicThreadFactory.builder()
+                .namingPattern("Documentation check-%d")
+                .daemon(true)
+                .build();
+            this.pool = Executors.newFixedThreadPool(parallelism, threadFactory);
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        if (this.pool != null) {
+            this.pool.shutdownNow();
+        }
+    }
+
+    /**
+     * @param checks the checks to execute, indexed by hint
+     * @param analysisContext the context of the analysis, holding the document to check
+     * @return the violations found by each check, indexed by check hint, in the iteration order of the passed checks,
+     *     and the checks that exceeded their time budget
+     * @throws DocumentationException if one of the checks fails
+     */
+    public DocumentationCheckResults run(Map<String, DocumentationCheck> checks,
+        DocumentationAnalysisContext analysisContext)
+        throws DocumentationException
+    {
+        DocumentationCancellationToken analysisToken =
+            new DocumentationCancellationToken(this.configuration.getAnalysisTimeout(), TimeUnit.MILLISECONDS);
+        prepare(checks, analysisContext, analysisToken);
+        DocumentationCheckResults results = new DocumentationCheckResults();
+        if (this.pool == null || checks.size() < 2) {
+            for (Map.Entry<String, DocumentationCheck> check : checks.entrySet()) {
+                addResult(results, check.getKey(),
+                    runCheck(check.getKey(), check.getValue(), analysisContext, analysisToken));
+            }
+        } else {
+            Map<String, Future<List<DocumentationViolation>>> futures = new LinkedHashMap<>();
+            for (Map.Entry<String, DocumentationCheck> check : checks.entrySet()) {
+                ExecutionContext checkContext = cloneExecutionContext();
+                futures.put(check.getKey(), this.pool.submit(() -> runInContext(checkContext, check.getKey(),
+                    check.getValue(), analysisContext, analysisToken)));
+            }
+            // Merge in the submission order so that the result doesn't depend on the thread scheduling.
+            try {
+                for (Map.Entry<String, Future<List<DocumentationViolation>>> future : futures.entrySet()) {
+                    addResult(results, future.getKey(), getResult(future.getValue(), analysisToken));
+                }
+            } catch (DocumentationException e) {
+                // Don't let the other checks run for an analysis that failed.
+                analysisToken.cancel();
+                futures.values().forEach(future -> future.cancel(true));
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    private void prepare(Map<String, DocumentationCheck> checks, DocumentationAnalysisContext analysisContext,
+        DocumentationCancellationToken analysisToken) throws DocumentationException
+    {
+        DocumentationAnalysisContext preparationContext = analysisContext.withCancellationToken(analysisToken);
+        long start = System.nanoTime();
+        try {
+            for (DocumentationCheck check : checks.values()) {
+                analysisToken.checkCancelled();
+                check.prepare(preparationContext);
+            }
+        } catch (CancellationException e) {
+            // The analysis exceeded its time budget: all the checks are reported as timed out without being started.
+            analysisToken.cancel();
+        } finally {
+            this.metrics.recordStep(DocumentationMetrics.PREPARATION, System.nanoTime() - start);
+        }
+    }
+
+    private void addResult(DocumentationCheckResults results, String hint, List<DocumentationViolation> violations)
+    {
+        if (violations == null) {
+            results.addTimeout(hint, new DocumentationViolation(
+                String.format("The [%s] documentation check was cancelled because it exceeded its time budget.", hint),
+                "", DocumentationViolationSeverity.WARNING));
+        } else {
+            results.add(hint, violations);
+        }
+    }
+
+    private ExecutionContext cloneExecutionContext() throws DocumentationException
+    {
+        ExecutionContext context = this.execution.getContext();
+        if (context == null) {
+            return null;
+        }
+        try {
+            return this.executionContextManager.clone(context);
+        } catch (ExecutionContextException e) {
+            throw new DocumentationException("Failed to clone the execution context for a documentation check", e);
+        }
+    }
+
+    private List<DocumentationViolation> runInContext(ExecutionContext context, String hint, DocumentationCheck check,
+        DocumentationAnalysisContext analysisContext, DocumentationCancellationToken analysisToken)
+        throws DocumentationException
+    {
+        if (context == null) {
+            return runCheck(hint, check, analysisContext, analysisToken);
+        }
+        this.execution.setContext(context);
+        try {
+            return runCheck(hint, check, analysisContext, analysisToken);
+        } finally {
+            this.execution.removeContext();
+        }
+    }
+
+    /**
+     * @return the violations found by the check, or {@code null} if it was cancelled because it exceeded its time
+     *     budget
+     */
+    private List<DocumentationViolation> runCheck(String hint, DocumentationCheck check,
+        DocumentationAnalysisContext analysisContext, DocumentationCancellationToken analysisToken)
+        throws DocumentationException
+    {
+        // The time budget of a check starts when it starts, not when it's submitted.
+        DocumentationCancellationToken token =
+            analysisToken.newChild(this.configuration.getCheckTimeout(), TimeUnit.MILLISECONDS);
+        long start = System.nanoTime();
+        try {
+            // Don't start a check when the analysis already exceeded its time budget.
+            token.checkCancelled();
+            List<DocumentationViolation> violations = check.check(analysisContext.withCancellationToken(token));
+            this.metrics.recordCheck(hint, System.nanoTime() - start, violations.size());
+            return violations;
+        } catch (CancellationException e) {
+            this.metrics.recordCheckTimeout(hint, System.nanoTime() - start);
+            return null;
+        } catch (DocumentationException | RuntimeException e) {
+            this.metrics.recordCheckFailure(hint, System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    /**
+     * @return the violations found by the check, or {@code null} if it was cancelled because it exceeded its time
+     *     budget
+     */
+    private List<DocumentationViolation> getResult(Future<List<DocumentationViolation>> future,
+        DocumentationCancellationToken analysisToken) throws DocumentationException
+    {
+        try {
+            long remaining = analysisToken.getRemaining(TimeUnit.NANOSECONDS);
+            return remaining == Long.MAX_VALUE ? future.get() : future.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // The check ignores its cancellation token: stop waiting for it, interrupt it and tell the other checks to
+            // stop.
+            analysisToken.cancel();
+            future.cancel(true);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DocumentationException("Interrupted while waiting for a documentation check", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DocumentationException) {
+                throw (DocumentationException) e.getCause();
+            }
+            throw new DocumentationException("Failed to execute a documentation check", e.getCause());
+        }
+    }
+}
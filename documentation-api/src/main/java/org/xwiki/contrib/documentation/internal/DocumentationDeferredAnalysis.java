@@ -0,0 +1,124 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.job.JobException;
+import org.xwiki.job.JobExecutor;
+import org.xwiki.model.reference.DocumentReference;
+
+/**
+ * Defers the analysis of the documentation pages saved by a bulk operation (e.g. a XAR import or an extension install
+ * or upgrade), which saves many pages in a row, until the operation is complete. The pages are then analysed by a
+ * single {@link DocumentationAnalysisJob}, instead of competing with the operation for the analysis queue page by
+ * page, and a page saved several times by the operation is analysed only once.
+ * <p>
+ * Bulk operations are tracked per thread, since the pages are saved by the thread executing the operation. They can
+ * be nested, in which case the pages are analysed when the outermost operation is complete.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@Component(roles = DocumentationDeferredAnalysis.class)
+@Singleton
+public class DocumentationDeferredAnalysis
+{
+    private final ThreadLocal<BulkOperation> operations = new ThreadLocal<>();
+
+    @Inject
+    private JobExecutor jobExecutor;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * Called when a bulk operation starts in the current thread.
+     */
+    public void begin()
+    {
+        BulkOperation operation = this.operations.get();
+        if (operation == null) {
+            operation = new BulkOperation();
+            this.operations.set(operation);
+        }
+        operation.depth++;
+    }
+
+    /**
+     * @param reference the reference of a documentation page that has been saved
+     * @return {@code true} if the analysis of the page has been deferred until the end of the bulk operation executed
+     *     by the current thread, {@code false} if the current thread is not executing a bulk operation (in which case
+     *     the caller is responsible for analysing the page)
+     */
+    public boolean defer(DocumentReference reference)
+    {
+        BulkOperation operation = this.operations.get();
+        if (operation == null) {
+            return false;
+        }
+        operation.references.add(reference);
+        return true;
+    }
+
+    /**
+     * Called when a bulk operation ends in the current thread, whether it succeeded or not (the pages it saved before
+     * failing still have to be analysed). Starts the analysis of the pages saved during the outermost operation.
+     */
+    public void end()
+    {
+        BulkOperation operation = this.operations.get();
+        if (operation == null) {
+            return;
+        }
+        operation.depth--;
+        if (operation.depth == 0) {
+            this.operations.remove();
+            analyse(operation.references);
+        }
+    }
+
+    private void analyse(Set<DocumentReference> references)
+    {
+        if (!references.isEmpty()) {
+            try {
+                this.jobExecutor.execute(DocumentationAnalysisJob.JOB_TYPE,
+                    new DocumentationAnalysisRequest(new ArrayList<>(references)));
+            } catch (JobException e) {
+                this.logger.error("Failed to start the documentation analysis of the [{}] pages saved by a bulk "
+                    + "operation.", references.size(), e);
+            }
+        }
+    }
+
+    private static final class BulkOperation
+    {
+        private int depth;
+
+        private final Set<DocumentReference> references = new LinkedHashSet<>();
+    }
+}
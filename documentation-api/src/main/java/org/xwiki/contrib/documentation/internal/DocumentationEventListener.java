@@ -20,17 +20,23 @@
 package org.xwiki.contrib.documentation.internal;
 
 import java.util.List;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.inject.Provider;
 import javax.inject.Singleton;
 
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.xwiki.bridge.event.DocumentCreatedEvent;
+import org.xwiki.bridge.event.DocumentDeletedEvent;
 import org.xwiki.bridge.event.DocumentUpdatedEvent;
 import org.xwiki.component.annotation.Component;
-import org.xwiki.contrib.documentation.DocumentationManager;
-import org.xwiki.index.IndexException;
+import org.xwiki.contrib.documentation.DocumentationException;
+import org.xwiki.contrib.documentation.DocumentationViolationStore;
+import org.xwiki.job.event.JobFinishedEvent;
+import org.xwiki.job.event.JobStartedEvent;
 import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.EntityReferenceSerializer;
 import org.xwiki.model.reference.LocalDocumentReference;
@@ -38,9 +44,16 @@ import org.xwiki.observation.AbstractEventListener;
 import org.xwiki.observation.event.Event;
 
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.event.XARImportedEvent;
+import com.xpn.xwiki.internal.event.XARImportingEvent;
 
 /**
- * Trigger a documentation analysis when a page is created or updated.
+ * Trigger a documentation analysis when a page is created or updated. The analysis itself is performed in the
+ * background by the {@link DocumentationAnalysisQueue}, so that saving a page doesn't wait for the checks. The
+ * violations stored outside of a page are removed when the page is deleted (or renamed).
+ * <p>
+ * The pages saved by a bulk operation (a XAR import or an extension install or upgrade) are analysed once the
+ * operation is complete, by the {@link DocumentationDeferredAnalysis}.
  *
  * @version $Id$
  * @since 1.0
@@ -55,21 +68,34 @@ public class DocumentationEventListener extends AbstractEventListener
     private static final LocalDocumentReference DOCUMENTATION_CLASS_REFERENCE =
         new LocalDocumentReference(List.of(SPACE, "Code"), "DocumentationClass");
 
+    /**
+     * The type of the jobs installing, or upgrading, extensions.
+     */
+    private static final Set<String> BULK_JOB_TYPES = Set.of("install");
+
     @Inject
     private Logger logger;
 
     @Inject
-    private DocumentationManager manager;
+    private DocumentationAnalysisQueue queue;
 
     @Inject
     private EntityReferenceSerializer<String> serializer;
 
+    @Inject
+    private DocumentationDeferredAnalysis deferredAnalysis;
+
+    @Inject
+    private Provider<DocumentationViolationStore> storeProvider;
+
     /**
      * Default constructor.
      */
     public DocumentationEventListener()
     {
-        super("DocumentationEventListener", new DocumentCreatedEvent(), new DocumentUpdatedEvent());
+        super("DocumentationEventListener", new DocumentCreatedEvent(), new DocumentUpdatedEvent(),
+            new DocumentDeletedEvent(), new XARImportingEvent(), new XARImportedEvent(), new JobStartedEvent(),
+            new JobFinishedEvent());
     }
 
     @Override
@@ -78,8 +104,34 @@ public class DocumentationEventListener extends AbstractEventListener
         this.logger.debug("Event [{}] received from [{}] with data [{}].", event.getClass().getName(), source,
             data);
 
-        XWikiDocument document = (XWikiDocument) source;
+        // Bulk operations save many pages in a row: analyse them all at once when the operation is complete.
+        if (event instanceof XARImportingEvent
+            || event instanceof JobStartedEvent startedEvent && BULK_JOB_TYPES.contains(startedEvent.getJobType()))
+        {
+            this.deferredAnalysis.begin();
+        } else if (event instanceof XARImportedEvent
+            || event instanceof JobFinishedEvent finishedEvent && BULK_JOB_TYPES.contains(finishedEvent.getJobType()))
+        {
+            this.deferredAnalysis.end();
+        } else if (event instanceof DocumentCreatedEvent || event instanceof DocumentUpdatedEvent) {
+            onDocumentEvent((XWikiDocument) source);
+        } else if (event instanceof DocumentDeletedEvent) {
+            onDocumentDeleted((XWikiDocument) source);
+        }
+    }
+
+    private void onDocumentDeleted(XWikiDocument document)
+    {
+        try {
+            this.storeProvider.get().delete(document);
+        } catch (DocumentationException e) {
+            this.logger.warn("Failed to delete the documentation violations of [{}]. Root error cause: [{}]",
+                document.getDocumentReferenceWithLocale(), ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
 
+    private void onDocumentEvent(XWikiDocument document)
+    {
         // 1) Only validate pages containing a DocumentationClass xobject
         // 2) Protection for infinite recursion: don't trigger the analysis when the save is done by the Documentation
         //    checker. We identify this by the save message.
@@ -87,14 +139,10 @@ public class DocumentationEventListener extends AbstractEventListener
         //    by excluding all pages from the DocApp space.
         if (document.getXObject(DOCUMENTATION_CLASS_REFERENCE) != null
             && !"Documentation analysis".equals(document.getComment())
-            && !SPACE.equals(document.getDocumentReference().extractFirstReference(EntityType.SPACE).getName()))
+            && !SPACE.equals(document.getDocumentReference().extractFirstReference(EntityType.SPACE).getName())
+            && !this.deferredAnalysis.defer(document.getDocumentReference()))
         {
-            try {
-                this.manager.analyse(document);
-            } catch (IndexException e) {
-                this.logger.error("Failed to perform documentation checks on the document [{}] for revision [{}].",
-                    document.getDocumentReference(), document.getVersion(), e);
-            }
+            this.queue.enqueue(document.getDocumentReference());
         }
     }
 }
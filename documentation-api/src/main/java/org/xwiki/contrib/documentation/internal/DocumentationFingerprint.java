@@ -0,0 +1,160 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * The fingerprint of the document data read by each documentation check during an analysis. Two analyses of a
+ * document with the same fingerprint for a check produce the same violations for that check.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+public final class DocumentationFingerprint
+{
+    private static final char SEPARATOR = '=';
+
+    private static final String LINE_SEPARATOR = "\n";
+
+    private final Map<String, String> checks;
+
+    private final String value;
+
+    /**
+     * @param checks the fingerprint of the data read by each check, indexed by check hint
+     */
+    public DocumentationFingerprint(Map<String, String> checks)
+    {
+        this.checks = Collections.unmodifiableMap(new TreeMap<>(checks));
+        MessageDigest digest = newDigest();
+        update(digest, serialize());
+        this.value = HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * @param serialized a fingerprint serialized with {@link #serialize()}
+     * @return the parsed fingerprint
+     */
+    public static DocumentationFingerprint parse(String serialized)
+    {
+        Map<String, String> checks = new TreeMap<>();
+        for (String line : serialized.split(LINE_SEPARATOR)) {
+            int index = line.lastIndexOf(SEPARATOR);
+            if (index > 0) {
+                checks.put(line.substring(0, index), line.substring(index + 1));
+            }
+        }
+        return new DocumentationFingerprint(checks);
+    }
+
+    /**
+     * @return the fingerprint of the data read by all the checks
+     */
+    public String getValue()
+    {
+        return this.value;
+    }
+
+    /**
+     * @return the fingerprint of the data read by each check, indexed by check hint
+     */
+    public Map<String, String> getChecks()
+    {
+        return this.checks;
+    }
+
+    /**
+     * @return an identifier of the set of checks taking part in the analysis, which changes when a check is added or
+     *     removed but not when the data they read changes
+     */
+    public String getChecksVersion()
+    {
+        MessageDigest digest = newDigest();
+        this.checks.keySet().forEach(hint -> update(digest, hint));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * @param hint the hint of a check
+     * @param previous the fingerprint of a previous analysis
+     * @return {@code true} if the check didn't take part in the previous analysis or if the data it reads changed
+     */
+    public boolean isChanged(String hint, DocumentationFingerprint previous)
+    {
+        return !Objects.equals(this.checks.get(hint), previous.checks.get(hint));
+    }
+
+    /**
+     * @param hints the hints of checks that didn't complete (e.g. because they exceeded their time budget)
+     * @return a copy of this fingerprint where the passed checks are marked as not analysed, so that they are executed
+     *     again by the next analysis
+     */
+    public DocumentationFingerprint withoutChecks(Collection<String> hints)
+    {
+        if (hints.isEmpty()) {
+            return this;
+        }
+        Map<String, String> analysedChecks = new TreeMap<>(this.checks);
+        hints.forEach(hint -> analysedChecks.replace(hint, ""));
+        return new DocumentationFingerprint(analysedChecks);
+    }
+
+    /**
+     * @return the fingerprint serialized as one {@code hint=fingerprint} line per check
+     */
+    public String serialize()
+    {
+        return this.checks.entrySet().stream().map(entry -> entry.getKey() + SEPARATOR + entry.getValue())
+            .collect(Collectors.joining(LINE_SEPARATOR));
+    }
+
+    static MessageDigest newDigest()
+    {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void update(MessageDigest digest, String value)
+    {
+        // Prefix each value with its length so that consecutive values cannot be confused.
+        if (value == null) {
+            digest.update((byte) -1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            digest.update(String.valueOf(bytes.length).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ':');
+            digest.update(bytes);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.documentation.DocumentationCheck;
+import org.xwiki.contrib.documentation.DocumentationConfiguration;
+import org.xwiki.contrib.documentation.DocumentationFacet;
+import org.xwiki.contrib.documentation.DocumentationViolation;
+import org.xwiki.contrib.documentation.DocumentationViolationStore;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.LocalDocumentReference;
+
+import com.xpn.xwiki.doc.XWikiAttachment;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+
+/**
+ * Computes the {@link DocumentationFingerprint} of a document, i.e. a fingerprint of the document data read by each
+ * documentation check, based on the {@link DocumentationCheck#getFacets() facets} it declares, so that only the checks
+ * whose data changed since the last analysis need to be executed again.
+ * <p>
+ * The fingerprint is stored along with the violations by the {@link DocumentationViolationStore}. Stores may not save
+ * anything when the violations didn't change, so the last fingerprint of the most recently analysed documents is also
+ * remembered in memory, along with a hash of the violations it led to (so that violations modified or lost in the
+ * meantime, e.g. when the document is deleted and created again, are not trusted).
+ * <p>
+ * The fingerprint of a check also covers the code of the check (its class and the location and version of the JAR
+ * providing it, which change when the extension providing the check is upgraded) and the configuration read by the
+ * checks ({@link DocumentationConfiguration#getMacroDepth()}). Checks reading other settings than that require a
+ * forced re-analysis (e.g. of the whole wiki) when these settings are modified.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@Component(roles = DocumentationFingerprints.class)
+@Singleton
+public class DocumentationFingerprints
+{
+    private static final LocalDocumentReference DOCUMENTATION_CLASS_REFERENCE =
+        new LocalDocumentReference(List.of("DocApp", "Code"), "DocumentationClass");
+
+    private static final int MAX_REMEMBERED_ANALYSES = 10000;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final float LOAD_FACTOR = 0.75F;
+
+    @Inject
+    private DocumentationConfiguration configuration;
+
+    private final Map<DocumentReference, Analysis> analyses =
+        Collections.synchronizedMap(new LinkedHashMap<DocumentReference, Analysis>(INITIAL_CAPACITY, LOAD_FACTOR, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<DocumentReference, Analysis> eldest)
+            {
+                return size() > MAX_REMEMBERED_ANALYSES;
+            }
+        });
+
+    /**
+     * @param document the document to analyse
+     * @param checks the checks that would be executed, indexed by hint
+     * @return the fingerprint of the document data read by each check
+     */
+    public DocumentationFingerprint compute(XWikiDocument document, Map<String, DocumentationCheck> checks)
+    {
+        // Each facet is hashed at most once, whatever the number of checks reading it.
+        Map<DocumentationFacet, String> facets = new EnumMap<>(DocumentationFacet.class);
+        Map<String, String> fingerprints = new TreeMap<>();
+        Map<Class<?>, String> codeHashes = new HashMap<>();
+        String configurationHash = String.valueOf(this.configuration.getMacroDepth());
+        for (Map.Entry<String, DocumentationCheck> check : checks.entrySet()) {
+            MessageDigest digest = DocumentationFingerprint.newDigest();
+            DocumentationFingerprint.update(digest, codeHashes.computeIfAbsent(check.getValue().getClass(),
+                this::hashCheckCode));
+            DocumentationFingerprint.update(digest, configurationHash);
+            check.getValue().getFacets().stream().sorted().forEach(facet -> DocumentationFingerprint.update(digest,
+                facets.computeIfAbsent(facet, key -> hashFacet(document, key))));
+            fingerprints.put(check.getKey(), HexFormat.of().formatHex(digest.digest()));
+        }
+        return new DocumentationFingerprint(fingerprints);
+    }
+
+    /**
+     * @param document the document to analyse
+     * @param storedViolations the violations stored for the document
+     * @param storedFingerprint the fingerprint stored along with the violations, {@code null} if unknown
+     * @return the fingerprint for which the stored violations have been computed, or {@code null} if it's unknown
+     */
+    public DocumentationFingerprint getLastAnalysis(XWikiDocument document,
+        Map<String, List<DocumentationViolation>> storedViolations, String storedFingerprint)
+    {
+        DocumentationFingerprint lastAnalysis = null;
+        Analysis analysis = this.analyses.get(document.getDocumentReferenceWithLocale());
+        if (analysis != null && analysis.resultsHash == hashResults(storedViolations)) {
+            lastAnalysis = analysis.fingerprint;
+        } else if (storedFingerprint != null) {
+            lastAnalysis = DocumentationFingerprint.parse(storedFingerprint);
+        }
+        return lastAnalysis;
+    }
+
+    /**
+     * Remember the fingerprint for which the stored violations of the document have been computed, since the stores
+     * may not store it when the violations didn't change.
+     *
+     * @param document the analysed document
+     * @param fingerprint the fingerprint of the analysed document
+     * @param storedViolations the violations stored for the document
+     */
+    public void remember(XWikiDocument document, DocumentationFingerprint fingerprint,
+        Map<String, List<DocumentationViolation>> storedViolations)
+    {
+        this.analyses.put(document.getDocumentReferenceWithLocale(), new Analysis(fingerprint,
+            hashResults(storedViolations)));
+    }
+
+    /**
+     * Upgrading a check (i.e. the extension providing it) requires a new analysis, even when its class is not renamed.
+     */
+    private String hashCheckCode(Class<?> checkClass)
+    {
+        MessageDigest digest = DocumentationFingerprint.newDigest();
+        DocumentationFingerprint.update(digest, checkClass.getName());
+        CodeSource codeSource = checkClass.getProtectionDomain().getCodeSource();
+        if (codeSource != null && codeSource.getLocation() != null) {
+            DocumentationFingerprint.update(digest, codeSource.getLocation().toString());
+        }
+        DocumentationFingerprint.update(digest, checkClass.getPackage() != null
+            ? checkClass.getPackage().getImplementationVersion() : null);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private String hashFacet(XWikiDocument document, DocumentationFacet facet)
+    {
+        MessageDigest digest = DocumentationFingerprint.newDigest();
+        switch (facet) {
+            case CONTENT:
+                DocumentationFingerprint.update(digest, document.getContent());
+                break;
+            case SYNTAX:
+                DocumentationFingerprint.update(digest,
+                    document.getSyntax() != null ? document.getSyntax().toIdString() : null);
+                break;
+            case TITLE:
+                DocumentationFingerprint.update(digest, document.getTitle());
+                break;
+            case REFERENCE:
+                DocumentationFingerprint.update(digest, document.getDocumentReference().toString());
+                break;
+            case ATTACHMENTS:
+                document.getAttachmentList().stream().map(XWikiAttachment::getFilename).sorted()
+                    .forEach(filename -> DocumentationFingerprint.update(digest, filename));
+                break;
+            default:
+                hashDocumentationProperty(document, facet, digest);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void hashDocumentationProperty(XWikiDocument document, DocumentationFacet facet, MessageDigest digest)
+    {
+        BaseObject documentationObject = document.getXObject(DOCUMENTATION_CLASS_REFERENCE);
+        if (documentationObject != null) {
+            DocumentationFingerprint.update(digest, facet == DocumentationFacet.FAQ
+                ? documentationObject.getLargeStringValue("faq") : documentationObject.getStringValue("type"));
+        }
+    }
+
+    private int hashResults(Map<String, List<DocumentationViolation>> violations)
+    {
+        // Don't depend on the order in which the violations are stored.
+        int hash = 0;
+        for (Map.Entry<String, List<DocumentationViolation>> checkViolations : violations.entrySet()) {
+            for (DocumentationViolation violation : checkViolations.getValue()) {
+                hash += Objects.hash(checkViolations.getKey(), violation);
+            }
+        }
+        return hash;
+    }
+
+    private static final class Analysis
+    {
+        private final DocumentationFingerprint fingerprint;
+
+        private final int resultsHash;
+
+        Analysis(DocumentationFingerprint fingerprint, int resultsHash)
+        {
+            this.fingerprint = fingerprint;
+            this.resultsHash = resultsHash;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.management.ObjectName;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.management.JMXBeanRegistration;
+
+/**
+ * Collects the durations of the documentation checks (per check hint) and of the other steps of the documentation
+ * analysis (reconciliation of the stored violations, save, etc.), so that a slow check or step can be spotted in
+ * production without a profiler. Each {@link DocumentationTimer} is exposed as an MBean named
+ * {@code org.xwiki:type=Documentation,check=<hint>} or {@code org.xwiki:type=Documentation,step=<step>}.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@Component(roles = DocumentationMetrics.class)
+@Singleton
+public class DocumentationMetrics implements Disposable
+{
+    /**
+     * The step covering a whole analysis, from the computation of its fingerprint to the save of its violations.
+     */
+    public static final String ANALYSIS = "analysis";
+
+    /**
+     * The step preparing the values shared by the checks of an analysis, before the checks are executed.
+     */
+    public static final String PREPARATION = "preparation";
+
+    /**
+     * The step matching the violations found by an analysis with the stored ones.
+     */
+    public static final String RECONCILIATION = "reconciliation";
+
+    /**
+     * The step saving the violations found by an analysis.
+     */
+    public static final String SAVE = "save";
+
+    private static final String CHECK_TYPE = "check";
+
+    private static final String STEP_TYPE = "step";
+
+    @Inject
+    private JMXBeanRegistration jmxRegistration;
+
+    private final Map<String, DocumentationTimer> checks = new ConcurrentHashMap<>();
+
+    private final Map<String, DocumentationTimer> steps = new ConcurrentHashMap<>();
+
+    /**
+     * @param hint the hint of the executed check
+     * @param nanoseconds the duration of the execution
+     * @param violations the number of violations found by the check
+     */
+    public void recordCheck(String hint, long nanoseconds, int violations)
+    {
+        getTimer(this.checks, CHECK_TYPE, hint).record(nanoseconds, violations);
+    }
+
+    /**
+     * @param hint the hint of the check that failed
+     * @param nanoseconds the duration of the execution, until it failed
+     */
+    public void recordCheckFailure(String hint, long nanoseconds)
+    {
+        getTimer(this.checks, CHECK_TYPE, hint).recordFailure(nanoseconds);
+    }
+
+    /**
+     * @param hint the hint of the check that was cancelled because it exceeded its time budget
+     * @param nanoseconds the duration of the execution, until it stopped
+     */
+    public void recordCheckTimeout(String hint, long nanoseconds)
+    {
+        getTimer(this.checks, CHECK_TYPE, hint).recordTimeout(nanoseconds);
+    }
+
+    /**
+     * @param step the executed step (e.g. {@link #SAVE})
+     * @param nanoseconds the duration of the execution
+     */
+    public void recordStep(String step, long nanoseconds)
+    {
+        getTimer(this.steps, STEP_TYPE, step).record(nanoseconds, 0);
+    }
+
+    /**
+     * @return the statistics of each check executed since the start, indexed and ordered by check hint
+     */
+    public Map<String, DocumentationTimerMBean> getChecks()
+    {
+        return Collections.unmodifiableMap(new TreeMap<>(this.checks));
+    }
+
+    /**
+     * @return the statistics of each step executed since the start, indexed and ordered by step name
+     */
+    public Map<String, DocumentationTimerMBean> getSteps()
+    {
+        return Collections.unmodifiableMap(new TreeMap<>(this.steps));
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        this.checks.keySet().forEach(hint -> this.jmxRegistration.unregisterMBean(getMBeanName(CHECK_TYPE, hint)));
+        this.steps.keySet().forEach(step -> this.jmxRegistration.unregisterMBean(getMBeanName(STEP_TYPE, step)));
+    }
+
+    private DocumentationTimer getTimer(Map<String, DocumentationTimer> timers, String type, String name)
+    {
+        return timers.computeIfAbsent(name, key -> {
+            DocumentationTimer timer = new DocumentationTimer();
+            this.jmxRegistration.registerMBean(timer, getMBeanName(type, key));
+            return timer;
+        });
+    }
+
+    private String getMBeanName(String type, String name)
+    {
+        return "type=Documentation," + type + '=' + ObjectName.quote(name);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the durations of a timed step of the documentation analysis in a lock-free log-linear histogram: durations
+ * are counted in microsecond buckets whose width doubles with each power of two, each power of two being split into 8
+ * sub-buckets. Recording is thus a constant-time operation using a fixed amount of memory, and the reported
+ * percentiles are the upper bound of the bucket they fall into (i.e. at most 12.5% above the actual value).
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+public class DocumentationTimer implements DocumentationTimerMBean
+{
+    private static final int SUB_BUCKET_BITS = 3;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int BUCKETS = SUB_BUCKETS * (Long.SIZE - SUB_BUCKET_BITS + 1);
+
+    private static final double MICROSECONDS_PER_MILLISECOND = 1000.0;
+
+    private static final double MEDIAN = 0.5;
+
+    private static final double NINETY_NINTH_PERCENTILE = 0.99;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder total = new LongAdder();
+
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    private final LongAdder violations = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * Record a successful execution.
+     *
+     * @param nanoseconds the duration of the execution
+     * @param violationCount the number of violations found by the execution
+     */
+    public void record(long nanoseconds, int violationCount)
+    {
+        record(nanoseconds);
+        this.violations.add(violationCount);
+    }
+
+    /**
+     * Record a failed execution.
+     *
+     * @param nanoseconds the duration of the execution, until it failed
+     */
+    public void recordFailure(long nanoseconds)
+    {
+        record(nanoseconds);
+        this.failures.increment();
+    }
+
+    /**
+     * Record an execution cancelled because it exceeded its time budget.
+     *
+     * @param nanoseconds the duration of the execution, until it stopped
+     */
+    public void recordTimeout(long nanoseconds)
+    {
+        record(nanoseconds);
+        this.timeouts.increment();
+    }
+
+    private void record(long nanoseconds)
+    {
+        long microseconds = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanoseconds));
+        this.buckets.incrementAndGet(getBucket(microseconds));
+        this.count.increment();
+        this.total.add(microseconds);
+        this.max.accumulate(microseconds);
+    }
+
+    @Override
+    public long getCount()
+    {
+        return this.count.sum();
+    }
+
+    @Override
+    public double getMean()
+    {
+        long executions = this.count.sum();
+        return executions > 0 ? this.total.sum() / MICROSECONDS_PER_MILLISECOND / executions : 0;
+    }
+
+    @Override
+    public double getP50()
+    {
+        return getPercentile(MEDIAN);
+    }
+
+    @Override
+    public double getP99()
+    {
+        return getPercentile(NINETY_NINTH_PERCENTILE);
+    }
+
+    @Override
+    public double getMax()
+    {
+        return this.max.get() / MICROSECONDS_PER_MILLISECOND;
+    }
+
+    @Override
+    public long getViolations()
+    {
+        return this.violations.sum();
+    }
+
+    @Override
+    public long getFailures()
+    {
+        return this.failures.sum();
+    }
+
+    @Override
+    public long getTimeouts()
+    {
+        return this.timeouts.sum();
+    }
+
+    /**
+     * @param quantile the quantile to compute, between 0 and 1
+     * @return the duration, in milliseconds, under which the passed quantile of the executions complete
+     */
+    public double getPercentile(double quantile)
+    {
+        long[] snapshot = new long[BUCKETS];
+        long executions = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = this.buckets.get(i);
+            executions += snapshot[i];
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * executions));
+        long value = 0;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS && seen < rank; i++) {
+            seen += snapshot[i];
+            value = getUpperBound(i);
+        }
+        return (seen > 0 ? Math.min(value, this.max.get()) : 0) / MICROSECONDS_PER_MILLISECOND;
+    }
+
+    private static int getBucket(long value)
+    {
+        int bucket;
+        if (value < SUB_BUCKETS) {
+            bucket = (int) value;
+        } else {
+            int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+            int shift = exponent - SUB_BUCKET_BITS;
+            bucket = SUB_BUCKETS + shift * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+        }
+        return bucket;
+    }
+
+    private static long getUpperBound(int bucket)
+    {
+        long upperBound;
+        if (bucket < SUB_BUCKETS) {
+            upperBound = bucket;
+        } else {
+            int shift = bucket / SUB_BUCKETS - 1;
+            long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+            upperBound = lowerBound + (1L << shift) - 1;
+        }
+        return upperBound;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+/**
+ * The statistics of a timed step of the documentation analysis (e.g. a documentation check), exposed through JMX.
+ * Durations are in milliseconds.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+public interface DocumentationTimerMBean
+{
+    /**
+     * @return the number of recorded executions, including the failed and cancelled ones
+     */
+    long getCount();
+
+    /**
+     * @return the mean duration of an execution
+     */
+    double getMean();
+
+    /**
+     * @return the median duration of an execution
+     */
+    double getP50();
+
+    /**
+     * @return the duration under which 99% of the executions complete
+     */
+    double getP99();
+
+    /**
+     * @return the longest duration of an execution
+     */
+    double getMax();
+
+    /**
+     * @return the total number of violations found by the executions
+     */
+    long getViolations();
+
+    /**
+     * @return the number of executions that failed
+     */
+    long getFailures();
+
+    /**
+     * @return the number of executions cancelled because they exceeded their time budget
+     */
+    long getTimeouts();
+}
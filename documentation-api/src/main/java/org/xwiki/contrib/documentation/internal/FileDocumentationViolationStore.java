@@ -0,0 +1,235 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.documentation.DocumentationException;
+import org.xwiki.contrib.documentation.DocumentationViolation;
+import org.xwiki.contrib.documentation.DocumentationViolationSeverity;
+import org.xwiki.contrib.documentation.DocumentationViolationStore;
+import org.xwiki.contrib.documentation.DocumentationViolationSummary;
+import org.xwiki.environment.Environment;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+
+/**
+ * Stores the violations in the permanent directory ({@code documentation/violations}), in one file per document and
+ * locale, so that the analysis never saves the analysed document: no new revision, no new
+ * {@code DocumentUpdatedEvent} and no new indexing of the document. The version of the analysed document is recorded
+ * along with the violations. The file of a document is removed when the document is deleted (or renamed).
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@Component
+@Singleton
+@Named("file")
+public class FileDocumentationViolationStore implements DocumentationViolationStore
+{
+    private static final String REFERENCE = "reference";
+
+    private static final String VERSION = "version";
+
+    private static final String FINGERPRINT = "fingerprint";
+
+    private static final String COUNT = "count";
+
+    private static final String ERRORS = "summary.errors";
+
+    private static final String WARNINGS = "summary.warnings";
+
+    private static final String ANALYSIS_DATE = "summary.analysisDate";
+
+    private static final String CHECKS_VERSION = "summary.checksVersion";
+
+    private static final String VIOLATION_PREFIX = "violation.";
+
+    private static final String CHECK = ".check";
+
+    private static final String MESSAGE = ".message";
+
+    private static final String CONTEXT = ".context";
+
+    private static final String SEVERITY = ".severity";
+
+    private static final int FAN_OUT_LENGTH = 2;
+
+    @Inject
+    private Environment environment;
+
+    @Inject
+    private EntityReferenceSerializer<String> serializer;
+
+    @Inject
+    private DocumentationMetrics metrics;
+
+    @Override
+    public Map<String, List<DocumentationViolation>> getViolations(XWikiDocument document)
+        throws DocumentationException
+    {
+        Properties properties = read(document);
+        Map<String, List<DocumentationViolation>> violations = new LinkedHashMap<>();
+        int count = Integer.parseInt(properties.getProperty(COUNT, "0"));
+        for (int i = 0; i < count; i++) {
+            String prefix = VIOLATION_PREFIX + i;
+            // Null messages and contexts are stored as empty strings, like the xobject store does.
+            DocumentationViolation violation = new DocumentationViolation(
+                StringUtils.defaultString(properties.getProperty(prefix + MESSAGE)),
+                StringUtils.defaultString(properties.getProperty(prefix + CONTEXT)),
+                DocumentationViolationSeverity.valueOf(properties.getProperty(prefix + SEVERITY)));
+            violations.computeIfAbsent(properties.getProperty(prefix + CHECK), key -> new ArrayList<>())
+                .add(violation);
+        }
+        return violations;
+    }
+
+    @Override
+    public String getFingerprint(XWikiDocument document) throws DocumentationException
+    {
+        return read(document).getProperty(FINGERPRINT);
+    }
+
+    @Override
+    public DocumentationViolationSummary getSummary(XWikiDocument document) throws DocumentationException
+    {
+        Properties properties = read(document);
+        String analysisDate = properties.getProperty(ANALYSIS_DATE);
+        if (analysisDate == null) {
+            // The violations were stored before the summary was recorded.
+            return DocumentationViolationSummary.of(getViolations(document), null, null);
+        }
+        return new DocumentationViolationSummary(Integer.parseInt(properties.getProperty(ERRORS)),
+            Integer.parseInt(properties.getProperty(WARNINGS)), new Date(Long.parseLong(analysisDate)),
+            properties.getProperty(CHECKS_VERSION));
+    }
+
+    @Override
+    public boolean save(XWikiDocument document, Map<String, List<DocumentationViolation>> violations,
+        String fingerprint) throws DocumentationException
+    {
+        Properties properties = new Properties();
+        properties.setProperty(REFERENCE, serialize(document.getDocumentReferenceWithLocale()));
+        properties.setProperty(VERSION, document.getVersion());
+        properties.setProperty(FINGERPRINT, fingerprint);
+        int count = 0;
+        for (Map.Entry<String, List<DocumentationViolation>> checkViolations : violations.entrySet()) {
+            for (DocumentationViolation violation : checkViolations.getValue()) {
+                String prefix = VIOLATION_PREFIX + count++;
+                properties.setProperty(prefix + CHECK, checkViolations.getKey());
+                properties.setProperty(prefix + MESSAGE, StringUtils.defaultString(violation.getViolationMessage()));
+                properties.setProperty(prefix + CONTEXT, StringUtils.defaultString(violation.getViolationContext()));
+                properties.setProperty(prefix + SEVERITY, violation.getViolationSeverity().name());
+            }
+        }
+        properties.setProperty(COUNT, String.valueOf(count));
+        DocumentationViolationSummary summary = DocumentationViolationSummary.of(violations, new Date(),
+            DocumentationFingerprint.parse(fingerprint).getChecksVersion());
+        properties.setProperty(ERRORS, String.valueOf(summary.getErrorCount()));
+        properties.setProperty(WARNINGS, String.valueOf(summary.getWarningCount()));
+        properties.setProperty(ANALYSIS_DATE, String.valueOf(summary.getAnalysisDate().getTime()));
+        properties.setProperty(CHECKS_VERSION, summary.getChecksVersion());
+
+        Path file = getFile(document);
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(file.getParent());
+            // Write to a temporary file first so that readers never see a partially written file.
+            Path temporaryFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            this.metrics.recordStep(DocumentationMetrics.SAVE, System.nanoTime() - start);
+            // The document itself is never saved, so there's no risk of overwriting a newer version.
+            return true;
+        } catch (IOException e) {
+            throw new DocumentationException(
+                String.format("Failed to save the documentation violations of [%s]", document.getDocumentReference()),
+                e);
+        }
+    }
+
+    @Override
+    public void delete(XWikiDocument document) throws DocumentationException
+    {
+        try {
+            Files.deleteIfExists(getFile(document));
+        } catch (IOException e) {
+            throw new DocumentationException(String.format("Failed to delete the documentation violations of [%s]",
+                document.getDocumentReference()), e);
+        }
+    }
+
+    private Properties read(XWikiDocument document) throws DocumentationException
+    {
+        Properties properties = new Properties();
+        Path file = getFile(document);
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            } catch (IOException e) {
+                throw new DocumentationException(String.format(
+                    "Failed to read the documentation violations of [%s]", document.getDocumentReference()), e);
+            }
+        }
+        return properties;
+    }
+
+    private Path getFile(XWikiDocument document)
+    {
+        MessageDigest digest = DocumentationFingerprint.newDigest();
+        DocumentationFingerprint.update(digest, serialize(document.getDocumentReferenceWithLocale()));
+        String name = HexFormat.of().formatHex(digest.digest());
+        // Spread the files over several directories to not have too many files in a single directory.
+        return this.environment.getPermanentDirectory().toPath().resolve("documentation").resolve("violations")
+            .resolve(name.substring(0, FAN_OUT_LENGTH)).resolve(name + ".properties");
+    }
+
+    private String serialize(DocumentReference reference)
+    {
+        String serializedReference = this.serializer.serialize(reference);
+        return reference.getLocale() != null ? serializedReference + '(' + reference.getLocale() + ')'
+            : serializedReference;
+    }
+}
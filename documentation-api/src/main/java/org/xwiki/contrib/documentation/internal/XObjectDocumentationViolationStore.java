@@ -0,0 +1,293 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.documentation.DocumentationException;
+import org.xwiki.contrib.documentation.DocumentationViolation;
+import org.xwiki.contrib.documentation.DocumentationViolationSeverity;
+import org.xwiki.contrib.documentation.DocumentationViolationStore;
+import org.xwiki.contrib.documentation.DocumentationViolationSummary;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.user.SuperAdminUserReference;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+
+/**
+ * Stores the violations as {@code DocApp.Code.DocumentationViolationClass} XObjects of the analysed document, and the
+ * fingerprint of the analysis, along with a summary of the violations, in a
+ * {@code DocApp.Code.DocumentationAnalysisClass} XObject. The document is saved (as the superadmin user and with the
+ * {@code Documentation analysis} comment) only when the violations changed. The violations are applied to the latest
+ * version of the document, reloaded right before saving it, and not to the analysed instance, so that the changes saved
+ * by users in the meantime are never overwritten: nothing is saved when the latest version is not the analysed one.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@Component
+@Singleton
+@Named("xobject")
+public class XObjectDocumentationViolationStore implements DocumentationViolationStore
+{
+    private static final List<String> SPACES = List.of("DocApp", "Code");
+
+    private static final LocalDocumentReference VIOLATION_CLASS_REFERENCE =
+        new LocalDocumentReference(SPACES, "DocumentationViolationClass");
+
+    private static final LocalDocumentReference ANALYSIS_CLASS_REFERENCE =
+        new LocalDocumentReference(SPACES, "DocumentationAnalysisClass");
+
+    private static final String MESSAGE = "message";
+
+    private static final String CONTEXT = "context";
+
+    private static final String SEVERITY = "severity";
+
+    private static final String CHECK = "check";
+
+    private static final String FINGERPRINT = "fingerprint";
+
+    private static final String CHECKS = "checks";
+
+    private static final String MAX_SEVERITY = "maxSeverity";
+
+    private static final String ERRORS = "errors";
+
+    private static final String WARNINGS = "warnings";
+
+    private static final String ANALYSIS_DATE = "analysisDate";
+
+    private static final String CHECKS_VERSION = "checksVersion";
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private DocumentationMetrics metrics;
+
+    @Override
+    public Map<String, List<DocumentationViolation>> getViolations(XWikiDocument document)
+    {
+        Map<String, List<DocumentationViolation>> violations = new LinkedHashMap<>();
+        for (BaseObject violationObject : document.getXObjects(VIOLATION_CLASS_REFERENCE)) {
+            if (violationObject != null) {
+                DocumentationViolation violation = toViolation(violationObject);
+                if (violation != null) {
+                    violations.computeIfAbsent(violationObject.getStringValue(CHECK), key -> new ArrayList<>())
+                        .add(violation);
+                }
+            }
+        }
+        return violations;
+    }
+
+    @Override
+    public String getFingerprint(XWikiDocument document)
+    {
+        String fingerprint = null;
+        BaseObject analysisObject = document.getXObject(ANALYSIS_CLASS_REFERENCE);
+        if (analysisObject != null) {
+            String checks = analysisObject.getLargeStringValue(CHECKS);
+            if (!checks.isEmpty()) {
+                fingerprint = checks;
+            }
+        }
+        return fingerprint;
+    }
+
+    @Override
+    public DocumentationViolationSummary getSummary(XWikiDocument document)
+    {
+        BaseObject analysisObject = document.getXObject(ANALYSIS_CLASS_REFERENCE);
+        if (analysisObject == null || analysisObject.getDateValue(ANALYSIS_DATE) == null) {
+            // The violations were stored before the summary was recorded.
+            return DocumentationViolationSummary.of(getViolations(document), null, null);
+        }
+        return new DocumentationViolationSummary(analysisObject.getIntValue(ERRORS),
+            analysisObject.getIntValue(WARNINGS), analysisObject.getDateValue(ANALYSIS_DATE),
+            analysisObject.getStringValue(CHECKS_VERSION));
+    }
+
+    @Override
+    public boolean save(XWikiDocument analysedDocument, Map<String, List<DocumentationViolation>> violations,
+        String fingerprint) throws DocumentationException
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+        try {
+            XWikiDocument latest =
+                xcontext.getWiki().getDocument(analysedDocument.getDocumentReferenceWithLocale(), xcontext);
+            if (latest.isNew() || !Objects.equals(latest.getVersion(), analysedDocument.getVersion())) {
+                // The document has been modified (or deleted) since the analysed version: the newer version is
+                // analysed in turn.
+                return false;
+            }
+            // Don't modify the cached instance.
+            XWikiDocument document = latest.clone();
+
+            // Save new violations when they don't already exist + remove violations that were stored but don't exist
+            // anymore.
+            long start = System.nanoTime();
+            boolean modified = saveAndDeleteXObjects(document, violations, xcontext);
+            this.metrics.recordStep(DocumentationMetrics.RECONCILIATION, System.nanoTime() - start);
+            if (modified) {
+                DocumentationFingerprint parsedFingerprint = DocumentationFingerprint.parse(fingerprint);
+                BaseObject analysisObject = document.getXObject(ANALYSIS_CLASS_REFERENCE, true, xcontext);
+                analysisObject.setStringValue(FINGERPRINT, parsedFingerprint.getValue());
+                analysisObject.setLargeStringValue(CHECKS, fingerprint);
+                saveSummary(analysisObject,
+                    DocumentationViolationSummary.of(violations, new Date(), parsedFingerprint.getChecksVersion()));
+                // Save as superadmin, representing the system user, to indicate that the changes are not from the
+                // current author but by the system.
+                document.setAuthor(SuperAdminUserReference.INSTANCE);
+                start = System.nanoTime();
+                xcontext.getWiki().saveDocument(document, "Documentation analysis", true, xcontext);
+                this.metrics.recordStep(DocumentationMetrics.SAVE, System.nanoTime() - start);
+            }
+            return true;
+        } catch (XWikiException e) {
+            throw new DocumentationException(String.format("Failed to save the documentation violations of [%s]",
+                analysedDocument.getDocumentReference()), e);
+        }
+    }
+
+    /**
+     * Record a summary of the violations so that displaying the document doesn't require reading all the violation
+     * XObjects.
+     */
+    private void saveSummary(BaseObject analysisObject, DocumentationViolationSummary summary)
+    {
+        DocumentationViolationSeverity maxSeverity = summary.getMaxSeverity();
+        analysisObject.setStringValue(MAX_SEVERITY, maxSeverity != null ? maxSeverity.toString() : "");
+        analysisObject.setIntValue(ERRORS, summary.getErrorCount());
+        analysisObject.setIntValue(WARNINGS, summary.getWarningCount());
+        analysisObject.setDateValue(ANALYSIS_DATE, summary.getAnalysisDate());
+        analysisObject.setStringValue(CHECKS_VERSION, summary.getChecksVersion());
+    }
+
+    /**
+     * @param document the analysed document
+     * @param violations the violations found by the analysis, indexed by check hint
+     * @param xcontext the XWiki context
+     * @return {@code true} if the violation XObjects have been modified
+     */
+    private boolean saveAndDeleteXObjects(XWikiDocument document, Map<String, List<DocumentationViolation>> violations,
+        XWikiContext xcontext) throws XWikiException
+    {
+        // Index the existing violations by check and violation so that each new violation is matched in constant time.
+        Map<Pair<String, DocumentationViolation>, Deque<BaseObject>> existingViolationObjects = new LinkedHashMap<>();
+        List<BaseObject> staleViolationObjects = new ArrayList<>();
+        for (BaseObject existingViolationObject : document.getXObjects(VIOLATION_CLASS_REFERENCE)) {
+            if (existingViolationObject != null) {
+                DocumentationViolation violation = toViolation(existingViolationObject);
+                if (violation == null) {
+                    staleViolationObjects.add(existingViolationObject);
+                } else {
+                    existingViolationObjects.computeIfAbsent(
+                        Pair.of(existingViolationObject.getStringValue(CHECK), violation), key -> new ArrayDeque<>())
+                        .add(existingViolationObject);
+                }
+            }
+        }
+
+        // Match the new violations with the existing ones, including the ones stored before the checks were recorded.
+        List<Pair<String, DocumentationViolation>> newViolations = new ArrayList<>();
+        Map<BaseObject, String> unattributedViolationObjects = new IdentityHashMap<>();
+        for (Map.Entry<String, List<DocumentationViolation>> checkViolations : violations.entrySet()) {
+            String check = checkViolations.getKey();
+            for (DocumentationViolation violation : checkViolations.getValue()) {
+                if (poll(existingViolationObjects, check, violation) == null) {
+                    BaseObject unattributedViolationObject = poll(existingViolationObjects, "", violation);
+                    if (unattributedViolationObject == null) {
+                        newViolations.add(Pair.of(check, violation));
+                    } else {
+                        unattributedViolationObjects.put(unattributedViolationObject, check);
+                    }
+                }
+            }
+        }
+
+        // The existing violations that were not matched don't exist anymore.
+        existingViolationObjects.values().forEach(staleViolationObjects::addAll);
+
+        // Update the violations that don't exist anymore in place with the new violations, and only add or remove the
+        // difference.
+        Iterator<BaseObject> staleViolationObjectIterator = staleViolationObjects.iterator();
+        for (Pair<String, DocumentationViolation> newViolation : newViolations) {
+            BaseObject object = staleViolationObjectIterator.hasNext() ? staleViolationObjectIterator.next()
+                : document.newXObject(VIOLATION_CLASS_REFERENCE, xcontext);
+            DocumentationViolation violation = newViolation.getRight();
+            object.set(MESSAGE, violation.getViolationMessage(), xcontext);
+            object.set(CONTEXT, violation.getViolationContext(), xcontext);
+            object.set(SEVERITY, violation.getViolationSeverity().toString(), xcontext);
+            object.set(CHECK, newViolation.getLeft(), xcontext);
+        }
+        staleViolationObjectIterator.forEachRemaining(document::removeXObject);
+
+        // Record the check that reported the violations stored before the checks were recorded, but only when the
+        // document is saved anyway, in order to not create a revision just for this.
+        boolean hasChanges = !newViolations.isEmpty() || !staleViolationObjects.isEmpty();
+        if (hasChanges) {
+            unattributedViolationObjects.forEach((object, check) -> object.set(CHECK, check, xcontext));
+        }
+
+        return hasChanges;
+    }
+
+    private BaseObject poll(Map<Pair<String, DocumentationViolation>, Deque<BaseObject>> violationObjects,
+        String check, DocumentationViolation violation)
+    {
+        Deque<BaseObject> objects = violationObjects.get(Pair.of(check, violation));
+        return objects != null ? objects.poll() : null;
+    }
+
+    private DocumentationViolation toViolation(BaseObject violationObject)
+    {
+        DocumentationViolation violation = null;
+        String severity = violationObject.getStringValue(SEVERITY);
+        for (DocumentationViolationSeverity value : DocumentationViolationSeverity.values()) {
+            if (value.toString().equals(severity)) {
+                violation = new DocumentationViolation(violationObject.getStringValue(MESSAGE),
+                    violationObject.getStringValue(CONTEXT), value);
+                break;
+            }
+        }
+        return violation;
+    }
+}
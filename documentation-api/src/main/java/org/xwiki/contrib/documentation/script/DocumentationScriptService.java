@@ -19,15 +19,46 @@
  */
 package org.xwiki.contrib.documentation.script;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.inject.Provider;
 import javax.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.documentation.DocumentationCheck;
+import org.xwiki.contrib.documentation.DocumentationException;
+import org.xwiki.contrib.documentation.DocumentationFacet;
 import org.xwiki.contrib.documentation.DocumentationManager;
+import org.xwiki.contrib.documentation.DocumentationViolation;
+import org.xwiki.contrib.documentation.DocumentationViolationStore;
+import org.xwiki.contrib.documentation.DocumentationViolationSummary;
+import org.xwiki.contrib.documentation.internal.DocumentationAnalysisJob;
+import org.xwiki.contrib.documentation.internal.DocumentationAnalysisQueue;
+import org.xwiki.contrib.documentation.internal.DocumentationAnalysisRequest;
+import org.xwiki.contrib.documentation.internal.DocumentationCheckRegistry;
+import org.xwiki.contrib.documentation.internal.DocumentationMetrics;
+import org.xwiki.contrib.documentation.internal.DocumentationTimerMBean;
 import org.xwiki.index.IndexException;
+import org.xwiki.job.Job;
+import org.xwiki.job.JobException;
+import org.xwiki.job.JobExecutor;
+import org.xwiki.job.JobStatusStore;
+import org.xwiki.job.event.status.JobStatus;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.WikiReference;
 import org.xwiki.script.service.ScriptService;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
 
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.XWikiDocument;
 
 /**
@@ -39,17 +70,323 @@ import com.xpn.xwiki.doc.XWikiDocument;
 @Component
 @Singleton
 @Named("documentation")
+@SuppressWarnings("checkstyle:ClassFanOutComplexity")
 public class DocumentationScriptService implements ScriptService
 {
     @Inject
     private DocumentationManager manager;
 
+    @Inject
+    private Provider<DocumentationViolationStore> storeProvider;
+
+    @Inject
+    private ContextualAuthorizationManager authorization;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private JobExecutor jobExecutor;
+
+    @Inject
+    private JobStatusStore jobStatusStore;
+
+    @Inject
+    private DocumentationCheckRegistry checkRegistry;
+
+    @Inject
+    private DocumentationMetrics metrics;
+
+    @Inject
+    private DocumentationAnalysisQueue queue;
+
     /**
+     * Analyse the document, even if the data read by the documentation checks didn't change since its last analysis
+     * (the user explicitly asked for it).
+     *
      * @param document the document on which to perform the documentation analysis
      * @throws IndexException if an error occurs while indexing the document when it's executing synchronously
      */
     public void analyse(XWikiDocument document) throws IndexException
     {
-        this.manager.analyse(document);
+        this.manager.analyse(document, true);
+    }
+
+    /**
+     * Schedule the analysis of a page in the background, even if the data read by the documentation checks didn't
+     * change since its last analysis (the user explicitly asked for it), without waiting for it. Use
+     * {@link #isAnalysing(DocumentReference)} to know when the new results are available.
+     *
+     * @param reference the reference of a documentation page
+     * @return {@code true} if the analysis has been scheduled, {@code false} if the current user is not allowed to edit
+     *     the page
+     * @since 1.17
+     */
+    public boolean validate(DocumentReference reference)
+    {
+        if (!this.authorization.hasAccess(Right.EDIT, reference)) {
+            return false;
+        }
+        this.queue.enqueue(reference, true);
+        return true;
+    }
+
+    /**
+     * @param reference the reference of a documentation page
+     * @return {@code true} if an analysis of the page is waiting to run or running, i.e. if the violations returned by
+     *     {@link #getViolations(DocumentReference)} may be outdated, {@code false} otherwise or if the current user is
+     *     not allowed to view the page
+     * @since 1.17
+     */
+    public boolean isAnalysing(DocumentReference reference)
+    {
+        return this.authorization.hasAccess(Right.VIEW, reference) && this.queue.isAnalysing(reference);
+    }
+
+    /**
+     * Start analysing the passed documentation pages in the background and store the violations found, like
+     * {@link #analyse(XWikiDocument)} does for a single page.
+     *
+     * @param references the documentation pages to analyse (the pages the current user is not allowed to edit, or
+     *     that don't exist, are ignored)
+     * @param force {@code true} to analyse the pages even when the data read by the documentation checks didn't
+     *     change since their last analysis
+     * @return the identifier of the job analysing the pages, to pass to {@link #getAnalysisStatus(List)}
+     * @throws JobException if the job cannot be started
+     * @since 1.17
+     */
+    public List<String> analyseAsync(List<DocumentReference> references, boolean force) throws JobException
+    {
+        // Analysing a page may save it (depending on the violation store), so require the same right as validate().
+        List<DocumentReference> allowed =
+            references.stream().filter(reference -> this.authorization.hasAccess(Right.EDIT, reference)).toList();
+        DocumentationAnalysisRequest request = new DocumentationAnalysisRequest(allowed);
+        request.setForce(force);
+        request.setUserReference(this.xcontextProvider.get().getUserReference());
+        return this.jobExecutor.execute(DocumentationAnalysisJob.JOB_TYPE, request).getRequest().getId();
+    }
+
+    /**
+     * Execute the documentation checks on a page without storing the violations found (dry run).
+     *
+     * @param reference the reference of a documentation page
+     * @return the violations found, or an empty list if the current user is not allowed to view the page or if it
+     *     doesn't exist
+     * @throws DocumentationException if the page cannot be loaded or the checks cannot be executed
+     * @since 1.17
+     */
+    public List<DocumentationViolation> check(DocumentReference reference) throws DocumentationException
+    {
+        return checkAll(List.of(reference)).getOrDefault(reference, List.of());
+    }
+
+    /**
+     * Execute the documentation checks on several pages without storing the violations found (dry run), e.g. to build
+     * a report. The pages are checked one after another in the current thread.
+     *
+     * @param references the references of documentation pages
+     * @return the violations found in each page, in the order of the passed references; the pages the current user is
+     *     not allowed to view, and the pages that don't exist, are left out
+     * @throws DocumentationException if a page cannot be loaded or the checks cannot be executed
+     * @since 1.17
+     */
+    public Map<DocumentReference, List<DocumentationViolation>> checkAll(List<DocumentReference> references)
+        throws DocumentationException
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+        Map<DocumentReference, List<DocumentationViolation>> violations = new LinkedHashMap<>();
+        for (DocumentReference reference : references) {
+            if (this.authorization.hasAccess(Right.VIEW, reference)) {
+                XWikiDocument document = getDocument(reference, xcontext);
+                if (!document.isNew()) {
+                    violations.put(reference,
+                        this.manager.check(document).values().stream().flatMap(List::stream).toList());
+                }
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * @param jobId the identifier of a job analysing documentation pages, as returned by
+     *     {@link #analyseAsync(List, boolean)}
+     * @return the status (including the progress) of the job, or {@code null} if there's none, if the identifier is
+     *     not the one of a job analysing documentation pages, or if the current user is neither the user who started
+     *     the job nor an administrator of the analysed wiki
+     * @since 1.17
+     */
+    public JobStatus getAnalysisStatus(List<String> jobId)
+    {
+        if (!DocumentationAnalysisRequest.isJobId(jobId)) {
+            return null;
+        }
+        Job job = this.jobExecutor.getJob(jobId);
+        JobStatus status = job != null ? job.getStatus() : this.jobStatusStore.getJobStatus(jobId);
+        return status != null && canAccess(status) ? status : null;
+    }
+
+    /**
+     * @param reference the reference of a documentation page
+     * @return the violations found by the last analysis of the page, or an empty list if the current user is not
+     *     allowed to view the page
+     * @throws DocumentationException if the violations cannot be read
+     * @since 1.17
+     */
+    public List<DocumentationViolation> getViolations(DocumentReference reference) throws DocumentationException
+    {
+        if (!this.authorization.hasAccess(Right.VIEW, reference)) {
+            return List.of();
+        }
+        XWikiDocument document = getDocument(reference, this.xcontextProvider.get());
+        return this.storeProvider.get().getViolations(document).values().stream().flatMap(List::stream).toList();
+    }
+
+    /**
+     * @param reference the reference of a documentation page
+     * @return a summary of the violations found by the last analysis of the page, cheaper to compute than
+     *     {@link #getViolations(DocumentReference)}, or {@code null} if the current user is not allowed to view the
+     *     page
+     * @throws DocumentationException if the summary cannot be read
+     * @since 1.17
+     */
+    public DocumentationViolationSummary getViolationSummary(DocumentReference reference)
+        throws DocumentationException
+    {
+        if (!this.authorization.hasAccess(Right.VIEW, reference)) {
+            return null;
+        }
+        return this.storeProvider.get().getSummary(getDocument(reference, this.xcontextProvider.get()));
+    }
+
+    /**
+     * Start analysing all the documentation pages of a wiki in the background (e.g. after installing new or upgraded
+     * documentation checks), unless such an analysis is already running. An analysis that didn't complete (e.g.
+     * because of a restart) resumes from where it stopped.
+     *
+     * @param wiki the wiki whose documentation pages should be analysed
+     * @param force {@code true} to analyse the pages even when the data read by the documentation checks didn't
+     *     change since their last analysis
+     * @return the job analysing the pages, or {@code null} if the current user is not an administrator of the wiki
+     * @throws JobException if the job cannot be started
+     * @since 1.17
+     */
+    public Job analyseWiki(String wiki, boolean force) throws JobException
+    {
+        if (!this.authorization.hasAccess(Right.ADMIN, new WikiReference(wiki))) {
+            return null;
+        }
+        Job job = this.jobExecutor.getJob(DocumentationAnalysisRequest.getJobId(wiki));
+        if (job == null || job.getStatus().getState() == JobStatus.State.FINISHED) {
+            DocumentationAnalysisRequest request = new DocumentationAnalysisRequest(wiki);
+            request.setForce(force);
+            request.setUserReference(this.xcontextProvider.get().getUserReference());
+            job = this.jobExecutor.execute(DocumentationAnalysisJob.JOB_TYPE, request);
+        }
+        return job;
+    }
+
+    /**
+     * @param wiki a wiki
+     * @return the status (including the progress) of the last analysis of all the documentation pages of the wiki, or
+     *     {@code null} if there's none or if the current user is not an administrator of the wiki
+     * @since 1.17
+     */
+    public JobStatus getWikiAnalysisStatus(String wiki)
+    {
+        if (!this.authorization.hasAccess(Right.ADMIN, new WikiReference(wiki))) {
+            return null;
+        }
+        return getAnalysisStatus(DocumentationAnalysisRequest.getJobId(wiki));
+    }
+
+    /**
+     * @return the hints of the documentation checks active in the current wiki, in the order in which they are
+     *     executed, each with the document data it reads
+     * @throws DocumentationException if the checks cannot be looked up
+     * @since 1.17
+     */
+    public Map<String, Set<DocumentationFacet>> getChecks() throws DocumentationException
+    {
+        Map<String, Set<DocumentationFacet>> checks = new LinkedHashMap<>();
+        for (Map.Entry<String, DocumentationCheck> check : this.checkRegistry.getChecks().entrySet()) {
+            checks.put(check.getKey(), check.getValue().getFacets());
+        }
+        return checks;
+    }
+
+    /**
+     * @return the statistics of each documentation check executed since the start, indexed by check hint, or an empty
+     *     map if the current user doesn't have programming rights. The statistics of a check are the number of
+     *     executions ({@code count}), the {@code mean}, median ({@code p50}), 99th percentile ({@code p99}) and
+     *     {@code max} durations in milliseconds, and the number of {@code violations} found, of {@code failures} and of
+     *     {@code timeouts}
+     * @since 1.17
+     */
+    public Map<String, Map<String, Object>> getCheckMetrics()
+    {
+        return this.authorization.hasAccess(Right.PROGRAMMING) ? toMaps(this.metrics.getChecks()) : Map.of();
+    }
+
+    /**
+     * @return the statistics of the other steps of the documentation analysis (reconciliation of the stored
+     *     violations, save, etc.) since the start, indexed by step name, or an empty map if the current user doesn't
+     *     have programming rights. The statistics have the same keys as the ones of {@link #getCheckMetrics()}
+     * @since 1.17
+     */
+    public Map<String, Map<String, Object>> getStepMetrics()
+    {
+        return this.authorization.hasAccess(Right.PROGRAMMING) ? toMaps(this.metrics.getSteps()) : Map.of();
+    }
+
+    /**
+     * Copy the statistics, so that scripts don't get the live (internal) timers.
+     */
+    private Map<String, Map<String, Object>> toMaps(Map<String, DocumentationTimerMBean> timers)
+    {
+        Map<String, Map<String, Object>> maps = new LinkedHashMap<>();
+        for (Map.Entry<String, DocumentationTimerMBean> timer : timers.entrySet()) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", timer.getValue().getCount());
+            map.put("mean", timer.getValue().getMean());
+            map.put("p50", timer.getValue().getP50());
+            map.put("p99", timer.getValue().getP99());
+            map.put("max", timer.getValue().getMax());
+            map.put("violations", timer.getValue().getViolations());
+            map.put("failures", timer.getValue().getFailures());
+            map.put("timeouts", timer.getValue().getTimeouts());
+            maps.put(timer.getKey(), Collections.unmodifiableMap(map));
+        }
+        return Collections.unmodifiableMap(maps);
+    }
+
+    private boolean canAccess(JobStatus status)
+    {
+        if (!(status.getRequest() instanceof DocumentationAnalysisRequest request)) {
+            return false;
+        }
+        XWikiContext xcontext = this.xcontextProvider.get();
+        if (request.getUserReference() != null && request.getUserReference().equals(xcontext.getUserReference())) {
+            return true;
+        }
+        Set<String> wikis;
+        if (request.getWiki() != null) {
+            wikis = Set.of(request.getWiki());
+        } else if (request.getReferences() == null || request.getReferences().isEmpty()) {
+            wikis = Set.of(xcontext.getWikiId());
+        } else {
+            wikis = request.getReferences().stream().map(reference -> reference.getWikiReference().getName())
+                .collect(Collectors.toSet());
+        }
+        return wikis.stream().allMatch(wiki -> this.authorization.hasAccess(Right.ADMIN, new WikiReference(wiki)));
+    }
+
+    private XWikiDocument getDocument(DocumentReference reference, XWikiContext xcontext)
+        throws DocumentationException
+    {
+        try {
+            return xcontext.getWiki().getDocument(reference, xcontext);
+        } catch (XWikiException e) {
+            throw new DocumentationException(String.format("Failed to load the document [%s]", reference), e);
+        }
     }
 }
@@ -0,0 +1,84 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.rendering.block.XDOM;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DocumentationAnalysisContext}.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+class DocumentationAnalysisContextTest
+{
+    private final XWikiDocument document = mock(XWikiDocument.class);
+
+    private final DocumentationAnalysisContext context = new DocumentationAnalysisContext(this.document);
+
+    @Test
+    void getXDOMParsesDocumentOnce()
+    {
+        XDOM xdom = new XDOM(List.of());
+        when(this.document.getXDOM()).thenReturn(xdom);
+
+        assertSame(xdom, this.context.getXDOM());
+        assertSame(xdom, this.context.getXDOM());
+        verify(this.document, times(1)).getXDOM();
+    }
+
+    @Test
+    void computeIfAbsentMemoizesNullValues()
+    {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertNull(this.context.computeIfAbsent("key", () -> {
+            calls.incrementAndGet();
+            return null;
+        }));
+        assertNull(this.context.computeIfAbsent("key", calls::incrementAndGet));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void computeIfAbsentDoesNotMemoizeFailures()
+    {
+        assertThrows(IllegalStateException.class, () -> this.context.computeIfAbsent("key", () -> {
+            throw new IllegalStateException();
+        }));
+
+        assertEquals("value", this.context.computeIfAbsent("key", () -> "value"));
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.contrib.documentation.DocumentationConfiguration;
+import org.xwiki.environment.Environment;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryManager;
+import org.xwiki.test.junit5.XWikiTempDir;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DocumentationAnalysisJob}.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@ComponentTest
+class DocumentationAnalysisJobTest
+{
+    private static final WikiReference WIKI = new WikiReference("wiki");
+
+    private static final String COUNT_STATEMENT = "select count(doc.fullName) from Document doc, "
+        + "doc.object(DocApp.Code.DocumentationClass) as documentation where doc.fullName > :lastDocument "
+        + "and doc.space <> 'DocApp' and doc.space not like 'DocApp.%'";
+
+    private static final String BATCH_STATEMENT = "from doc.object(DocApp.Code.DocumentationClass) as documentation "
+        + "where doc.fullName > :lastDocument and doc.space <> 'DocApp' and doc.space not like 'DocApp.%' "
+        + "order by doc.fullName";
+
+    @InjectMockComponents
+    private DocumentationAnalysisJob job;
+
+    @MockComponent
+    private QueryManager queryManager;
+
+    @MockComponent
+    private DocumentationAnalysisQueue queue;
+
+    @MockComponent
+    private DocumentationConfiguration configuration;
+
+    @MockComponent
+    private DocumentReferenceResolver<String> resolver;
+
+    @MockComponent
+    private Environment environment;
+
+    @XWikiTempDir
+    private File permanentDirectory;
+
+    private final Query countQuery = mock(Query.class, "count");
+
+    private final Query query = mock(Query.class);
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        when(this.environment.getPermanentDirectory()).thenReturn(this.permanentDirectory);
+        when(this.configuration.getBatchSize()).thenReturn(2);
+
+        when(this.queryManager.createQuery(COUNT_STATEMENT, Query.XWQL)).thenReturn(this.countQuery);
+        when(this.countQuery.setWiki(anyString())).thenReturn(this.countQuery);
+        when(this.countQuery.bindValue(anyString(), any())).thenReturn(this.countQuery);
+        when(this.countQuery.execute()).thenReturn(List.of(3L));
+        when(this.queryManager.createQuery(BATCH_STATEMENT, Query.XWQL)).thenReturn(this.query);
+        when(this.query.setWiki(anyString())).thenReturn(this.query);
+        when(this.query.bindValue(anyString(), any())).thenReturn(this.query);
+        when(this.query.setLimit(anyInt())).thenReturn(this.query);
+
+        when(this.resolver.resolve(anyString(), eq(WIKI))).thenAnswer(
+            invocation -> new DocumentReference("wiki", "Space", invocation.<String>getArgument(0)));
+        when(this.queue.submit(any(), eq(true))).thenAnswer(invocation -> CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    void analyseAllDocumentationPagesInBatches() throws Exception
+    {
+        when(this.query.execute()).thenReturn(List.of("A", "B"), List.of("C"));
+
+        run(new DocumentationAnalysisRequest(WIKI.getName()));
+
+        verify(this.query).bindValue("lastDocument", "");
+        verify(this.query).bindValue("lastDocument", "B");
+        verify(this.queue).submit(new DocumentReference("wiki", "Space", "A"), true);
+        verify(this.queue).submit(new DocumentReference("wiki", "Space", "B"), true);
+        verify(this.queue).submit(new DocumentReference("wiki", "Space", "C"), true);
+        // The checkpoint is removed once all the pages have been analysed.
+        assertFalse(Files.exists(getCheckpoint()));
+    }
+
+    @Test
+    void resumeFromCheckpoint() throws Exception
+    {
+        Files.createDirectories(getCheckpoint().getParent());
+        Files.writeString(getCheckpoint(), "lastDocument=B\n", StandardCharsets.UTF_8);
+        when(this.query.execute()).thenReturn(List.of("C"));
+
+        run(new DocumentationAnalysisRequest(WIKI.getName()));
+
+        verify(this.countQuery).bindValue("lastDocument", "B");
+        verify(this.query).bindValue("lastDocument", "B");
+        verify(this.queue).submit(new DocumentReference("wiki", "Space", "C"), true);
+    }
+
+    @Test
+    void analyseListedPages() throws Exception
+    {
+        List<DocumentReference> references = List.of(new DocumentReference("wiki", "Space", "A"),
+            new DocumentReference("wiki", "Space", "B"), new DocumentReference("otherwiki", "Space", "C"));
+
+        run(new DocumentationAnalysisRequest(references));
+
+        for (DocumentReference reference : references) {
+            verify(this.queue).submit(reference, true);
+        }
+        verifyNoInteractions(this.queryManager);
+        // The progress of an analysis of listed pages is not recorded.
+        assertFalse(Files.exists(getCheckpoint().getParent()));
+    }
+
+    private void run(DocumentationAnalysisRequest request)
+    {
+        request.setForce(true);
+        this.job.initialize(request);
+        this.job.run();
+    }
+
+    private Path getCheckpoint()
+    {
+        return this.permanentDirectory.toPath().resolve("documentation/batch/wiki.properties");
+    }
+}
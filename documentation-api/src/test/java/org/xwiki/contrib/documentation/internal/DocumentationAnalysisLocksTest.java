@@ -0,0 +1,62 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.model.reference.DocumentReference;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link DocumentationAnalysisLocks}.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+class DocumentationAnalysisLocksTest
+{
+    private static final DocumentReference REFERENCE = new DocumentReference("wiki", "Space", "Page");
+
+    private final DocumentationAnalysisLocks locks = new DocumentationAnalysisLocks();
+
+    @Test
+    void getLock()
+    {
+        assertSame(this.locks.getLock(REFERENCE),
+            this.locks.getLock(new DocumentReference("wiki", "Space", "Page")));
+        // All the translations of a document share the same lock.
+        assertSame(this.locks.getLock(REFERENCE), this.locks.getLock(new DocumentReference(REFERENCE, Locale.FRENCH)));
+    }
+
+    @Test
+    void getLockOfDifferentDocuments()
+    {
+        // Look for a document which doesn't fall in the same stripe, which is the case for most documents.
+        boolean found = false;
+        for (int i = 0; i < 10 && !found; i++) {
+            found = this.locks.getLock(REFERENCE) != this.locks.getLock(new DocumentReference("wiki", "Space",
+                "Page" + i));
+        }
+        assertTrue(found);
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.contrib.documentation.DocumentationConfiguration;
+import org.xwiki.contrib.documentation.DocumentationManager;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DocumentationAnalysisQueue}.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@ComponentTest
+class DocumentationAnalysisQueueTest
+{
+    private static final DocumentReference REFERENCE = new DocumentReference("wiki", "Space", "Page");
+
+    @InjectMockComponents
+    private DocumentationAnalysisQueue queue;
+
+    @MockComponent
+    private DocumentationManager manager;
+
+    @MockComponent
+    private DocumentationConfiguration configuration;
+
+    @MockComponent
+    private Provider<XWikiContext> xcontextProvider;
+
+    private XWikiDocument document;
+
+    private XWikiDocument clonedDocument;
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        XWikiContext xcontext = mock(XWikiContext.class);
+        XWiki xwiki = mock(XWiki.class);
+        when(this.xcontextProvider.get()).thenReturn(xcontext);
+        when(xcontext.getWiki()).thenReturn(xwiki);
+
+        this.document = mock(XWikiDocument.class);
+        this.clonedDocument = mock(XWikiDocument.class);
+        when(xwiki.getDocument(REFERENCE, xcontext)).thenReturn(this.document);
+        when(this.document.clone()).thenReturn(this.clonedDocument);
+    }
+
+    @Test
+    void analysesLatestVersionInBackground() throws Exception
+    {
+        this.queue.enqueue(REFERENCE);
+
+        verify(this.manager, timeout(5000)).analyse(this.clonedDocument, false);
+    }
+
+    @Test
+    void coalescesSavesOfSameDocument() throws Exception
+    {
+        when(this.configuration.getAnalysisDelay()).thenReturn(300L);
+
+        this.queue.enqueue(REFERENCE);
+        this.queue.enqueue(REFERENCE);
+        this.queue.enqueue(REFERENCE);
+        assertTrue(this.queue.isPending(REFERENCE));
+
+        verify(this.manager, after(1500).times(1)).analyse(this.clonedDocument, false);
+        assertFalse(this.queue.isPending(REFERENCE));
+    }
+
+    @Test
+    void forcesCoalescedAnalysisWhenRequested() throws Exception
+    {
+        when(this.configuration.getAnalysisDelay()).thenReturn(300L);
+
+        this.queue.enqueue(REFERENCE);
+        this.queue.enqueue(REFERENCE, true);
+        this.queue.enqueue(REFERENCE);
+
+        verify(this.manager, after(1500).times(1)).analyse(this.clonedDocument, true);
+        verify(this.manager, never()).analyse(this.clonedDocument, false);
+    }
+
+    @Test
+    void reportsDocumentAsAnalysedUntilTheAnalysisIsDone() throws Exception
+    {
+        CountDownLatch analysing = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            analysing.countDown();
+            done.await();
+            return null;
+        }).when(this.manager).analyse(this.clonedDocument, true);
+
+        assertFalse(this.queue.isAnalysing(REFERENCE));
+        this.queue.enqueue(REFERENCE, true);
+        assertTrue(this.queue.isAnalysing(REFERENCE));
+        assertTrue(analysing.await(5, TimeUnit.SECONDS));
+        assertFalse(this.queue.isPending(REFERENCE));
+        assertTrue(this.queue.isAnalysing(REFERENCE));
+
+        done.countDown();
+        verify(this.manager, timeout(5000)).analyse(this.clonedDocument, true);
+        // The document is reported as analysed until the analysis thread completes.
+        for (int i = 0; i < 50 && this.queue.isAnalysing(REFERENCE); i++) {
+            Thread.sleep(100);
+        }
+        assertFalse(this.queue.isAnalysing(REFERENCE));
+    }
+
+    @Test
+    void skipsDeletedDocument() throws Exception
+    {
+        when(this.document.isNew()).thenReturn(true);
+
+        this.queue.enqueue(REFERENCE);
+
+        verify(this.manager, after(500).never()).analyse(any(), anyBoolean());
+    }
+}
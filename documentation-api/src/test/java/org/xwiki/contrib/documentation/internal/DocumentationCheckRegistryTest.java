@@ -0,0 +1,113 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.contrib.documentation.DocumentationCheck;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWikiContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DocumentationCheckRegistry}.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@ComponentTest
+class DocumentationCheckRegistryTest
+{
+    @InjectMockComponents
+    private DocumentationCheckRegistry registry;
+
+    @MockComponent
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    @MockComponent
+    private Provider<XWikiContext> xcontextProvider;
+
+    private final ComponentManager componentManager = mock(ComponentManager.class);
+
+    private final XWikiContext xcontext = mock(XWikiContext.class);
+
+    private final DocumentationCheck syntaxCheck = mock(DocumentationCheck.class);
+
+    private final DocumentationCheck pageNameCheck = mock(DocumentationCheck.class);
+
+    @BeforeEach
+    void setup() throws Exception
+    {
+        when(this.componentManagerProvider.get()).thenReturn(this.componentManager);
+        when(this.xcontextProvider.get()).thenReturn(this.xcontext);
+        when(this.xcontext.getWikiId()).thenReturn("wiki");
+        when(this.componentManager.<DocumentationCheck>getInstanceMap(DocumentationCheck.class))
+            .thenReturn(Map.of("syntax", this.syntaxCheck, "pageName", this.pageNameCheck));
+    }
+
+    @Test
+    void getChecksIsOrderedAndCached() throws Exception
+    {
+        Map<String, DocumentationCheck> checks = this.registry.getChecks();
+
+        assertEquals(List.of("pageName", "syntax"), List.copyOf(checks.keySet()));
+        assertSame(checks, this.registry.getChecks());
+        verify(this.componentManager, times(1)).getInstanceMap(DocumentationCheck.class);
+    }
+
+    @Test
+    void getChecksPerWiki() throws Exception
+    {
+        this.registry.getChecks();
+        when(this.xcontext.getWikiId()).thenReturn("otherwiki");
+        this.registry.getChecks();
+
+        verify(this.componentManager, times(2)).getInstanceMap(DocumentationCheck.class);
+    }
+
+    @Test
+    void invalidate() throws Exception
+    {
+        this.registry.getChecks();
+        when(this.componentManager.<DocumentationCheck>getInstanceMap(DocumentationCheck.class))
+            .thenReturn(Map.of("syntax", this.syntaxCheck));
+        this.registry.invalidate();
+
+        assertEquals(Map.of("syntax", this.syntaxCheck), this.registry.getChecks());
+        verify(this.componentManager, times(2)).getInstanceMap(DocumentationCheck.class);
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.contrib.documentation.DocumentationAnalysisContext;
+import org.xwiki.contrib.documentation.DocumentationCheck;
+import org.xwiki.contrib.documentation.DocumentationConfiguration;
+import org.xwiki.contrib.documentation.DocumentationException;
+import org.xwiki.contrib.documentation.DocumentationViolation;
+import org.xwiki.contrib.documentation.DocumentationViolationSeverity;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DocumentationCheckRunner} in parallel mode.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@ComponentTest
+class DocumentationCheckRunnerTest
+{
+    private static final DocumentationViolation WALK_VIOLATION =
+        new DocumentationViolation("walk", "", DocumentationViolationSeverity.ERROR);
+
+    @InjectMockComponents
+    private DocumentationCheckRunner runner;
+
+    @MockComponent
+    private DocumentationConfiguration configuration;
+
+    @MockComponent
+    private Execution execution;
+
+    @MockComponent
+    private ExecutionContextManager executionContextManager;
+
+    @MockComponent
+    private DocumentationMetrics metrics;
+
+    private final DocumentationAnalysisContext analysisContext =
+        new DocumentationAnalysisContext(mock(XWikiDocument.class));
+
+    @BeforeComponent
+    void configure()
+    {
+        when(this.configuration.getCheckParallelism()).thenReturn(4);
+    }
+
+    @Test
+    void runMergesViolationsInCheckOrder() throws Exception
+    {
+        ExecutionContext context = new ExecutionContext();
+        ExecutionContext clonedContext = new ExecutionContext();
+        when(this.execution.getContext()).thenReturn(context);
+        when(this.executionContextManager.clone(context)).thenReturn(clonedContext);
+
+        DocumentationViolation slowViolation =
+            new DocumentationViolation("slow", "", DocumentationViolationSeverity.ERROR);
+        DocumentationViolation fastViolation =
+            new DocumentationViolation("fast", "", DocumentationViolationSeverity.WARNING);
+        DocumentationCheck slowCheck = mock(DocumentationCheck.class);
+        when(slowCheck.check(any(DocumentationAnalysisContext.class))).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return List.of(slowViolation);
+        });
+        DocumentationCheck fastCheck = mock(DocumentationCheck.class);
+        when(fastCheck.check(any(DocumentationAnalysisContext.class))).thenReturn(List.of(fastViolation));
+
+        Map<String, DocumentationCheck> checks = new LinkedHashMap<>();
+        checks.put("slow", slowCheck);
+        checks.put("fast", fastCheck);
+        Map<String, List<DocumentationViolation>> violations =
+            this.runner.run(checks, this.analysisContext).getViolations();
+
+        assertEquals(List.of("slow", "fast"), List.copyOf(violations.keySet()));
+        assertEquals(List.of(slowViolation), violations.get("slow"));
+        assertEquals(List.of(fastViolation), violations.get("fast"));
+        // Each check runs with its own clone of the caller's execution context.
+        verify(this.executionContextManager, times(2)).clone(context);
+        verify(this.execution, times(2)).setContext(clonedContext);
+        verify(this.execution, times(2)).removeContext();
+        verify(this.metrics).recordCheck(eq("slow"), anyLong(), eq(1));
+        verify(this.metrics).recordCheck(eq("fast"), anyLong(), eq(1));
+    }
+
+    @Test
+    void runPropagatesCheckFailure() throws Exception
+    {
+        DocumentationException exception = new DocumentationException("error");
+        DocumentationCheck failingCheck = mock(DocumentationCheck.class);
+        when(failingCheck.check(any(DocumentationAnalysisContext.class))).thenThrow(exception);
+        DocumentationCheck check = mock(DocumentationCheck.class);
+        when(check.check(any(DocumentationAnalysisContext.class))).thenReturn(List.of());
+
+        Map<String, DocumentationCheck> checks = new LinkedHashMap<>();
+        checks.put("check", check);
+        checks.put("failing", failingCheck);
+
+        assertSame(exception,
+            assertThrows(DocumentationException.class, () -> this.runner.run(checks, this.analysisContext)));
+        verify(this.metrics).recordCheckFailure(eq("failing"), anyLong());
+    }
+
+    @Test
+    void runCancelsTheOtherChecksWhenACheckFails() throws Exception
+    {
+        DocumentationException exception = new DocumentationException("error");
+        DocumentationCheck failingCheck = mock(DocumentationCheck.class);
+        when(failingCheck.check(any(DocumentationAnalysisContext.class))).thenThrow(exception);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        DocumentationCheck slowCheck = mock(DocumentationCheck.class);
+        when(slowCheck.check(any(DocumentationAnalysisContext.class))).thenAnswer(invocation -> {
+            DocumentationAnalysisContext context = invocation.getArgument(0);
+            try {
+                while (true) {
+                    context.getCancellationToken().checkCancelled();
+                    Thread.sleep(10);
+                }
+            } catch (CancellationException | InterruptedException e) {
+                cancelled.countDown();
+                throw e;
+            }
+        });
+
+        Map<String, DocumentationCheck> checks = new LinkedHashMap<>();
+        checks.put("failing", failingCheck);
+        checks.put("slow", slowCheck);
+
+        assertSame(exception,
+            assertThrows(DocumentationException.class, () -> this.runner.run(checks, this.analysisContext)));
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void runCancelsCheckExceedingItsTimeBudget() throws Exception
+    {
+        when(this.configuration.getCheckTimeout()).thenReturn(50L);
+        DocumentationCheck slowCheck = mock(DocumentationCheck.class);
+        when(slowCheck.check(any(DocumentationAnalysisContext.class))).thenAnswer(invocation -> {
+            DocumentationAnalysisContext context = invocation.getArgument(0);
+            while (true) {
+                context.getCancellationToken().checkCancelled();
+                Thread.sleep(10);
+            }
+        });
+        DocumentationViolation violation = new DocumentationViolation("fast", "", DocumentationViolationSeverity.ERROR);
+        DocumentationCheck fastCheck = mock(DocumentationCheck.class);
+        when(fastCheck.check(any(DocumentationAnalysisContext.class))).thenReturn(List.of(violation));
+
+        Map<String, DocumentationCheck> checks = new LinkedHashMap<>();
+        checks.put("slow", slowCheck);
+        checks.put("fast", fastCheck);
+        DocumentationCheckResults results = this.runner.run(checks, this.analysisContext);
+
+        assertEquals(Set.of("slow"), results.getTimedOutChecks());
+        assertEquals(List.of(new DocumentationViolation(
+            "The [slow] documentation check was cancelled because it exceeded its time budget.", "",
+            DocumentationViolationSeverity.WARNING)), results.getViolations().get("slow"));
+        assertEquals(List.of(violation), results.getViolations().get("fast"));
+        verify(this.metrics).recordCheckTimeout(eq("slow"), anyLong());
+    }
+
+    @Test
+    void runPreparesTheSharedValuesOutsideOfTheCheckTimeBudgets() throws Exception
+    {
+        when(this.configuration.getCheckTimeout()).thenReturn(50L);
+        AtomicInteger walks = new AtomicInteger();
+        // Both checks read the result of a walk of the content shared by the checks (like the XDOM checks do), which
+        // takes longer than the time budget of a check.
+        DocumentationCheck firstCheck = mock(DocumentationCheck.class);
+        doAnswer(invocation -> walk(invocation.getArgument(0), walks)).when(firstCheck)
+            .prepare(any(DocumentationAnalysisContext.class));
+        when(firstCheck.check(any(DocumentationAnalysisContext.class))).thenAnswer(invocation -> {
+            DocumentationAnalysisContext context = invocation.getArgument(0);
+            walk(context, walks);
+            // The first check exceeds its time budget with its own work.
+            while (true) {
+                context.getCancellationToken().checkCancelled();
+                Thread.sleep(10);
+            }
+        });
+        DocumentationCheck secondCheck = mock(DocumentationCheck.class);
+        doAnswer(invocation -> walk(invocation.getArgument(0), walks)).when(secondCheck)
+            .prepare(any(DocumentationAnalysisContext.class));
+        when(secondCheck.check(any(DocumentationAnalysisContext.class)))
+            .thenAnswer(invocation -> walk(invocation.getArgument(0), walks));
+
+        Map<String, DocumentationCheck> checks = new LinkedHashMap<>();
+        checks.put("first", firstCheck);
+        checks.put("second", secondCheck);
+        DocumentationCheckResults results = this.runner.run(checks, this.analysisContext);
+
+        assertEquals(Set.of("first"), results.getTimedOutChecks());
+        assertEquals(List.of(WALK_VIOLATION), results.getViolations().get("second"));
+        assertEquals(1, walks.get());
+        verify(this.metrics).recordCheckTimeout(eq("first"), anyLong());
+        verify(this.metrics).recordCheck(eq("second"), anyLong(), eq(1));
+        verify(this.metrics).recordStep(eq(DocumentationMetrics.PREPARATION), anyLong());
+    }
+
+    @Test
+    void runStopsWaitingForChecksIgnoringTheAnalysisTimeBudget() throws Exception
+    {
+        when(this.configuration.getAnalysisTimeout()).thenReturn(50L);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        DocumentationCheck blockingCheck = mock(DocumentationCheck.class);
+        when(blockingCheck.check(any(DocumentationAnalysisContext.class))).thenAnswer(invocation -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return List.of();
+        });
+        DocumentationCheck check = mock(DocumentationCheck.class);
+        when(check.check(any(DocumentationAnalysisContext.class))).thenReturn(List.of());
+
+        Map<String, DocumentationCheck> checks = new LinkedHashMap<>();
+        checks.put("blocking", blockingCheck);
+        checks.put("check", check);
+        try {
+            DocumentationCheckResults results = this.runner.run(checks, this.analysisContext);
+
+            assertEquals(Set.of("blocking"), results.getTimedOutChecks());
+            assertEquals(List.of(), results.getViolations().get("check"));
+            // The thread executing the check is released.
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static List<DocumentationViolation> walk(DocumentationAnalysisContext context, AtomicInteger walks)
+    {
+        return context.computeIfAbsent("walk", () -> {
+            walks.incrementAndGet();
+            for (int i = 0; i < 10; i++) {
+                context.getCancellationToken().checkCancelled();
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return List.of(WALK_VIOLATION);
+        });
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.xwiki.job.JobExecutor;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link DocumentationDeferredAnalysis}.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@ComponentTest
+class DocumentationDeferredAnalysisTest
+{
+    private static final DocumentReference PAGE1 = new DocumentReference("wiki", "Space", "Page1");
+
+    private static final DocumentReference PAGE2 = new DocumentReference("wiki", "Space", "Page2");
+
+    @InjectMockComponents
+    private DocumentationDeferredAnalysis deferredAnalysis;
+
+    @MockComponent
+    private JobExecutor jobExecutor;
+
+    @Test
+    void deferOutsideOfBulkOperation() throws Exception
+    {
+        assertFalse(this.deferredAnalysis.defer(PAGE1));
+
+        // An end without a begin is ignored.
+        this.deferredAnalysis.end();
+
+        verify(this.jobExecutor, never()).execute(any(), any());
+    }
+
+    @Test
+    void deferDuringNestedBulkOperations() throws Exception
+    {
+        this.deferredAnalysis.begin();
+        assertTrue(this.deferredAnalysis.defer(PAGE1));
+        this.deferredAnalysis.begin();
+        assertTrue(this.deferredAnalysis.defer(PAGE2));
+        // A page saved several times is analysed once.
+        assertTrue(this.deferredAnalysis.defer(PAGE1));
+        this.deferredAnalysis.end();
+
+        // The pages are analysed when the outermost operation is complete.
+        verify(this.jobExecutor, never()).execute(any(), any());
+
+        this.deferredAnalysis.end();
+
+        ArgumentCaptor<DocumentationAnalysisRequest> request =
+            ArgumentCaptor.forClass(DocumentationAnalysisRequest.class);
+        verify(this.jobExecutor).execute(eq(DocumentationAnalysisJob.JOB_TYPE), request.capture());
+        assertEquals(List.of(PAGE1, PAGE2), request.getValue().getReferences());
+        assertFalse(request.getValue().isForce());
+        assertFalse(this.deferredAnalysis.defer(PAGE1));
+    }
+
+    @Test
+    void bulkOperationWithoutDocumentationPages() throws Exception
+    {
+        this.deferredAnalysis.begin();
+        this.deferredAnalysis.end();
+
+        verify(this.jobExecutor, never()).execute(any(), any());
+    }
+}
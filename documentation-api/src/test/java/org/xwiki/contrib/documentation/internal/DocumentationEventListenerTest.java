@@ -21,10 +21,15 @@ package org.xwiki.contrib.documentation.internal;
 
 import java.util.List;
 
+import javax.inject.Provider;
+
 import org.junit.jupiter.api.Test;
 import org.xwiki.bridge.event.DocumentCreatedEvent;
+import org.xwiki.bridge.event.DocumentDeletedEvent;
 import org.xwiki.bridge.event.DocumentUpdatedEvent;
-import org.xwiki.contrib.documentation.DocumentationManager;
+import org.xwiki.contrib.documentation.DocumentationViolationStore;
+import org.xwiki.job.event.JobFinishedEvent;
+import org.xwiki.job.event.JobStartedEvent;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.LocalDocumentReference;
 import org.xwiki.test.junit5.mockito.ComponentTest;
@@ -32,6 +37,8 @@ import org.xwiki.test.junit5.mockito.InjectMockComponents;
 import org.xwiki.test.junit5.mockito.MockComponent;
 
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.event.XARImportedEvent;
+import com.xpn.xwiki.internal.event.XARImportingEvent;
 import com.xpn.xwiki.objects.BaseObject;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -56,7 +63,13 @@ class DocumentationEventListenerTest
     private DocumentationEventListener listener;
 
     @MockComponent
-    private DocumentationManager manager;
+    private DocumentationAnalysisQueue queue;
+
+    @MockComponent
+    private DocumentationDeferredAnalysis deferredAnalysis;
+
+    @MockComponent
+    private Provider<DocumentationViolationStore> storeProvider;
 
     private XWikiDocument mockDocument(boolean hasDocumentationClass, String comment, String space)
     {
@@ -69,52 +82,108 @@ class DocumentationEventListenerTest
     }
 
     @Test
-    void analysisRunsWhenDocumentationClassPresent() throws Exception
+    void analysisQueuedWhenDocumentationClassPresent()
     {
         XWikiDocument document = mockDocument(true, "edit", "Space");
 
         this.listener.onEvent(new DocumentUpdatedEvent(), document, null);
 
-        verify(this.manager).analyse(document);
+        verify(this.queue).enqueue(document.getDocumentReference());
     }
 
     @Test
-    void analysisSkippedWhenNoDocumentationClass() throws Exception
+    void analysisSkippedWhenNoDocumentationClass()
     {
         XWikiDocument document = mockDocument(false, "edit", "Space");
 
         this.listener.onEvent(new DocumentUpdatedEvent(), document, null);
 
-        verify(this.manager, never()).analyse(any());
+        verify(this.queue, never()).enqueue(any());
     }
 
     @Test
-    void analysisSkippedWhenSaveIsFromAnalysis() throws Exception
+    void analysisSkippedWhenSaveIsFromAnalysis()
     {
         XWikiDocument document = mockDocument(true, "Documentation analysis", "Space");
 
         this.listener.onEvent(new DocumentUpdatedEvent(), document, null);
 
-        verify(this.manager, never()).analyse(any());
+        verify(this.queue, never()).enqueue(any());
     }
 
     @Test
-    void analysisSkippedWhenInDocAppSpace() throws Exception
+    void analysisSkippedWhenInDocAppSpace()
     {
         XWikiDocument document = mockDocument(true, "edit", "DocApp");
 
         this.listener.onEvent(new DocumentUpdatedEvent(), document, null);
 
-        verify(this.manager, never()).analyse(any());
+        verify(this.queue, never()).enqueue(any());
     }
 
     @Test
-    void analysisRunsOnDocumentCreatedEvent() throws Exception
+    void analysisQueuedOnDocumentCreatedEvent()
     {
         XWikiDocument document = mockDocument(true, "edit", "Space");
 
         this.listener.onEvent(new DocumentCreatedEvent(), document, null);
 
-        verify(this.manager).analyse(document);
+        verify(this.queue).enqueue(document.getDocumentReference());
+    }
+
+    @Test
+    void analysisDeferredDuringBulkOperation()
+    {
+        XWikiDocument document = mockDocument(true, "Install extension", "Space");
+        when(this.deferredAnalysis.defer(document.getDocumentReference())).thenReturn(true);
+
+        this.listener.onEvent(new DocumentUpdatedEvent(), document, null);
+
+        verify(this.queue, never()).enqueue(any());
+    }
+
+    @Test
+    void bulkOperationsOnXARImport()
+    {
+        this.listener.onEvent(new XARImportingEvent(), null, null);
+        verify(this.deferredAnalysis).begin();
+
+        this.listener.onEvent(new XARImportedEvent(), null, null);
+        verify(this.deferredAnalysis).end();
+    }
+
+    @Test
+    void bulkOperationsOnExtensionInstall()
+    {
+        List<String> jobId = List.of("extension", "action", "install");
+        this.listener.onEvent(new JobStartedEvent(jobId, "install", null), null, null);
+        verify(this.deferredAnalysis).begin();
+
+        this.listener.onEvent(new JobFinishedEvent(jobId, "install", null), null, null);
+        verify(this.deferredAnalysis).end();
+    }
+
+    @Test
+    void noBulkOperationOnOtherJobs()
+    {
+        List<String> jobId = List.of("documentation", "analysis", "wiki");
+        this.listener.onEvent(new JobStartedEvent(jobId, DocumentationAnalysisJob.JOB_TYPE, null), null, null);
+        this.listener.onEvent(new JobFinishedEvent(jobId, DocumentationAnalysisJob.JOB_TYPE, null), null, null);
+
+        verify(this.deferredAnalysis, never()).begin();
+        verify(this.deferredAnalysis, never()).end();
+    }
+
+    @Test
+    void violationsDeletedWithDocument() throws Exception
+    {
+        DocumentationViolationStore store = mock(DocumentationViolationStore.class);
+        when(this.storeProvider.get()).thenReturn(store);
+        XWikiDocument document = mockDocument(false, "", "Space");
+
+        this.listener.onEvent(new DocumentDeletedEvent(), document, null);
+
+        verify(store).delete(document);
+        verify(this.queue, never()).enqueue(any());
     }
 }
@@ -0,0 +1,76 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for {@link DocumentationTimer}.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+class DocumentationTimerTest
+{
+    private final DocumentationTimer timer = new DocumentationTimer();
+
+    @Test
+    void empty()
+    {
+        assertEquals(0, this.timer.getCount());
+        assertEquals(0, this.timer.getMean());
+        assertEquals(0, this.timer.getP50());
+        assertEquals(0, this.timer.getP99());
+        assertEquals(0, this.timer.getMax());
+    }
+
+    @Test
+    void record()
+    {
+        // 98 fast executions, taking 1ms each, and 2 slow ones, taking 100ms each.
+        for (int i = 0; i < 98; i++) {
+            this.timer.record(TimeUnit.MILLISECONDS.toNanos(1), 1);
+        }
+        this.timer.record(TimeUnit.MILLISECONDS.toNanos(100), 2);
+        this.timer.recordFailure(TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertEquals(100, this.timer.getCount());
+        assertEquals(100, this.timer.getViolations());
+        assertEquals(1, this.timer.getFailures());
+        assertEquals(2.98, this.timer.getMean(), 0.001);
+        assertEquals(100, this.timer.getMax());
+        // The percentiles are the upper bound of their bucket, at most 12.5% above the actual value.
+        assertEquals(1, this.timer.getP50(), 0.125);
+        assertEquals(100, this.timer.getP99(), 12.5);
+        assertEquals(100, this.timer.getPercentile(1));
+    }
+
+    @Test
+    void recordSmallDurations()
+    {
+        this.timer.record(TimeUnit.MICROSECONDS.toNanos(3), 0);
+
+        assertEquals(0.003, this.timer.getP50());
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal;
+
+import java.io.File;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.contrib.documentation.DocumentationViolation;
+import org.xwiki.contrib.documentation.DocumentationViolationSeverity;
+import org.xwiki.contrib.documentation.DocumentationViolationSummary;
+import org.xwiki.environment.Environment;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.test.junit5.XWikiTempDir;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link FileDocumentationViolationStore}.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@ComponentTest
+class FileDocumentationViolationStoreTest
+{
+    private static final DocumentReference REFERENCE = new DocumentReference("wiki", "Space", "Page");
+
+    @InjectMockComponents
+    private FileDocumentationViolationStore store;
+
+    @MockComponent
+    private Environment environment;
+
+    @MockComponent
+    private EntityReferenceSerializer<String> serializer;
+
+    @XWikiTempDir
+    private File permanentDirectory;
+
+    private XWikiDocument document;
+
+    @BeforeEach
+    void setUp()
+    {
+        when(this.environment.getPermanentDirectory()).thenReturn(this.permanentDirectory);
+        this.document = mockDocument(REFERENCE);
+    }
+
+    @Test
+    void getViolationsWhenNothingStored() throws Exception
+    {
+        assertTrue(this.store.getViolations(this.document).isEmpty());
+        assertNull(this.store.getFingerprint(this.document));
+    }
+
+    @Test
+    void saveAndGetViolations() throws Exception
+    {
+        DocumentationViolation error =
+            new DocumentationViolation("message = 1", "line 1\nline 2", DocumentationViolationSeverity.ERROR);
+        DocumentationViolation warning =
+            new DocumentationViolation("message 2", "", DocumentationViolationSeverity.WARNING);
+        this.store.save(this.document, Map.of("check1", List.of(error, warning), "check2", List.of()), "fingerprint");
+
+        assertEquals(Map.of("check1", List.of(error, warning)), this.store.getViolations(this.document));
+        assertEquals("fingerprint", this.store.getFingerprint(this.document));
+
+        // Saving again replaces the stored violations.
+        this.store.save(this.document, Map.of("check2", List.of(warning)), "fingerprint2");
+
+        assertEquals(Map.of("check2", List.of(warning)), this.store.getViolations(this.document));
+        assertEquals("fingerprint2", this.store.getFingerprint(this.document));
+    }
+
+    @Test
+    void saveAndGetSummary() throws Exception
+    {
+        DocumentationViolation error = new DocumentationViolation("error", "", DocumentationViolationSeverity.ERROR);
+        DocumentationViolation warning =
+            new DocumentationViolation("warning", "", DocumentationViolationSeverity.WARNING);
+        this.store.save(this.document, Map.of("check1", List.of(error, warning), "check2", List.of(warning)),
+            "check1=a\ncheck2=b");
+
+        DocumentationViolationSummary summary = this.store.getSummary(this.document);
+        assertEquals(DocumentationViolationSeverity.ERROR, summary.getMaxSeverity());
+        assertEquals(1, summary.getErrorCount());
+        assertEquals(2, summary.getWarningCount());
+        assertNotNull(summary.getAnalysisDate());
+        // The version of the checks doesn't depend on the data they read.
+        this.store.save(this.document, Map.of(), "check1=c\ncheck2=d");
+        assertEquals(summary.getChecksVersion(), this.store.getSummary(this.document).getChecksVersion());
+        assertNull(this.store.getSummary(this.document).getMaxSeverity());
+        this.store.save(this.document, Map.of(), "check1=c");
+        assertNotEquals(summary.getChecksVersion(), this.store.getSummary(this.document).getChecksVersion());
+    }
+
+    @Test
+    void saveViolationsWithoutMessageOrContext() throws Exception
+    {
+        DocumentationViolation violation = new DocumentationViolation(null, null, DocumentationViolationSeverity.ERROR);
+        this.store.save(this.document, Map.of("check", List.of(violation)), "fingerprint");
+
+        assertEquals(Map.of("check", List.of(new DocumentationViolation("", "", DocumentationViolationSeverity.ERROR))),
+            this.store.getViolations(this.document));
+    }
+
+    @Test
+    void delete() throws Exception
+    {
+        DocumentationViolation violation =
+            new DocumentationViolation("message", "context", DocumentationViolationSeverity.ERROR);
+        this.store.save(this.document, Map.of("check", List.of(violation)), "fingerprint");
+
+        this.store.delete(this.document);
+
+        assertTrue(this.store.getViolations(this.document).isEmpty());
+        assertNull(this.store.getFingerprint(this.document));
+        // Deleting the violations of a document that has none doesn't fail.
+        this.store.delete(this.document);
+    }
+
+    @Test
+    void violationsAreStoredPerLocale() throws Exception
+    {
+        XWikiDocument translation = mockDocument(new DocumentReference(REFERENCE, Locale.FRENCH));
+        DocumentationViolation violation =
+            new DocumentationViolation("message", "context", DocumentationViolationSeverity.ERROR);
+        this.store.save(this.document, Map.of("check", List.of(violation)), "fingerprint");
+
+        assertTrue(this.store.getViolations(translation).isEmpty());
+    }
+
+    private XWikiDocument mockDocument(DocumentReference reference)
+    {
+        XWikiDocument mockDocument = mock(XWikiDocument.class);
+        when(mockDocument.getDocumentReference()).thenReturn(reference);
+        when(mockDocument.getDocumentReferenceWithLocale()).thenReturn(reference);
+        when(mockDocument.getVersion()).thenReturn("1.1");
+        when(this.serializer.serialize(reference)).thenReturn(reference.toString());
+        return mockDocument;
+    }
+}
@@ -20,14 +20,22 @@
 package org.xwiki.contrib.documentation.test;
 
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.xwiki.contrib.documentation.DocumentationAnalysisContext;
 import org.xwiki.contrib.documentation.DocumentationCheck;
+import org.xwiki.contrib.documentation.DocumentationFacet;
 import org.xwiki.contrib.documentation.DocumentationViolation;
 import org.xwiki.contrib.documentation.DocumentationViolationSeverity;
+import org.xwiki.contrib.documentation.DocumentationViolationStore;
+import org.xwiki.contrib.documentation.DocumentationViolationSummary;
 import org.xwiki.contrib.documentation.internal.DefaultDocumentationManager;
+import org.xwiki.contrib.documentation.internal.DocumentationCheckRegistry;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.test.annotation.AllComponents;
 import org.xwiki.test.junit5.mockito.InjectComponentManager;
@@ -42,7 +50,15 @@ import com.xpn.xwiki.test.junit5.mockito.InjectMockitoOldcore;
 import com.xpn.xwiki.test.junit5.mockito.OldcoreTest;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -77,6 +93,7 @@ class DefaultDocumentationManagerTest
         violationClass.addTextField("message", "Message", 100);
         violationClass.addTextField("context", "Context", 100);
         violationClass.addStaticListField("severity");
+        violationClass.addTextField("check", "Check", 30);
         violationClassDocument.setXClass(violationClass);
         this.oldcore.getSpyXWiki().saveDocument(violationClassDocument, this.oldcore.getXWikiContext());
 
@@ -90,35 +107,57 @@ class DefaultDocumentationManagerTest
     {
         // Generate one violation.
         DocumentationCheck check = this.componentManager.registerMockComponent(DocumentationCheck.class, "test");
-        when(check.check(this.document)).thenReturn(Collections.singletonList(
+        when(check.check(analysisOf(this.document))).thenReturn(Collections.singletonList(
             new DocumentationViolation("message", "context", DocumentationViolationSeverity.ERROR)));
 
         this.manager.analyse(this.document);
 
         // Verify that there's now a single violation xobject
-        List<BaseObject> objects = this.document.getXObjects(VIOLATION_CLASS_REFERENCE);
+        XWikiDocument latest = getLatestDocument();
+        List<BaseObject> objects = latest.getXObjects(VIOLATION_CLASS_REFERENCE);
         assertEquals(1, objects.size());
         assertEquals("message", objects.get(0).getStringValue("message"));
         assertEquals("context", objects.get(0).getStringValue("context"));
         assertEquals("Error", objects.get(0).getStringValue("severity"));
+        assertEquals("test", objects.get(0).getStringValue("check"));
 
         // Verify the save message
-        assertEquals("Documentation analysis", this.document.getComment());
+        assertEquals("Documentation analysis", latest.getComment());
 
         // Verify the xobject number
         assertEquals(0, objects.get(0).getNumber());
     }
 
+    @Test
+    void analyzeRecordsViolationSummary() throws Exception
+    {
+        DocumentationCheck check = this.componentManager.registerMockComponent(DocumentationCheck.class, "test");
+        when(check.check(analysisOf(this.document))).thenReturn(List.of(
+            new DocumentationViolation("message", "context1", DocumentationViolationSeverity.WARNING),
+            new DocumentationViolation("message", "context2", DocumentationViolationSeverity.WARNING)));
+
+        this.manager.analyse(this.document);
+
+        DocumentationViolationSummary summary =
+            this.componentManager.<DocumentationViolationStore>getInstance(DocumentationViolationStore.class, "xobject")
+                .getSummary(getLatestDocument());
+        assertEquals(DocumentationViolationSeverity.WARNING, summary.getMaxSeverity());
+        assertEquals(0, summary.getErrorCount());
+        assertEquals(2, summary.getWarningCount());
+        assertNotNull(summary.getAnalysisDate());
+        assertNotNull(summary.getChecksVersion());
+    }
+
     /**
-     * Verify that the existing violation is removed and a new one added (since the new violation is different from the
-     * old one).
+     * Verify that the existing violation is updated in place with the new violation (since the new violation is
+     * different from the old one).
      */
     @Test
     void analyzeWhenNewViolationAndExistingViolationNotMatching() throws Exception
     {
         // Generate one violation.
         DocumentationCheck check = this.componentManager.registerMockComponent(DocumentationCheck.class, "test");
-        when(check.check(this.document)).thenReturn(Collections.singletonList(
+        when(check.check(analysisOf(this.document))).thenReturn(Collections.singletonList(
             new DocumentationViolation("message", "context", DocumentationViolationSeverity.ERROR)));
 
         // Add an existing violation xobject.
@@ -126,21 +165,48 @@ class DefaultDocumentationManagerTest
 
         this.manager.analyse(this.document);
 
-        // Verify that we have a single violation xobject.
-        // Note: Because the XWiki API is weird, removing an xobject simply puts a null in place of the baseobject but
-        // there are still 2 xobjects...
-        List<BaseObject> objects = this.document.getXObjects(VIOLATION_CLASS_REFERENCE);
-        assertEquals(2, objects.size());
-        assertNull(objects.get(0));
-        assertEquals("message", objects.get(1).getStringValue("message"));
-        assertEquals("context", objects.get(1).getStringValue("context"));
-        assertEquals("Error", objects.get(1).getStringValue("severity"));
+        // Verify that we have a single violation xobject, reused for the new violation.
+        XWikiDocument latest = getLatestDocument();
+        List<BaseObject> objects = latest.getXObjects(VIOLATION_CLASS_REFERENCE);
+        assertEquals(1, objects.size());
+        assertEquals("message", objects.get(0).getStringValue("message"));
+        assertEquals("context", objects.get(0).getStringValue("context"));
+        assertEquals("Error", objects.get(0).getStringValue("severity"));
+        assertEquals("test", objects.get(0).getStringValue("check"));
 
         // Verify the save message
-        assertEquals("Documentation analysis", this.document.getComment());
+        assertEquals("Documentation analysis", latest.getComment());
 
         // Verify the xobject numbers
-        assertEquals(1, objects.get(1).getNumber());
+        assertEquals(0, objects.get(0).getNumber());
+    }
+
+    @Test
+    void analyzeWhenSomeViolationsChanged() throws Exception
+    {
+        DocumentationCheck check = this.componentManager.registerMockComponent(DocumentationCheck.class, "test");
+        when(check.check(analysisOf(this.document))).thenReturn(List.of(
+            new DocumentationViolation("message", "context1", DocumentationViolationSeverity.ERROR),
+            new DocumentationViolation("message", "context2", DocumentationViolationSeverity.ERROR),
+            new DocumentationViolation("message", "context2", DocumentationViolationSeverity.ERROR),
+            new DocumentationViolation("message", "context4", DocumentationViolationSeverity.WARNING)));
+
+        addViolationObject("message", "context1", "Error");
+        addViolationObject("message", "context2", "Error");
+        addViolationObject("message", "context3", "Error");
+        addViolationObject("message", "context3", "Error");
+
+        this.manager.analyse(this.document);
+
+        // The matching violations are kept and the others are updated in place with the new violations.
+        List<BaseObject> objects = getLatestDocument().getXObjects(VIOLATION_CLASS_REFERENCE);
+        assertEquals(4, objects.size());
+        assertEquals("context1", objects.get(0).getStringValue("context"));
+        assertEquals("context2", objects.get(1).getStringValue("context"));
+        assertEquals("context2", objects.get(2).getStringValue("context"));
+        assertEquals("Error", objects.get(2).getStringValue("severity"));
+        assertEquals("context4", objects.get(3).getStringValue("context"));
+        assertEquals("Warning", objects.get(3).getStringValue("severity"));
     }
 
     /**
@@ -152,7 +218,7 @@ class DefaultDocumentationManagerTest
     {
         // Generate one violation.
         DocumentationCheck check = this.componentManager.registerMockComponent(DocumentationCheck.class, "test");
-        when(check.check(this.document)).thenReturn(Collections.singletonList(
+        when(check.check(analysisOf(this.document))).thenReturn(Collections.singletonList(
             new DocumentationViolation("message", "context", DocumentationViolationSeverity.ERROR)));
 
         // Add an existing violation xobject.
@@ -161,7 +227,8 @@ class DefaultDocumentationManagerTest
         this.manager.analyse(this.document);
 
         // Verify that we have a single violation xobject.
-        List<BaseObject> objects = this.document.getXObjects(VIOLATION_CLASS_REFERENCE);
+        XWikiDocument latest = getLatestDocument();
+        List<BaseObject> objects = latest.getXObjects(VIOLATION_CLASS_REFERENCE);
         assertEquals(1, objects.size());
         assertEquals("message", objects.get(0).getStringValue("message"));
         assertEquals("context", objects.get(0).getStringValue("context"));
@@ -169,8 +236,8 @@ class DefaultDocumentationManagerTest
 
         // Verify that there's no new save message since it wasn't saved and that the revision is still 2.1
         // (1.1 for the doc creation and 2.1 for the xobject addition above).
-        assertEquals("", this.document.getComment());
-        assertEquals("2.1", this.document.getVersion());
+        assertEquals("", latest.getComment());
+        assertEquals("2.1", latest.getVersion());
 
         // Verify the xobject numbers
         assertEquals(0, objects.get(0).getNumber());
@@ -180,22 +247,222 @@ class DefaultDocumentationManagerTest
     void analyzeWhenEmptyExistingXObject() throws Exception
     {
         DocumentationCheck check = this.componentManager.registerMockComponent(DocumentationCheck.class, "test");
-        when(check.check(this.document)).thenReturn(Collections.emptyList());
+        when(check.check(analysisOf(this.document))).thenReturn(Collections.emptyList());
 
         // Add 2 existing violation xobject but remove the 1sr one to simulate an xobject that has been removed.
         BaseObject v1 =  addViolationObject("message1", "context1", "Error");
         addViolationObject("message2", "context2", "Error");
         this.document.removeXObject(v1);
+        this.oldcore.getSpyXWiki().saveDocument(this.document, this.oldcore.getXWikiContext());
 
         this.manager.analyse(this.document);
 
         // Verify all violations have been removed.
-        List<BaseObject> objects = this.document.getXObjects(VIOLATION_CLASS_REFERENCE);
+        List<BaseObject> objects = getLatestDocument().getXObjects(VIOLATION_CLASS_REFERENCE);
         assertEquals(2, objects.size());
         assertNull(objects.get(0));
         assertNull(objects.get(1));
     }
 
+    @Test
+    void analyzeSkipsDocumentWhenCheckedDataDidNotChange() throws Exception
+    {
+        DocumentationCheck check = this.componentManager.registerMockComponent(DocumentationCheck.class, "test");
+        when(check.check(analysisOf(this.document))).thenReturn(Collections.singletonList(
+            new DocumentationViolation("message", "context", DocumentationViolationSeverity.ERROR)));
+
+        this.manager.analyse(this.document);
+        XWikiDocument reviewed = getLatestDocument();
+        String version = reviewed.getVersion();
+        // Data not read by the checks (e.g. a review) doesn't lead to a new analysis.
+        reviewed.setComment("Reviewed");
+        this.manager.analyse(reviewed);
+
+        verify(check, times(1)).check(analysisOf(this.document));
+        assertEquals(version, getLatestDocument().getVersion());
+    }
+
+    @Test
+    void analyzeWhenCheckedDataChanged() throws Exception
+    {
+        DocumentationCheck check = this.componentManager.registerMockComponent(DocumentationCheck.class, "test");
+        when(check.getFacets()).thenReturn(EnumSet.of(DocumentationFacet.CONTENT));
+        when(check.check(analysisOf(this.document))).thenReturn(Collections.emptyList());
+
+        this.manager.analyse(this.document);
+        XWikiDocument modified = getLatestDocument();
+        modified.setContent("new content");
+        this.manager.analyse(modified);
+
+        verify(check, times(2)).check(analysisOf(this.document));
+    }
+
+    @Test
+    void analyzeWhenForced() throws Exception
+    {
+        DocumentationCheck check = this.componentManager.registerMockComponent(DocumentationCheck.class, "test");
+        when(check.check(analysisOf(this.document))).thenReturn(Collections.emptyList());
+
+        this.manager.analyse(this.document);
+        this.manager.analyse(this.document);
+        this.manager.analyse(this.document, true);
+
+        verify(check, times(2)).check(analysisOf(this.document));
+    }
+
+    @Test
+    void analyzeWhenStoredViolationsWereRemoved() throws Exception
+    {
+        DocumentationCheck check = this.componentManager.registerMockComponent(DocumentationCheck.class, "test");
+        when(check.check(analysisOf(this.document))).thenReturn(Collections.emptyList());
+
+        // The analysis doesn't save anything since there's no violation.
+        this.manager.analyse(this.document);
+        // Results modified since the last analysis are not trusted.
+        addViolationObject("message", "context", "Error");
+        this.manager.analyse(this.document);
+
+        verify(check, times(2)).check(analysisOf(this.document));
+        assertNull(getLatestDocument().getXObjects(VIOLATION_CLASS_REFERENCE).get(0));
+    }
+
+    @Test
+    void analyzeOnlyChecksReadingChangedData() throws Exception
+    {
+        DocumentationCheck contentCheck =
+            this.componentManager.registerMockComponent(DocumentationCheck.class, "content");
+        when(contentCheck.getFacets()).thenReturn(EnumSet.of(DocumentationFacet.CONTENT));
+        when(contentCheck.check(analysisOf(this.document))).thenReturn(Collections.singletonList(
+            new DocumentationViolation("content message", "", DocumentationViolationSeverity.ERROR)));
+        DocumentationCheck titleCheck = this.componentManager.registerMockComponent(DocumentationCheck.class, "title");
+        when(titleCheck.getFacets()).thenReturn(EnumSet.of(DocumentationFacet.TITLE));
+        when(titleCheck.check(analysisOf(this.document))).thenReturn(Collections.singletonList(
+            new DocumentationViolation("title message", "", DocumentationViolationSeverity.WARNING)));
+
+        this.manager.analyse(this.document);
+        XWikiDocument modified = getLatestDocument();
+        modified.setTitle("New title");
+        when(titleCheck.check(analysisOf(this.document))).thenReturn(Collections.emptyList());
+        this.manager.analyse(modified);
+
+        verify(contentCheck, times(1)).check(analysisOf(this.document));
+        verify(titleCheck, times(2)).check(analysisOf(this.document));
+        // The violation of the check that wasn't executed again is kept.
+        List<BaseObject> objects = getLatestDocument().getXObjects(VIOLATION_CLASS_REFERENCE).stream()
+            .filter(Objects::nonNull).toList();
+        assertEquals(1, objects.size());
+        assertEquals("content message", objects.get(0).getStringValue("message"));
+        assertEquals("content", objects.get(0).getStringValue("check"));
+    }
+
+    @Test
+    void analyzeRemovesViolationsOfRemovedChecks() throws Exception
+    {
+        DocumentationCheck check = this.componentManager.registerMockComponent(DocumentationCheck.class, "test");
+        when(check.check(analysisOf(this.document))).thenReturn(Collections.singletonList(
+            new DocumentationViolation("message", "context", DocumentationViolationSeverity.ERROR)));
+
+        this.manager.analyse(this.document);
+        this.componentManager.unregisterComponent(DocumentationCheck.class, "test");
+        // The test component manager doesn't send component events, so the listener can't invalidate the registry.
+        this.componentManager.<DocumentationCheckRegistry>getInstance(DocumentationCheckRegistry.class).invalidate();
+        this.manager.analyse(getLatestDocument());
+
+        assertNull(getLatestDocument().getXObjects(VIOLATION_CLASS_REFERENCE).get(0));
+    }
+
+    @Test
+    void analyzeWhenDocumentIsOutdated() throws Exception
+    {
+        DocumentationCheck check = this.componentManager.registerMockComponent(DocumentationCheck.class, "test");
+        when(check.check(any())).thenReturn(Collections.singletonList(
+            new DocumentationViolation("message", "context", DocumentationViolationSeverity.ERROR)));
+        XWikiDocument outdated = this.document.clone();
+        this.oldcore.getSpyXWiki().saveDocument(this.document, "Newer version", this.oldcore.getXWikiContext());
+
+        this.manager.analyse(outdated);
+
+        // The newer version is analysed by its own save event.
+        verify(check, never()).check(any());
+        assertTrue(getLatestDocument().getXObjects(VIOLATION_CLASS_REFERENCE).isEmpty());
+    }
+
+    @Test
+    void analyzeWhenDocumentIsModifiedDuringTheAnalysis() throws Exception
+    {
+        DocumentationCheck check = this.componentManager.registerMockComponent(DocumentationCheck.class, "test");
+        when(check.check(analysisOf(this.document))).thenAnswer(invocation -> {
+            XWikiDocument newerVersion = getLatestDocument();
+            this.oldcore.getSpyXWiki().saveDocument(newerVersion, "Newer version", this.oldcore.getXWikiContext());
+            return Collections.singletonList(
+                new DocumentationViolation("message", "context", DocumentationViolationSeverity.ERROR));
+        });
+
+        this.manager.analyse(this.document);
+
+        // The violations of the analysed version are not saved on top of the newer version.
+        verify(check).check(analysisOf(this.document));
+        XWikiDocument latest = getLatestDocument();
+        assertEquals("Newer version", latest.getComment());
+        assertTrue(latest.getXObjects(VIOLATION_CLASS_REFERENCE).isEmpty());
+    }
+
+    @Test
+    void saveWhenDocumentIsModifiedBeforeSavingTheViolations() throws Exception
+    {
+        DocumentationViolationStore store =
+            this.componentManager.getInstance(DocumentationViolationStore.class, "xobject");
+        XWikiDocument analysed = this.document.clone();
+        // A user save doesn't wait for the analysis to finish.
+        XWikiDocument newerVersion = getLatestDocument().clone();
+        newerVersion.setContent("newer content");
+        this.oldcore.getSpyXWiki().saveDocument(newerVersion, "Newer version", this.oldcore.getXWikiContext());
+
+        assertFalse(store.save(analysed, Map.of("test", List.of(
+            new DocumentationViolation("message", "context", DocumentationViolationSeverity.ERROR))), "test=a"));
+
+        // The analysed version doesn't overwrite the newer version.
+        XWikiDocument latest = getLatestDocument();
+        assertEquals("Newer version", latest.getComment());
+        assertEquals("newer content", latest.getContent());
+        assertTrue(latest.getXObjects(VIOLATION_CLASS_REFERENCE).isEmpty());
+    }
+
+    @Test
+    void saveAppliesTheViolationsToTheLatestDocument() throws Exception
+    {
+        DocumentationViolationStore store =
+            this.componentManager.getInstance(DocumentationViolationStore.class, "xobject");
+        XWikiDocument analysed = this.document.clone();
+        // Modifications of the analysed instance are never persisted.
+        analysed.setContent("analysed content");
+
+        assertTrue(store.save(analysed, Map.of("test", List.of(
+            new DocumentationViolation("message", "context", DocumentationViolationSeverity.ERROR))), "test=a"));
+
+        XWikiDocument latest = getLatestDocument();
+        assertEquals("", latest.getContent());
+        assertEquals(1, latest.getXObjects(VIOLATION_CLASS_REFERENCE).size());
+    }
+
+    @Test
+    void checkDoesNotStoreViolations() throws Exception
+    {
+        DocumentationCheck check = this.componentManager.registerMockComponent(DocumentationCheck.class, "test");
+        List<DocumentationViolation> violations =
+            List.of(new DocumentationViolation("message", "context", DocumentationViolationSeverity.ERROR));
+        when(check.check(analysisOf(this.document))).thenReturn(violations);
+        String version = this.document.getVersion();
+
+        assertEquals(Map.of("test", violations), this.manager.check(this.document));
+        // A dry run is never skipped.
+        assertEquals(Map.of("test", violations), this.manager.check(this.document));
+
+        verify(check, times(2)).check(analysisOf(this.document));
+        assertTrue(this.document.getXObjects(VIOLATION_CLASS_REFERENCE).isEmpty());
+        assertEquals(version, this.document.getVersion());
+    }
+
     private BaseObject addViolationObject(String messgae, String context, String severity) throws Exception
     {
         BaseObject violationObject = this.document.newXObject(VIOLATION_CLASS_REFERENCE,
@@ -206,4 +473,16 @@ class DefaultDocumentationManagerTest
         this.oldcore.getSpyXWiki().saveDocument(this.document, this.oldcore.getXWikiContext());
         return violationObject;
     }
+
+    private XWikiDocument getLatestDocument() throws Exception
+    {
+        return this.oldcore.getSpyXWiki().getDocument(this.document.getDocumentReference(),
+            this.oldcore.getXWikiContext());
+    }
+
+    private DocumentationAnalysisContext analysisOf(XWikiDocument document)
+    {
+        // The successive analyses get the version saved by the previous analysis, which is a different instance.
+        return argThat(context -> context.getDocument().getDocumentReference().equals(document.getDocumentReference()));
+    }
 }
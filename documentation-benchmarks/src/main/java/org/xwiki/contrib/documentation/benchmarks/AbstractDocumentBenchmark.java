@@ -0,0 +1,122 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+
+/**
+ * Base class for the benchmarks analysing a generated documentation page (see {@link BenchmarkDocuments}), which
+ * are parameterized by the shape of that page. The parameters can be overridden from the command line, e.g.
+ * {@code java -jar benchmarks.jar -p pageSize=200000 -p nestingDepth=10}.
+ * <p>
+ * The content of the page is parsed once before the measurements (the parsed content is cached by the document, as
+ * in a running wiki), so that the benchmarks measure the analysis rather than the wiki syntax parser.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+EnableDynamicAgentLoading")
+public abstract class AbstractDocumentBenchmark
+{
+    /**
+     * The approximate number of characters of the page content.
+     */
+    @Param({ "1000", "50000" })
+    public int pageSize;
+
+    /**
+     * The number of (top level) macro calls in the page content.
+     */
+    @Param({ "10", "100" })
+    public int macroCount;
+
+    /**
+     * The number of nested macros wrapping each macro call, which is also the configured maximum macro depth so that
+     * all the nested bodies are inspected.
+     */
+    @Param({ "1", "5" })
+    public int nestingDepth;
+
+    /**
+     * The number of attachments of the page.
+     */
+    @Param({ "0", "50" })
+    public int attachmentCount;
+
+    protected BenchmarkEnvironment environment;
+
+    protected XWikiDocument document;
+
+    /**
+     * Sets up the mocked XWiki and generates the analysed page.
+     *
+     * @throws Exception if the mocked XWiki cannot be set up
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        this.environment = new BenchmarkEnvironment();
+        this.environment.start(this.nestingDepth);
+
+        this.document =
+            BenchmarkDocuments.createDocument(this.pageSize, this.macroCount, this.nestingDepth, this.attachmentCount);
+        this.document.getXDOM();
+
+        setUpBenchmark();
+    }
+
+    /**
+     * Tears down the mocked XWiki.
+     *
+     * @throws Exception if the mocked XWiki cannot be torn down
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        this.environment.stop();
+    }
+
+    /**
+     * Sets up what is specific to the benchmark, once the mocked XWiki is set up and the page generated.
+     *
+     * @throws Exception if the benchmark cannot be set up
+     */
+    protected abstract void setUpBenchmark() throws Exception;
+}
@@ -0,0 +1,137 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.benchmarks;
+
+import java.util.List;
+
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.rendering.syntax.Syntax;
+
+import com.xpn.xwiki.doc.XWikiAttachment;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+
+/**
+ * Generates the documentation pages analysed by the benchmarks. The generated pages mix content that complies with
+ * the XWiki.org rules and content that doesn't, so that the checks go through both their happy and violation paths.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+public final class BenchmarkDocuments
+{
+    /**
+     * The wiki in which the pages are generated.
+     */
+    public static final String WIKI = "xwiki";
+
+    private static final LocalDocumentReference DOCUMENTATION_CLASS_REFERENCE =
+        new LocalDocumentReference(List.of("DocApp", "Code"), "DocumentationClass");
+
+    private static final String SENTENCE = "Open the administration and select the extension to install in the list. ";
+
+    /**
+     * The macros wrapping the generated macro calls, alternated at each nesting level.
+     */
+    private static final List<String> WRAPPER_MACROS = List.of("info", "warning");
+
+    private static final List<String> LEAF_MACROS = List.of(
+        // Missing alt text
+        "{{image reference=\"screenshot-%1$d.png\"/}}",
+        // Non-kebab image name
+        "{{image reference=\"Screenshot %1$d.png\" alt=\"Screenshot %1$d\"/}}",
+        "{{gallery}}\nimage:step-%1$d.png\nimage:result-%1$d.png\n{{/gallery}}",
+        "{{video attachment=\"demo-%1$d.mp4\"/}}");
+
+    private static final List<String> ATTACHMENT_NAMES =
+        List.of("screenshot-%d.png", "Screenshot_%d.PNG", "demo-%d.mp4", "install-guide-%d.pdf");
+
+    private BenchmarkDocuments()
+    {
+        // Utility class
+    }
+
+    /**
+     * @param pageSize the approximate number of characters of the page content
+     * @param macroCount the number of (top level) macro calls in the page content
+     * @param nestingDepth the number of nested macros wrapping each of these macro calls
+     * @param attachmentCount the number of attachments of the page
+     * @return a new "How-to" documentation page
+     */
+    public static XWikiDocument createDocument(int pageSize, int macroCount, int nestingDepth, int attachmentCount)
+    {
+        XWikiDocument document = new XWikiDocument(
+            new DocumentReference(WIKI, List.of("Documentation", "UserGuide"), "install-the-extension"));
+        document.setSyntax(Syntax.XWIKI_2_1);
+        document.setTitle("Install the extension");
+        document.setContent(createContent(pageSize, macroCount, nestingDepth));
+
+        BaseObject documentationObject = new BaseObject();
+        documentationObject.setXClassReference(DOCUMENTATION_CLASS_REFERENCE);
+        documentationObject.setStringValue("type", "howto");
+        document.addXObject(documentationObject);
+
+        for (int i = 0; i < attachmentCount; i++) {
+            String name = String.format(ATTACHMENT_NAMES.get(i % ATTACHMENT_NAMES.size()), i);
+            document.setAttachment(new XWikiAttachment(document, name));
+        }
+
+        return document;
+    }
+
+    /**
+     * @param pageSize the approximate number of characters of the content
+     * @param macroCount the number of (top level) macro calls in the content
+     * @param nestingDepth the number of nested macros wrapping each of these macro calls
+     * @return the wiki content of a documentation page
+     */
+    public static String createContent(int pageSize, int macroCount, int nestingDepth)
+    {
+        StringBuilder macros = new StringBuilder();
+        for (int i = 0; i < macroCount; i++) {
+            appendMacro(macros, i, nestingDepth);
+        }
+
+        // Spread the text evenly between the macro calls.
+        int paragraphSize = Math.max(SENTENCE.length(), (pageSize - macros.length()) / (macroCount + 1));
+        String paragraph = SENTENCE.repeat(Math.max(1, paragraphSize / SENTENCE.length())).trim();
+
+        StringBuilder content = new StringBuilder("= Install the extension =\n\n");
+        content.append(paragraph).append("\n\n");
+        for (int i = 0; i < macroCount; i++) {
+            appendMacro(content, i, nestingDepth);
+            content.append(paragraph).append("\n\n");
+        }
+        return content.toString();
+    }
+
+    private static void appendMacro(StringBuilder content, int index, int nestingDepth)
+    {
+        for (int depth = 0; depth < nestingDepth; depth++) {
+            content.append("{{").append(WRAPPER_MACROS.get(depth % WRAPPER_MACROS.size())).append("}}\n");
+        }
+        content.append(String.format(LEAF_MACROS.get(index % LEAF_MACROS.size()), index)).append('\n');
+        for (int depth = nestingDepth - 1; depth >= 0; depth--) {
+            content.append("{{/").append(WRAPPER_MACROS.get(depth % WRAPPER_MACROS.size())).append("}}\n");
+        }
+        content.append('\n');
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.benchmarks;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Set;
+
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.configuration.internal.MemoryConfigurationSource;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.macro.Macro;
+import org.xwiki.rendering.macro.MacroId;
+import org.xwiki.rendering.macro.MacroManager;
+import org.xwiki.rendering.macro.descriptor.ContentDescriptor;
+import org.xwiki.rendering.macro.descriptor.MacroDescriptor;
+import org.xwiki.test.annotation.AllComponents;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.classes.BaseClass;
+import com.xpn.xwiki.test.MockitoOldcore;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The mocked XWiki in which the benchmarks run: the same one as the unit tests (i.e. {@link MockitoOldcore} with all
+ * the components found in the classpath), plus the macros used by the generated pages.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@AllComponents
+public class BenchmarkEnvironment
+{
+    /**
+     * The macros whose body contains wiki markup, and which are thus parsed and walked by the XDOM checks.
+     */
+    private static final Set<String> WIKI_CONTENT_MACROS = Set.of("info", "warning", "success", "error", "gallery");
+
+    private static final DocumentReference VIOLATION_CLASS_REFERENCE =
+        new DocumentReference(BenchmarkDocuments.WIKI, List.of("DocApp", "Code"), "DocumentationViolationClass");
+
+    private final MockitoComponentManager componentManager = new MockitoComponentManager();
+
+    private final MockitoOldcore oldcore = new MockitoOldcore(this.componentManager);
+
+    private final MemoryConfigurationSource xwikiProperties = new MemoryConfigurationSource();
+
+    /**
+     * Sets up the mocked XWiki. Must be called before looking up any component.
+     *
+     * @param macroDepth the maximum depth of the nested macro bodies inspected by the XDOM checks
+     * @throws Exception if the mocked XWiki cannot be set up
+     */
+    public void start(int macroDepth) throws Exception
+    {
+        this.componentManager.initializeTest(this);
+        this.oldcore.before(BenchmarkEnvironment.class);
+
+        this.xwikiProperties.setProperty("documentation.checks.macroDepth", macroDepth);
+        this.componentManager.registerComponent(ConfigurationSource.class, "xwikiproperties", this.xwikiProperties);
+
+        registerMacros();
+        registerViolationClass();
+    }
+
+    /**
+     * Tears down the mocked XWiki.
+     *
+     * @throws Exception if the mocked XWiki cannot be torn down
+     */
+    public void stop() throws Exception
+    {
+        this.oldcore.after();
+        this.componentManager.dispose();
+    }
+
+    /**
+     * @return the component manager of the mocked XWiki
+     */
+    public MockitoComponentManager getComponentManager()
+    {
+        return this.componentManager;
+    }
+
+    /**
+     * @return the XWiki context of the mocked XWiki
+     */
+    public XWikiContext getXWikiContext()
+    {
+        return this.oldcore.getXWikiContext();
+    }
+
+    /**
+     * Saves the given document in the mocked XWiki.
+     *
+     * @param document the document to save
+     * @throws Exception if the document cannot be saved
+     */
+    public void save(XWikiDocument document) throws Exception
+    {
+        this.oldcore.getSpyXWiki().saveDocument(document, getXWikiContext());
+    }
+
+    private void registerMacros() throws Exception
+    {
+        MacroManager macroManager = this.componentManager.registerMockComponent(MacroManager.class);
+        Macro<?> wikiContentMacro = mockMacro(Block.LIST_BLOCK_TYPE);
+        Macro<?> otherMacro = mockMacro(String.class);
+        doAnswer(invocation -> WIKI_CONTENT_MACROS.contains(invocation.<MacroId>getArgument(0).getId())
+            ? wikiContentMacro : otherMacro).when(macroManager).getMacro(any(MacroId.class));
+    }
+
+    private Macro<?> mockMacro(Type contentType)
+    {
+        Macro<?> macro = mock(Macro.class);
+        MacroDescriptor descriptor = mock(MacroDescriptor.class);
+        ContentDescriptor contentDescriptor = mock(ContentDescriptor.class);
+        when(contentDescriptor.getType()).thenReturn(contentType);
+        when(descriptor.getContentDescriptor()).thenReturn(contentDescriptor);
+        when(macro.getDescriptor()).thenReturn(descriptor);
+        return macro;
+    }
+
+    private void registerViolationClass() throws Exception
+    {
+        // The violation xclass is needed by the XObject violation store used by the end-to-end analysis.
+        XWikiDocument violationClassDocument = new XWikiDocument(VIOLATION_CLASS_REFERENCE);
+        BaseClass violationClass = new BaseClass();
+        violationClass.addTextField("message", "Message", 100);
+        violationClass.addTextField("context", "Context", 100);
+        violationClass.addStaticListField("severity");
+        violationClass.addTextField("check", "Check", 30);
+        violationClassDocument.setXClass(violationClass);
+        save(violationClassDocument);
+    }
+}
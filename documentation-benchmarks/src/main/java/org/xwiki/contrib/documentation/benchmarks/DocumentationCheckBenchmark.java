@@ -0,0 +1,64 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.benchmarks;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.xwiki.contrib.documentation.DocumentationAnalysisContext;
+import org.xwiki.contrib.documentation.DocumentationCheck;
+import org.xwiki.contrib.documentation.DocumentationException;
+import org.xwiki.contrib.documentation.DocumentationViolation;
+
+/**
+ * Measures each of the XWiki.org documentation checks on its own. Each invocation gets a new analysis context, so that
+ * nothing computed by a previous invocation (e.g. the XDOM walk shared by the XDOM checks) is reused.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+public class DocumentationCheckBenchmark extends AbstractDocumentBenchmark
+{
+    /**
+     * The hint of the measured check.
+     */
+    @Param({ "attachmentName", "faqEntryCount", "galleryMacroAlt", "imageGallery", "imageMacro", "imageMacroAlt",
+        "pageName", "pageTitle", "syntax", "verb", "videoAttachment", "videoMacro" })
+    public String checkHint;
+
+    private DocumentationCheck check;
+
+    @Override
+    protected void setUpBenchmark() throws Exception
+    {
+        this.check = this.environment.getComponentManager().getInstance(DocumentationCheck.class, this.checkHint);
+    }
+
+    /**
+     * @return the violations found by the check, returned so that the analysis isn't optimized away
+     * @throws DocumentationException if the check fails
+     */
+    @Benchmark
+    public List<DocumentationViolation> check() throws DocumentationException
+    {
+        return this.check.check(new DocumentationAnalysisContext(this.document));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.xwiki.contrib.documentation.DocumentationException;
+import org.xwiki.contrib.documentation.DocumentationManager;
+import org.xwiki.contrib.documentation.corpus.CorpusDocuments;
+import org.xwiki.contrib.documentation.corpus.CorpusGenerator;
+import org.xwiki.contrib.documentation.corpus.CorpusPage;
+import org.xwiki.contrib.documentation.corpus.CorpusSettings;
+
+/**
+ * Measures the analysis (without storing the violations) of a whole generated corpus (see {@link CorpusGenerator}),
+ * e.g. {@code java -jar benchmarks.jar DocumentationCorpusBenchmark -p pageCount=100000}. The pages are generated
+ * while being analysed, so that large corpora don't have to be held in memory, and since they are new documents the
+ * measure includes the parsing of their content.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-XX:+EnableDynamicAgentLoading")
+public class DocumentationCorpusBenchmark
+{
+    /**
+     * The default maximum depth of the nested macro bodies inspected by the XDOM checks.
+     */
+    private static final int MACRO_DEPTH = 5;
+
+    /**
+     * The number of pages of the corpus.
+     */
+    @Param({ "1000", "10000" })
+    public int pageCount;
+
+    /**
+     * The seed from which the corpus is generated.
+     */
+    @Param({ "0" })
+    public long seed;
+
+    private BenchmarkEnvironment environment;
+
+    private CorpusGenerator generator;
+
+    private DocumentationManager manager;
+
+    /**
+     * Sets up the mocked XWiki.
+     *
+     * @throws Exception if the mocked XWiki cannot be set up
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        this.environment = new BenchmarkEnvironment();
+        this.environment.start(MACRO_DEPTH);
+        this.manager = this.environment.getComponentManager().getInstance(DocumentationManager.class);
+
+        CorpusSettings settings = new CorpusSettings();
+        settings.setPageCount(this.pageCount);
+        settings.setSeed(this.seed);
+        settings.setWiki(BenchmarkDocuments.WIKI);
+        this.generator = new CorpusGenerator(settings);
+    }
+
+    /**
+     * Tears down the mocked XWiki.
+     *
+     * @throws Exception if the mocked XWiki cannot be torn down
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        this.environment.stop();
+    }
+
+    /**
+     * @param blackhole consumes the violations, so that the analysis isn't optimized away
+     * @throws DocumentationException if a check fails
+     */
+    @Benchmark
+    public void check(Blackhole blackhole) throws DocumentationException
+    {
+        for (CorpusPage page : (Iterable<CorpusPage>) this.generator.generate()::iterator) {
+            blackhole.consume(this.manager.check(CorpusDocuments.toDocument(page)));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.xwiki.contrib.documentation.DocumentationException;
+import org.xwiki.contrib.documentation.DocumentationManager;
+import org.xwiki.contrib.documentation.DocumentationViolation;
+import org.xwiki.index.IndexException;
+
+/**
+ * Measures the analysis of a whole page, running all the checks found in the classpath, either without storing the
+ * violations (dry run) or end-to-end (i.e. including the reconciliation with the stored violations, which are the
+ * same at each invocation once the first one has stored them).
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+public class DocumentationManagerBenchmark extends AbstractDocumentBenchmark
+{
+    private DocumentationManager manager;
+
+    @Override
+    protected void setUpBenchmark() throws Exception
+    {
+        this.environment.save(this.document);
+        this.manager = this.environment.getComponentManager().getInstance(DocumentationManager.class);
+    }
+
+    /**
+     * @return the violations found by the checks, indexed by check hint
+     * @throws DocumentationException if a check fails
+     */
+    @Benchmark
+    public Map<String, List<DocumentationViolation>> check() throws DocumentationException
+    {
+        return this.manager.check(this.document);
+    }
+
+    /**
+     * @throws IndexException if the violations cannot be stored
+     */
+    @Benchmark
+    public void analyse() throws IndexException
+    {
+        this.manager.analyse(this.document, true);
+    }
+}
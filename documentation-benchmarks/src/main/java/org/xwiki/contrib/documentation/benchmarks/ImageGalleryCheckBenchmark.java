@@ -0,0 +1,117 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.contrib.documentation.DocumentationCheck;
+import org.xwiki.contrib.documentation.DocumentationException;
+import org.xwiki.contrib.documentation.DocumentationViolation;
+import org.xwiki.model.reference.DocumentReference;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+
+/**
+ * Measures the detection of adjacent image macros on pages of one megabyte and more, full of image macros that are not
+ * next to each other (the worst case of the backtracking regular expression used previously). The scan being linear,
+ * the average time divided by the page size should be about the same for all the page sizes.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+EnableDynamicAgentLoading")
+public class ImageGalleryCheckBenchmark
+{
+    private static final String LINE = "{{image reference='test.png'}} text\n";
+
+    /**
+     * The number of characters of the page content.
+     */
+    @Param({ "1000000", "2000000", "4000000" })
+    public int pageSize;
+
+    private BenchmarkEnvironment environment;
+
+    private DocumentationCheck check;
+
+    private XWikiDocument document;
+
+    /**
+     * Sets up the mocked XWiki and generates the analysed page.
+     *
+     * @throws Exception if the mocked XWiki cannot be set up
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        this.environment = new BenchmarkEnvironment();
+        this.environment.start(0);
+        this.check = this.environment.getComponentManager().getInstance(DocumentationCheck.class, "imageGallery");
+
+        StringBuilder content = new StringBuilder(this.pageSize + LINE.length());
+        while (content.length() < this.pageSize) {
+            content.append(LINE);
+        }
+        // A single violation, at the very end of the page.
+        content.append("{{image reference='last1.png'}}\n{{image reference='last2.png'}}");
+        this.document = new XWikiDocument(new DocumentReference("xwiki", "Benchmark", "ImageGallery"));
+        this.document.setContent(content.toString());
+    }
+
+    /**
+     * Tears down the mocked XWiki.
+     *
+     * @throws Exception if the mocked XWiki cannot be torn down
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        this.environment.stop();
+    }
+
+    /**
+     * @return the violations found by the check, returned so that the analysis isn't optimized away
+     * @throws DocumentationException if the check fails
+     */
+    @Benchmark
+    public List<DocumentationViolation> check() throws DocumentationException
+    {
+        return this.check.check(this.document);
+    }
+}
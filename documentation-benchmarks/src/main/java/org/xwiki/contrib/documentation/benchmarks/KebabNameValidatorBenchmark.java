@@ -0,0 +1,110 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.contrib.documentation.internal.xwikiorg.KebabNameValidator;
+
+/**
+ * Measures the transformation of page and attachment names to their kebab-case forms. Since the parsed names are
+ * memoized, the names are taken in turn from a set of distinct names: a single name measures the memoized path while
+ * more names than can be memoized measure the parsing itself.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KebabNameValidatorBenchmark
+{
+    private static final String ASCII_NAME = "How to Install the XWiki Extension Manager 17.10 (Tutorial) %d";
+
+    private static final String ACCENTED_NAME = "Créer une Page Éditée avec l'Éditeur WYSIWYG (Référence) %d";
+
+    /**
+     * The number of distinct names, taken in turn.
+     */
+    @Param({ "1", "100000" })
+    public int distinctNames;
+
+    /**
+     * Whether the names contain accented characters, which need to be stripped.
+     */
+    @Param({ "false", "true" })
+    public boolean accented;
+
+    private String[] names;
+
+    private int index;
+
+    /**
+     * Generates the names.
+     */
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        this.names = new String[this.distinctNames];
+        for (int i = 0; i < this.distinctNames; i++) {
+            this.names[i] = String.format(this.accented ? ACCENTED_NAME : ASCII_NAME, i);
+        }
+    }
+
+    /**
+     * @return the kebab-case form of the next name
+     */
+    @Benchmark
+    public String toKebab()
+    {
+        return KebabNameValidator.toKebab(nextName());
+    }
+
+    /**
+     * @return the strict kebab-case form of the next name
+     */
+    @Benchmark
+    public String toKebabStrict()
+    {
+        return KebabNameValidator.toKebabStrict(nextName());
+    }
+
+    private String nextName()
+    {
+        String name = this.names[this.index];
+        this.index = (this.index + 1) % this.names.length;
+        return name;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.corpus;
+
+/**
+ * An attachment of a generated page.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+public class CorpusAttachment
+{
+    private final String filename;
+
+    private final String mimeType;
+
+    private final byte[] content;
+
+    /**
+     * @param filename the name of the attachment
+     * @param mimeType the media type of the attachment
+     * @param content the content of the attachment
+     */
+    public CorpusAttachment(String filename, String mimeType, byte[] content)
+    {
+        this.filename = filename;
+        this.mimeType = mimeType;
+        this.content = content;
+    }
+
+    /**
+     * @return the name of the attachment
+     */
+    public String getFilename()
+    {
+        return this.filename;
+    }
+
+    /**
+     * @return the media type of the attachment
+     */
+    public String getMimeType()
+    {
+        return this.mimeType;
+    }
+
+    /**
+     * @return the content of the attachment
+     */
+    public byte[] getContent()
+    {
+        return this.content;
+    }
+}
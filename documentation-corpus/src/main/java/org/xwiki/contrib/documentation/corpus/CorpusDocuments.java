@@ -0,0 +1,76 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.corpus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import com.xpn.xwiki.doc.XWikiAttachment;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+
+/**
+ * Converts generated pages to in-memory documents, for analysing them without going through a wiki (e.g. in the
+ * benchmarks). Requires the XWiki platform to be available (it's not a dependency of the corpus generator).
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+public final class CorpusDocuments
+{
+    private CorpusDocuments()
+    {
+        // Utility class
+    }
+
+    /**
+     * @param page the generated page
+     * @return a new document holding the generated page
+     */
+    public static XWikiDocument toDocument(CorpusPage page)
+    {
+        XWikiDocument document = new XWikiDocument(page.getReference());
+        document.setSyntaxId(page.getSyntax());
+        document.setTitle(page.getTitle());
+        document.setContent(page.getContent());
+
+        BaseObject documentationObject = new BaseObject();
+        documentationObject.setXClassReference(CorpusGenerator.DOCUMENTATION_CLASS_REFERENCE);
+        documentationObject.setStringValue("type", page.getType());
+        documentationObject.setStringValue("target", page.getTarget());
+        documentationObject.setLargeStringValue("faq", page.getFaq());
+        document.addXObject(documentationObject);
+
+        for (CorpusAttachment corpusAttachment : page.getAttachments()) {
+            XWikiAttachment attachment = new XWikiAttachment(document, corpusAttachment.getFilename());
+            attachment.setMimeType(corpusAttachment.getMimeType());
+            try {
+                attachment.setContent(new ByteArrayInputStream(corpusAttachment.getContent()));
+            } catch (IOException e) {
+                // Not expected when reading from memory.
+                throw new UncheckedIOException(e);
+            }
+            document.setAttachment(attachment);
+        }
+
+        return document;
+    }
+}
@@ -0,0 +1,405 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.corpus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.LocalDocumentReference;
+
+/**
+ * Generates synthetic documentation pages shaped like the DocApp ones: xwiki/2.1 content with sections, paragraphs,
+ * Image and Gallery macros, nested box macros, a FAQ and attachments, in the proportions given by the
+ * {@link CorpusSettings}. Some of the generated elements violate the XWiki.org documentation rules (missing alt text,
+ * raw image syntax, non kebab-case names, verb rules, video formats...), so that the checks report violations too.
+ * <p>
+ * Each page is generated from its own source of randomness, derived from the seed and the index of the page: the
+ * same settings always generate the same pages, and any page can be generated without generating the previous ones,
+ * which allows to stream (or to split) corpora of any size.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+public class CorpusGenerator
+{
+    /**
+     * The How-to documentation type.
+     */
+    public static final String HOWTO = "howto";
+
+    /**
+     * The Tutorial documentation type.
+     */
+    public static final String TUTORIAL = "tutorial";
+
+    /**
+     * The Reference documentation type.
+     */
+    public static final String REFERENCE = "reference";
+
+    /**
+     * The Explanation documentation type.
+     */
+    public static final String EXPLANATION = "explanation";
+
+    /**
+     * All the documentation types.
+     */
+    public static final List<String> TYPES = List.of(HOWTO, TUTORIAL, REFERENCE, EXPLANATION);
+
+    /**
+     * The class of the objects holding the documentation properties of the pages.
+     */
+    public static final LocalDocumentReference DOCUMENTATION_CLASS_REFERENCE =
+        new LocalDocumentReference(List.of("DocApp", "Code"), "DocumentationClass");
+
+    /**
+     * Spreads the seeds of consecutive pages (the golden ratio constant used by {@code SplittableRandom}).
+     */
+    private static final long SEED_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private static final String SYNTAX = "xwiki/2.1";
+
+    private static final String OLD_SYNTAX = "xwiki/2.0";
+
+    private static final List<String> TARGETS = List.of("user", "administrator", "developer");
+
+    private static final List<String> VERBS = List.of("Configure", "Install", "Create", "Upgrade", "Customize",
+        "Export", "Import", "Translate", "Secure", "Monitor");
+
+    private static final List<String> SUBJECTS = List.of("Mail Server", "Wiki Macro", "Search Index", "User Rights",
+        "Page Template", "Extension Manager", "LDAP Authentication", "Skin", "REST API", "Office Importer",
+        "Notifications", "Scheduler Job");
+
+    private static final List<String> NOUN_SUFFIXES =
+        List.of("Settings", "Architecture", "Parameters", "Internals", "Concepts", "Lifecycle");
+
+    private static final List<String> RESERVED_WORDS = List.of("Tutorial", "Reference", "Explanation", "Howto");
+
+    private static final List<String> SECTION_TITLES =
+        List.of("Prerequisites", "Steps", "Configuration", "Troubleshooting", "Details", "Limitations");
+
+    private static final List<String> SENTENCES = List.of(
+        "Open the administration and select the section to modify.",
+        "The changes are taken into account as soon as the page is saved.",
+        "Administrators can restrict this feature to a subset of the users.",
+        "The default values are suitable for most wikis, but large wikis may need to tune them.",
+        "This can also be done programmatically, using the scripting API.",
+        "Keep in mind that the operation cannot be undone once it has started.");
+
+    private static final List<String> BOX_MACROS = List.of("info", "warning", "success", "error");
+
+    private static final int SECTION_LENGTH = 5;
+
+    private static final int MAX_SENTENCES = 4;
+
+    private static final double VIDEO_RATE = 0.1;
+
+    private static final int ATTACHMENT_SIZE = 256;
+
+    private static final String PNG = "png";
+
+    private static final String JPG = "jpg";
+
+    private static final String WEBM = "webm";
+
+    private static final String IMAGE_MACRO_FORMAT = "{{image reference=\"%s\"%s/}}";
+
+    private static final String PARAGRAPH_SEPARATOR = "\n\n";
+
+    private static final String NEW_LINE = "\n";
+
+    private static final String SPACE = " ";
+
+    private static final String THE = " the ";
+
+    private static final String MACRO_START = "{{";
+
+    private static final String MACRO_END = "}}";
+
+    private final CorpusSettings settings;
+
+    /**
+     * @param settings the shape of the generated corpus
+     */
+    public CorpusGenerator(CorpusSettings settings)
+    {
+        this.settings = settings;
+    }
+
+    /**
+     * @return all the pages of the corpus, generated lazily
+     */
+    public Stream<CorpusPage> generate()
+    {
+        return IntStream.range(0, this.settings.getPageCount()).mapToObj(this::generate);
+    }
+
+    /**
+     * @param index the index of the page in the corpus
+     * @return the page at the given index in the corpus
+     */
+    public CorpusPage generate(int index)
+    {
+        // Random draws similar first values for close seeds, so the seed of the page is scrambled first.
+        Random random =
+            new Random(new SplittableRandom(this.settings.getSeed() * SEED_MULTIPLIER + index).nextLong());
+
+        String type = pickType(random);
+        String title = generateTitle(random, HOWTO.equals(type) || TUTORIAL.equals(type));
+        CorpusPage page = new CorpusPage(
+            new DocumentReference(this.settings.getWiki(), getSpace(index), generateName(random, title, index)));
+        page.setTitle(title);
+        page.setType(type);
+        page.setTarget(pick(random, TARGETS));
+        page.setSyntax(isViolation(random) ? OLD_SYNTAX : SYNTAX);
+
+        generateAttachments(random, page);
+        page.setContent(generateContent(random, page));
+        page.setFaq(generateFAQ(random));
+
+        return page;
+    }
+
+    private List<String> getSpace(int index)
+    {
+        if (this.settings.getPageCount() <= this.settings.getPagesPerSpace()) {
+            return this.settings.getSpace();
+        }
+        List<String> space = new ArrayList<>(this.settings.getSpace());
+        space.add("Part" + index / this.settings.getPagesPerSpace());
+        return space;
+    }
+
+    private String pickType(Random random)
+    {
+        int total = TYPES.stream().mapToInt(this::getTypeWeight).sum();
+        if (total <= 0) {
+            throw new IllegalArgumentException("At least one documentation type must have a positive weight");
+        }
+        int value = random.nextInt(total);
+        for (String type : TYPES) {
+            value -= getTypeWeight(type);
+            if (value < 0) {
+                return type;
+            }
+        }
+        // Not reachable since the value is lower than the total weight.
+        return TYPES.get(0);
+    }
+
+    private int getTypeWeight(String type)
+    {
+        return Math.max(0, this.settings.getTypeWeights().getOrDefault(type, 0));
+    }
+
+    private String generateTitle(Random random, boolean mustStartWithVerb)
+    {
+        String verbTitle = pick(random, VERBS) + THE + pick(random, SUBJECTS);
+        String nounTitle = pick(random, SUBJECTS) + SPACE + pick(random, NOUN_SUFFIXES);
+        if (!isViolation(random)) {
+            return mustStartWithVerb ? verbTitle : nounTitle;
+        } else if (random.nextBoolean()) {
+            // Break the verb rule of the documentation type.
+            return mustStartWithVerb ? nounTitle : verbTitle;
+        } else {
+            return (mustStartWithVerb ? verbTitle : nounTitle) + " (" + pick(random, RESERVED_WORDS) + ")";
+        }
+    }
+
+    private String generateName(Random random, String title, int index)
+    {
+        String[] words = title.replaceAll("[()]", "").split(SPACE);
+        StringBuilder name = new StringBuilder();
+        if (isViolation(random)) {
+            // Camel case instead of kebab case.
+            for (String word : words) {
+                name.append(capitalize(word));
+            }
+            return name.append(index).toString();
+        }
+        for (String word : words) {
+            if (!THE.trim().equals(word)) {
+                name.append(word.toLowerCase(Locale.ROOT)).append('-');
+            }
+        }
+        return name.append(index).toString();
+    }
+
+    private void generateAttachments(Random random, CorpusPage page)
+    {
+        int count = this.settings.getAttachments().sample(random);
+        for (int i = 1; i <= count; i++) {
+            boolean video = random.nextDouble() < VIDEO_RATE;
+            String extension;
+            if (video) {
+                extension = isViolation(random) ? "mp4" : WEBM;
+            } else {
+                extension = random.nextBoolean() ? PNG : JPG;
+            }
+            String stem = video ? "demo" : "screenshot";
+            String filename = isViolation(random) ? String.format("%s_%s.%s", capitalize(stem), i,
+                extension.toUpperCase(Locale.ROOT)) : String.format("%s-%s.%s", stem, i, extension);
+            byte[] content = new byte[ATTACHMENT_SIZE];
+            random.nextBytes(content);
+            page.getAttachments().add(new CorpusAttachment(filename, getMimeType(extension), content));
+        }
+    }
+
+    private String getMimeType(String extension)
+    {
+        switch (extension) {
+            case PNG:
+                return "image/png";
+            case JPG:
+                return "image/jpeg";
+            case WEBM:
+                return "video/webm";
+            default:
+                return "video/mp4";
+        }
+    }
+
+    private String generateContent(Random random, CorpusPage page)
+    {
+        List<String> images = page.getAttachments().stream().map(CorpusAttachment::getFilename)
+            .filter(filename -> filename.toLowerCase(Locale.ROOT).matches(".*\\.(png|jpg)")).toList();
+        List<String> videos = page.getAttachments().stream().map(CorpusAttachment::getFilename)
+            .filter(filename -> !images.contains(filename)).toList();
+
+        List<String> blocks = new ArrayList<>();
+        IntStream.range(0, this.settings.getParagraphs().sample(random))
+            .forEach(i -> blocks.add(generateParagraph(random)));
+        IntStream.range(0, this.settings.getImageMacros().sample(random))
+            .forEach(i -> blocks.add(generateImage(random, pickImage(random, images, i))));
+        IntStream.range(0, this.settings.getGalleries().sample(random))
+            .forEach(i -> blocks.add(generateGallery(random, images)));
+        IntStream.range(0, this.settings.getNestedMacros().sample(random))
+            .forEach(i -> blocks.add(generateNestedMacros(random, this.settings.getNestingDepth().sample(random))));
+        if (!videos.isEmpty() && isViolation(random)) {
+            blocks.add(String.format("{{video attachment=\"%s\"/}}", videos.get(0)));
+        }
+        Collections.shuffle(blocks, random);
+
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < blocks.size(); i++) {
+            if (i % SECTION_LENGTH == 0) {
+                content.append("== ").append(pick(random, SECTION_TITLES)).append(" ==").append(PARAGRAPH_SEPARATOR);
+            }
+            content.append(blocks.get(i)).append(PARAGRAPH_SEPARATOR);
+        }
+        return content.toString();
+    }
+
+    private String generateParagraph(Random random)
+    {
+        StringBuilder paragraph = new StringBuilder();
+        int count = 1 + random.nextInt(MAX_SENTENCES);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                paragraph.append(SPACE);
+            }
+            paragraph.append(pick(random, SENTENCES));
+        }
+        return paragraph.toString();
+    }
+
+    private String pickImage(Random random, List<String> images, int index)
+    {
+        return images.isEmpty() ? String.format("screenshot-%s.png", index + 1) : pick(random, images);
+    }
+
+    private String generateImage(Random random, String image)
+    {
+        if (!isViolation(random)) {
+            return String.format(IMAGE_MACRO_FORMAT, image, generateAlt(image));
+        } else if (random.nextBoolean()) {
+            return String.format(IMAGE_MACRO_FORMAT, image, "");
+        } else {
+            return "[[image:" + image + "]]";
+        }
+    }
+
+    private String generateAlt(String image)
+    {
+        return String.format(" alt=\"%s\"", image.substring(0, image.lastIndexOf('.')).replace('-', ' '));
+    }
+
+    private String generateGallery(Random random, List<String> images)
+    {
+        StringBuilder gallery = new StringBuilder("{{gallery}}").append(NEW_LINE);
+        int count = this.settings.getGalleryImages().sample(random);
+        for (int i = 0; i < count; i++) {
+            String image = pickImage(random, images, i);
+            gallery.append(String.format(IMAGE_MACRO_FORMAT, image, isViolation(random) ? "" : generateAlt(image)))
+                .append(NEW_LINE);
+        }
+        return gallery.append("{{/gallery}}").toString();
+    }
+
+    private String generateNestedMacros(Random random, int depth)
+    {
+        StringBuilder macros = new StringBuilder();
+        for (int level = 0; level < depth; level++) {
+            macros.append(MACRO_START).append(BOX_MACROS.get(level % BOX_MACROS.size())).append(MACRO_END)
+                .append(NEW_LINE);
+        }
+        macros.append(generateParagraph(random)).append(NEW_LINE);
+        for (int level = depth - 1; level >= 0; level--) {
+            macros.append(MACRO_START).append('/').append(BOX_MACROS.get(level % BOX_MACROS.size()))
+                .append(MACRO_END).append(NEW_LINE);
+        }
+        return macros.toString().trim();
+    }
+
+    private String generateFAQ(Random random)
+    {
+        StringBuilder faq = new StringBuilder();
+        int count = this.settings.getFaqEntries().sample(random);
+        for (int i = 0; i < count; i++) {
+            faq.append("=== How to ").append(pick(random, VERBS).toLowerCase(Locale.ROOT)).append(THE)
+                .append(pick(random, SUBJECTS)).append("? ===").append(PARAGRAPH_SEPARATOR)
+                .append(generateParagraph(random)).append(PARAGRAPH_SEPARATOR);
+        }
+        return faq.toString();
+    }
+
+    private boolean isViolation(Random random)
+    {
+        return random.nextDouble() < this.settings.getViolationRate();
+    }
+
+    private static String capitalize(String word)
+    {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private static String pick(Random random, List<String> values)
+    {
+        return values.get(random.nextInt(values.size()));
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.corpus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.xwiki.model.reference.DocumentReference;
+
+/**
+ * A generated documentation page, i.e. a page holding a {@code DocApp.Code.DocumentationClass} object.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+public class CorpusPage
+{
+    private final DocumentReference reference;
+
+    private String title;
+
+    private String syntax;
+
+    private String content;
+
+    private String type;
+
+    private String target;
+
+    private String faq;
+
+    private final List<CorpusAttachment> attachments = new ArrayList<>();
+
+    /**
+     * @param reference the reference of the page
+     */
+    public CorpusPage(DocumentReference reference)
+    {
+        this.reference = reference;
+    }
+
+    /**
+     * @return the reference of the page
+     */
+    public DocumentReference getReference()
+    {
+        return this.reference;
+    }
+
+    /**
+     * @return the title of the page
+     */
+    public String getTitle()
+    {
+        return this.title;
+    }
+
+    /**
+     * @param title the title of the page
+     */
+    public void setTitle(String title)
+    {
+        this.title = title;
+    }
+
+    /**
+     * @return the identifier of the syntax of the page content (e.g. {@code xwiki/2.1})
+     */
+    public String getSyntax()
+    {
+        return this.syntax;
+    }
+
+    /**
+     * @param syntax the identifier of the syntax of the page content
+     */
+    public void setSyntax(String syntax)
+    {
+        this.syntax = syntax;
+    }
+
+    /**
+     * @return the content of the page
+     */
+    public String getContent()
+    {
+        return this.content;
+    }
+
+    /**
+     * @param content the content of the page
+     */
+    public void setContent(String content)
+    {
+        this.content = content;
+    }
+
+    /**
+     * @return the documentation type of the page (i.e. {@code howto}, {@code tutorial}, {@code reference} or
+     *     {@code explanation})
+     */
+    public String getType()
+    {
+        return this.type;
+    }
+
+    /**
+     * @param type the documentation type of the page
+     */
+    public void setType(String type)
+    {
+        this.type = type;
+    }
+
+    /**
+     * @return to whom the page is targeted for (i.e. {@code user}, {@code administrator} or {@code developer})
+     */
+    public String getTarget()
+    {
+        return this.target;
+    }
+
+    /**
+     * @param target to whom the page is targeted for
+     */
+    public void setTarget(String target)
+    {
+        this.target = target;
+    }
+
+    /**
+     * @return the FAQ of the page, empty when the page has no FAQ
+     */
+    public String getFaq()
+    {
+        return this.faq;
+    }
+
+    /**
+     * @param faq the FAQ of the page
+     */
+    public void setFaq(String faq)
+    {
+        this.faq = faq;
+    }
+
+    /**
+     * @return the attachments of the page, which can be modified
+     */
+    public List<CorpusAttachment> getAttachments()
+    {
+        return this.attachments;
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.corpus;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The shape of the generated corpus. The defaults produce pages of a size similar to the XWiki.org documentation, of
+ * all the documentation types in the same proportions, with one rule violated for about one element out of ten.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+public class CorpusSettings
+{
+    private static final int DEFAULT_PAGE_COUNT = 100;
+
+    private static final int DEFAULT_PAGES_PER_SPACE = 1000;
+
+    private static final double DEFAULT_VIOLATION_RATE = 0.1;
+
+    private static final CountDistribution DEFAULT_PARAGRAPHS = new CountDistribution(3, 30);
+
+    private static final CountDistribution DEFAULT_IMAGE_MACROS = new CountDistribution(0, 10);
+
+    private static final CountDistribution DEFAULT_GALLERIES = new CountDistribution(0, 2);
+
+    private static final CountDistribution DEFAULT_GALLERY_IMAGES = new CountDistribution(2, 6);
+
+    private static final CountDistribution DEFAULT_NESTED_MACROS = new CountDistribution(0, 5);
+
+    private static final CountDistribution DEFAULT_NESTING_DEPTH = new CountDistribution(1, 3);
+
+    private static final CountDistribution DEFAULT_FAQ_ENTRIES = new CountDistribution(0, 12);
+
+    private static final CountDistribution DEFAULT_ATTACHMENTS = new CountDistribution(0, 10);
+
+    private long seed;
+
+    private int pageCount = DEFAULT_PAGE_COUNT;
+
+    private String wiki = "xwiki";
+
+    private List<String> space = List.of("Corpus");
+
+    private int pagesPerSpace = DEFAULT_PAGES_PER_SPACE;
+
+    private Map<String, Integer> typeWeights = new LinkedHashMap<>();
+
+    private CountDistribution paragraphs = DEFAULT_PARAGRAPHS;
+
+    private CountDistribution imageMacros = DEFAULT_IMAGE_MACROS;
+
+    private CountDistribution galleries = DEFAULT_GALLERIES;
+
+    private CountDistribution galleryImages = DEFAULT_GALLERY_IMAGES;
+
+    private CountDistribution nestedMacros = DEFAULT_NESTED_MACROS;
+
+    private CountDistribution nestingDepth = DEFAULT_NESTING_DEPTH;
+
+    private CountDistribution faqEntries = DEFAULT_FAQ_ENTRIES;
+
+    private CountDistribution attachments = DEFAULT_ATTACHMENTS;
+
+    private double violationRate = DEFAULT_VIOLATION_RATE;
+
+    /**
+     * Default constructor.
+     */
+    public CorpusSettings()
+    {
+        CorpusGenerator.TYPES.forEach(type -> this.typeWeights.put(type, 1));
+    }
+
+    /**
+     * @return the seed from which the corpus is generated: the same seed and settings always generate the same corpus
+     */
+    public long getSeed()
+    {
+        return this.seed;
+    }
+
+    /**
+     * @param seed the seed from which the corpus is generated
+     */
+    public void setSeed(long seed)
+    {
+        this.seed = seed;
+    }
+
+    /**
+     * @return the number of generated pages
+     */
+    public int getPageCount()
+    {
+        return this.pageCount;
+    }
+
+    /**
+     * @param pageCount the number of generated pages
+     */
+    public void setPageCount(int pageCount)
+    {
+        this.pageCount = pageCount;
+    }
+
+    /**
+     * @return the wiki in which the pages are generated
+     */
+    public String getWiki()
+    {
+        return this.wiki;
+    }
+
+    /**
+     * @param wiki the wiki in which the pages are generated
+     */
+    public void setWiki(String wiki)
+    {
+        this.wiki = wiki;
+    }
+
+    /**
+     * @return the space under which the pages are generated
+     */
+    public List<String> getSpace()
+    {
+        return this.space;
+    }
+
+    /**
+     * @param space the space under which the pages are generated
+     */
+    public void setSpace(List<String> space)
+    {
+        this.space = space;
+    }
+
+    /**
+     * @return the maximum number of pages generated in the same space, so that large corpora are spread over several
+     *     spaces like real documentation
+     */
+    public int getPagesPerSpace()
+    {
+        return this.pagesPerSpace;
+    }
+
+    /**
+     * @param pagesPerSpace the maximum number of pages generated in the same space
+     */
+    public void setPagesPerSpace(int pagesPerSpace)
+    {
+        this.pagesPerSpace = pagesPerSpace;
+    }
+
+    /**
+     * @return the relative weight of each documentation type, indexed by type (i.e. {@code howto}, {@code tutorial},
+     *     {@code reference} or {@code explanation}); the types missing from the map (or with a weight of 0) are not
+     *     generated
+     */
+    public Map<String, Integer> getTypeWeights()
+    {
+        return this.typeWeights;
+    }
+
+    /**
+     * @param typeWeights the relative weight of each documentation type, indexed by type
+     */
+    public void setTypeWeights(Map<String, Integer> typeWeights)
+    {
+        this.typeWeights = typeWeights;
+    }
+
+    /**
+     * @return the distribution of the number of text paragraphs per page
+     */
+    public CountDistribution getParagraphs()
+    {
+        return this.paragraphs;
+    }
+
+    /**
+     * @param paragraphs the distribution of the number of text paragraphs per page
+     */
+    public void setParagraphs(CountDistribution paragraphs)
+    {
+        this.paragraphs = paragraphs;
+    }
+
+    /**
+     * @return the distribution of the number of standalone Image macros per page
+     */
+    public CountDistribution getImageMacros()
+    {
+        return this.imageMacros;
+    }
+
+    /**
+     * @param imageMacros the distribution of the number of standalone Image macros per page
+     */
+    public void setImageMacros(CountDistribution imageMacros)
+    {
+        this.imageMacros = imageMacros;
+    }
+
+    /**
+     * @return the distribution of the number of Gallery macros per page
+     */
+    public CountDistribution getGalleries()
+    {
+        return this.galleries;
+    }
+
+    /**
+     * @param galleries the distribution of the number of Gallery macros per page
+     */
+    public void setGalleries(CountDistribution galleries)
+    {
+        this.galleries = galleries;
+    }
+
+    /**
+     * @return the distribution of the number of images per Gallery macro
+     */
+    public CountDistribution getGalleryImages()
+    {
+        return this.galleryImages;
+    }
+
+    /**
+     * @param galleryImages the distribution of the number of images per Gallery macro
+     */
+    public void setGalleryImages(CountDistribution galleryImages)
+    {
+        this.galleryImages = galleryImages;
+    }
+
+    /**
+     * @return the distribution of the number of (top level) nested wiki macros, i.e. box macros containing other box
+     *     macros, per page
+     */
+    public CountDistribution getNestedMacros()
+    {
+        return this.nestedMacros;
+    }
+
+    /**
+     * @param nestedMacros the distribution of the number of nested wiki macros per page
+     */
+    public void setNestedMacros(CountDistribution nestedMacros)
+    {
+        this.nestedMacros = nestedMacros;
+    }
+
+    /**
+     * @return the distribution of the depth of the nested wiki macros
+     */
+    public CountDistribution getNestingDepth()
+    {
+        return this.nestingDepth;
+    }
+
+    /**
+     * @param nestingDepth the distribution of the depth of the nested wiki macros
+     */
+    public void setNestingDepth(CountDistribution nestingDepth)
+    {
+        this.nestingDepth = nestingDepth;
+    }
+
+    /**
+     * @return the distribution of the number of FAQ entries per page
+     */
+    public CountDistribution getFaqEntries()
+    {
+        return this.faqEntries;
+    }
+
+    /**
+     * @param faqEntries the distribution of the number of FAQ entries per page
+     */
+    public void setFaqEntries(CountDistribution faqEntries)
+    {
+        this.faqEntries = faqEntries;
+    }
+
+    /**
+     * @return the distribution of the number of attachments per page
+     */
+    public CountDistribution getAttachments()
+    {
+        return this.attachments;
+    }
+
+    /**
+     * @param attachments the distribution of the number of attachments per page
+     */
+    public void setAttachments(CountDistribution attachments)
+    {
+        this.attachments = attachments;
+    }
+
+    /**
+     * @return the probability, between 0 and 1, that a generated element (title, page name, image, attachment...)
+     *     violates the XWiki.org documentation rules
+     */
+    public double getViolationRate()
+    {
+        return this.violationRate;
+    }
+
+    /**
+     * @param violationRate the probability that a generated element violates the XWiki.org documentation rules
+     */
+    public void setViolationRate(double violationRate)
+    {
+        this.violationRate = violationRate;
+    }
+}
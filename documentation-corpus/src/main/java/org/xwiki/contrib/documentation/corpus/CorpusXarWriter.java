@@ -0,0 +1,307 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.corpus;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+
+/**
+ * Writes generated pages in a XAR file, which can be imported in a wiki (e.g. from the administration or with the
+ * REST API) to load it with a corpus. The pages are written one by one, so that large corpora don't have to be held
+ * in memory. The package descriptor, which lists all the pages, is thus written last.
+ * <p>
+ * A XAR file can also be generated from the command line: {@code java -cp <classpath>
+ * org.xwiki.contrib.documentation.corpus.CorpusXarWriter <file> <page count> [seed]}.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+public class CorpusXarWriter
+{
+    private static final String ENCODING = StandardCharsets.UTF_8.name();
+
+    private static final String XML_VERSION = "1.1";
+
+    private static final String DOCUMENTATION_CLASS = "DocApp.Code.DocumentationClass";
+
+    private static final String PACKAGE_ENTRY = "package.xml";
+
+    private static final String XAR_VERSION = "1.6";
+
+    private static final String AUTHOR = "xwiki:XWiki.Admin";
+
+    private static final String DOCUMENT_VERSION = XML_VERSION;
+
+    private static final String ZERO = "0";
+
+    private static final String SEPARATOR = ".";
+
+    private static final String PATH_SEPARATOR = "/";
+
+    private static final String ESCAPE = "\\";
+
+    private static final String FALSE = "false";
+
+    private static final String NAME = "name";
+
+    private static final String LANGUAGE = "language";
+
+    private static final String VERSION = "version";
+
+    private static final String AUTHOR_ELEMENT = "author";
+
+    private static final String COMMENT = "comment";
+
+    private static final String CONTENT = "content";
+
+    private static final String PROPERTY = "property";
+
+    private static final int FILE_ARGUMENT = 0;
+
+    private static final int PAGE_COUNT_ARGUMENT = 1;
+
+    private static final int SEED_ARGUMENT = 2;
+
+    private final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+
+    /**
+     * Generates a corpus with the default settings and writes it in a XAR file.
+     *
+     * @param args the path of the XAR file, the number of pages and, optionally, the seed
+     * @throws IOException if the XAR file cannot be written
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length <= PAGE_COUNT_ARGUMENT) {
+            throw new IllegalArgumentException("Usage: CorpusXarWriter <file> <page count> [seed]");
+        }
+        CorpusSettings settings = new CorpusSettings();
+        settings.setPageCount(Integer.parseInt(args[PAGE_COUNT_ARGUMENT]));
+        if (args.length > SEED_ARGUMENT) {
+            settings.setSeed(Long.parseLong(args[SEED_ARGUMENT]));
+        }
+        new CorpusXarWriter().write(new CorpusGenerator(settings).generate(), Path.of(args[FILE_ARGUMENT]));
+    }
+
+    /**
+     * @param pages the pages to write
+     * @param file the XAR file to write (replaced if it exists)
+     * @throws IOException if the XAR file cannot be written
+     */
+    public void write(Stream<CorpusPage> pages, Path file) throws IOException
+    {
+        try (OutputStream output = Files.newOutputStream(file)) {
+            write(pages, output);
+        }
+    }
+
+    /**
+     * @param pages the pages to write
+     * @param output where to write the XAR file, closed once the XAR file is written
+     * @throws IOException if the XAR file cannot be written
+     */
+    public void write(Stream<CorpusPage> pages, OutputStream output) throws IOException
+    {
+        List<String> references = new ArrayList<>();
+        try (ZipOutputStream zip = new ZipOutputStream(output)) {
+            // The XML writers must not close the ZIP stream.
+            OutputStream entryOutput = new FilterOutputStream(zip)
+            {
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException
+                {
+                    this.out.write(bytes, offset, length);
+                }
+
+                @Override
+                public void close()
+                {
+                    // Only the entry is over.
+                }
+            };
+            Iterator<CorpusPage> iterator = pages.iterator();
+            while (iterator.hasNext()) {
+                CorpusPage page = iterator.next();
+                String reference = serialize(page.getReference());
+                zip.putNextEntry(new ZipEntry(getEntryName(page.getReference())));
+                writeDocument(page, reference, entryOutput);
+                zip.closeEntry();
+                references.add(reference);
+            }
+            zip.putNextEntry(new ZipEntry(PACKAGE_ENTRY));
+            writePackage(references, entryOutput);
+            zip.closeEntry();
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to write the XAR file", e);
+        }
+    }
+
+    private void writeDocument(CorpusPage page, String reference, OutputStream output) throws XMLStreamException
+    {
+        XMLStreamWriter writer = this.outputFactory.createXMLStreamWriter(output, ENCODING);
+        writer.writeStartDocument(ENCODING, XML_VERSION);
+        writer.writeStartElement("xwikidoc");
+        writer.writeAttribute(VERSION, XAR_VERSION);
+        writer.writeAttribute("reference", reference);
+        writer.writeAttribute("locale", "");
+
+        writeElement(writer, "web", serializeSpace(page.getReference()));
+        writeElement(writer, NAME, page.getReference().getName());
+        writeElement(writer, LANGUAGE, "");
+        writeElement(writer, "defaultLanguage", "");
+        writeElement(writer, "translation", ZERO);
+        writeElement(writer, "creator", AUTHOR);
+        writeElement(writer, "parent", "");
+        writeElement(writer, AUTHOR_ELEMENT, AUTHOR);
+        writeElement(writer, "contentAuthor", AUTHOR);
+        writeElement(writer, VERSION, DOCUMENT_VERSION);
+        writeElement(writer, "title", page.getTitle());
+        writeElement(writer, COMMENT, "");
+        writeElement(writer, "minorEdit", FALSE);
+        writeElement(writer, "syntaxId", page.getSyntax());
+        writeElement(writer, "hidden", FALSE);
+        writeElement(writer, CONTENT, page.getContent());
+        for (CorpusAttachment attachment : page.getAttachments()) {
+            writeAttachment(writer, attachment);
+        }
+        writeDocumentationObject(writer, page, reference);
+
+        writer.writeEndElement();
+        writer.writeEndDocument();
+        writer.close();
+    }
+
+    private void writeAttachment(XMLStreamWriter writer, CorpusAttachment attachment) throws XMLStreamException
+    {
+        writer.writeStartElement("attachment");
+        writeElement(writer, "filename", attachment.getFilename());
+        writeElement(writer, "mimetype", attachment.getMimeType());
+        writeElement(writer, "filesize", String.valueOf(attachment.getContent().length));
+        writeElement(writer, AUTHOR_ELEMENT, AUTHOR);
+        writeElement(writer, VERSION, DOCUMENT_VERSION);
+        writeElement(writer, COMMENT, "");
+        writeElement(writer, CONTENT, Base64.getEncoder().encodeToString(attachment.getContent()));
+        writer.writeEndElement();
+    }
+
+    private void writeDocumentationObject(XMLStreamWriter writer, CorpusPage page, String reference)
+        throws XMLStreamException
+    {
+        writer.writeStartElement("object");
+        writeElement(writer, NAME, reference);
+        writeElement(writer, "number", ZERO);
+        writeElement(writer, "className", DOCUMENTATION_CLASS);
+        // The object identifier is derived from the page so that the same corpus is always written the same way.
+        writeElement(writer, "guid",
+            UUID.nameUUIDFromBytes(reference.getBytes(StandardCharsets.UTF_8)).toString());
+        writeProperty(writer, "faq", page.getFaq());
+        writeProperty(writer, "target", page.getTarget());
+        writeProperty(writer, "type", page.getType());
+        writer.writeEndElement();
+    }
+
+    private void writeProperty(XMLStreamWriter writer, String name, String value) throws XMLStreamException
+    {
+        writer.writeStartElement(PROPERTY);
+        writeElement(writer, name, value);
+        writer.writeEndElement();
+    }
+
+    private void writePackage(List<String> references, OutputStream output) throws XMLStreamException
+    {
+        XMLStreamWriter writer = this.outputFactory.createXMLStreamWriter(output, ENCODING);
+        writer.writeStartDocument(ENCODING, XML_VERSION);
+        writer.writeStartElement("package");
+        writer.writeStartElement("infos");
+        writeElement(writer, NAME, "Documentation Corpus");
+        writeElement(writer, "description", "Generated documentation pages");
+        writeElement(writer, "licence", "");
+        writeElement(writer, AUTHOR_ELEMENT, AUTHOR);
+        writeElement(writer, VERSION, "");
+        writeElement(writer, "backupPack", FALSE);
+        writeElement(writer, "preserveVersion", FALSE);
+        writer.writeEndElement();
+        writer.writeStartElement("files");
+        for (String reference : references) {
+            writer.writeStartElement("file");
+            writer.writeAttribute("defaultAction", ZERO);
+            writer.writeAttribute(LANGUAGE, "");
+            writer.writeCharacters(reference);
+            writer.writeEndElement();
+        }
+        writer.writeEndElement();
+        writer.writeEndElement();
+        writer.writeEndDocument();
+        writer.close();
+    }
+
+    private void writeElement(XMLStreamWriter writer, String name, String value) throws XMLStreamException
+    {
+        if (value == null || value.isEmpty()) {
+            writer.writeEmptyElement(name);
+        } else {
+            writer.writeStartElement(name);
+            writer.writeCharacters(value);
+            writer.writeEndElement();
+        }
+    }
+
+    private String getEntryName(DocumentReference reference)
+    {
+        return reference.getSpaceReferences().stream().map(EntityReference::getName)
+            .collect(Collectors.joining(PATH_SEPARATOR, "", PATH_SEPARATOR)) + reference.getName() + ".xml";
+    }
+
+    private String serialize(DocumentReference reference)
+    {
+        return serializeSpace(reference) + SEPARATOR + escape(reference.getName());
+    }
+
+    private String serializeSpace(DocumentReference reference)
+    {
+        return reference.getSpaceReferences().stream().map(space -> escape(space.getName()))
+            .collect(Collectors.joining(SEPARATOR));
+    }
+
+    private String escape(String name)
+    {
+        return name.replace(ESCAPE, ESCAPE + ESCAPE).replace(SEPARATOR, ESCAPE + SEPARATOR);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.corpus;
+
+import java.util.Random;
+
+/**
+ * The distribution of the number of elements of a given kind (image macros, attachments, FAQ entries...) in the
+ * generated pages: a number drawn uniformly between a minimum and a maximum, both inclusive.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+public class CountDistribution
+{
+    private final int min;
+
+    private final int max;
+
+    /**
+     * @param min the minimum number of elements in a page
+     * @param max the maximum number of elements in a page
+     */
+    public CountDistribution(int min, int max)
+    {
+        if (min < 0 || max < min) {
+            throw new IllegalArgumentException(String.format("Invalid count distribution [%s, %s]", min, max));
+        }
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * @param count the number of elements in each page
+     * @return a distribution always returning the given number
+     */
+    public static CountDistribution fixed(int count)
+    {
+        return new CountDistribution(count, count);
+    }
+
+    /**
+     * @return the minimum number of elements in a page
+     */
+    public int getMin()
+    {
+        return this.min;
+    }
+
+    /**
+     * @return the maximum number of elements in a page
+     */
+    public int getMax()
+    {
+        return this.max;
+    }
+
+    /**
+     * @param random the source of randomness of the generated page
+     * @return a number of elements
+     */
+    public int sample(Random random)
+    {
+        return this.min + random.nextInt(this.max - this.min + 1);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.corpus;
+
+import org.junit.jupiter.api.Test;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.test.MockitoOldcore;
+import com.xpn.xwiki.test.junit5.mockito.InjectMockitoOldcore;
+import com.xpn.xwiki.test.junit5.mockito.OldcoreTest;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for {@link CorpusDocuments}.
+ *
+ * @version $Id$
+ */
+@OldcoreTest
+class CorpusDocumentsTest
+{
+    @InjectMockitoOldcore
+    private MockitoOldcore oldcore;
+
+    @Test
+    void toDocument() throws Exception
+    {
+        CorpusSettings settings = new CorpusSettings();
+        settings.setAttachments(CountDistribution.fixed(2));
+        settings.setFaqEntries(CountDistribution.fixed(1));
+        CorpusPage page = new CorpusGenerator(settings).generate(0);
+
+        XWikiDocument document = CorpusDocuments.toDocument(page);
+
+        assertEquals(page.getReference(), document.getDocumentReference());
+        assertEquals(page.getTitle(), document.getTitle());
+        assertEquals(page.getContent(), document.getContent());
+        assertEquals(page.getSyntax(), document.getSyntax().toIdString());
+
+        BaseObject documentationObject = document.getXObject(CorpusGenerator.DOCUMENTATION_CLASS_REFERENCE);
+        assertEquals(page.getType(), documentationObject.getStringValue("type"));
+        assertEquals(page.getTarget(), documentationObject.getStringValue("target"));
+        assertEquals(page.getFaq(), documentationObject.getLargeStringValue("faq"));
+
+        assertEquals(2, document.getAttachmentList().size());
+        CorpusAttachment corpusAttachment = page.getAttachments().get(0);
+        assertArrayEquals(corpusAttachment.getContent(), document.getAttachment(corpusAttachment.getFilename())
+            .getContentAsBytes(this.oldcore.getXWikiContext()));
+    }
+}
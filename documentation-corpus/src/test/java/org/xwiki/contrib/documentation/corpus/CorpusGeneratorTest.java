@@ -0,0 +1,160 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.corpus;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link CorpusGenerator}.
+ *
+ * @version $Id$
+ */
+class CorpusGeneratorTest
+{
+    @Test
+    void generateIsReproducible()
+    {
+        CorpusSettings settings = new CorpusSettings();
+        settings.setSeed(42);
+
+        CorpusPage page = new CorpusGenerator(settings).generate(7);
+        CorpusPage samePage = new CorpusGenerator(settings).generate().skip(7).findFirst().get();
+
+        assertEquals(page.getReference(), samePage.getReference());
+        assertEquals(page.getTitle(), samePage.getTitle());
+        assertEquals(page.getContent(), samePage.getContent());
+        assertEquals(page.getFaq(), samePage.getFaq());
+        assertEquals(page.getAttachments().size(), samePage.getAttachments().size());
+
+        settings.setSeed(43);
+        assertNotEquals(page.getContent(), new CorpusGenerator(settings).generate(7).getContent());
+    }
+
+    @Test
+    void generateAllTypes()
+    {
+        CorpusSettings settings = new CorpusSettings();
+
+        Set<String> types =
+            new CorpusGenerator(settings).generate().map(CorpusPage::getType).collect(Collectors.toSet());
+
+        assertEquals(Set.copyOf(CorpusGenerator.TYPES), types);
+    }
+
+    @Test
+    void generateWithTypeWeights()
+    {
+        CorpusSettings settings = new CorpusSettings();
+        settings.setTypeWeights(Map.of(CorpusGenerator.REFERENCE, 1));
+
+        assertTrue(new CorpusGenerator(settings).generate().map(CorpusPage::getType)
+            .allMatch(CorpusGenerator.REFERENCE::equals));
+
+        settings.setTypeWeights(Map.of());
+        CorpusGenerator generator = new CorpusGenerator(settings);
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(0));
+    }
+
+    @Test
+    void generateWithDistributions()
+    {
+        CorpusSettings settings = new CorpusSettings();
+        settings.setParagraphs(CountDistribution.fixed(0));
+        settings.setImageMacros(CountDistribution.fixed(2));
+        settings.setGalleries(CountDistribution.fixed(1));
+        settings.setGalleryImages(CountDistribution.fixed(3));
+        settings.setNestedMacros(CountDistribution.fixed(1));
+        settings.setNestingDepth(CountDistribution.fixed(4));
+        settings.setFaqEntries(CountDistribution.fixed(5));
+        settings.setAttachments(CountDistribution.fixed(6));
+        settings.setViolationRate(0);
+
+        CorpusPage page = new CorpusGenerator(settings).generate(0);
+
+        assertEquals(5, countOccurrences(page.getContent(), "{{image "));
+        assertEquals(1, countOccurrences(page.getContent(), "{{gallery}}"));
+        assertEquals(1, countOccurrences(page.getContent(), "{{info}}"));
+        assertEquals(1, countOccurrences(page.getContent(), "{{error}}"));
+        assertEquals(0, countOccurrences(page.getContent(), "[[image:"));
+        assertEquals(5, countOccurrences(page.getFaq(), "=== How to "));
+        assertEquals(6, page.getAttachments().size());
+        assertEquals("xwiki/2.1", page.getSyntax());
+    }
+
+    @Test
+    void generateWithoutViolations()
+    {
+        CorpusSettings settings = new CorpusSettings();
+        settings.setViolationRate(0);
+
+        new CorpusGenerator(settings).generate().forEach(page -> {
+            assertTrue(page.getReference().getName().matches("[a-z0-9]+(-[a-z0-9]+)*"),
+                page.getReference().getName());
+            assertFalse(page.getContent().contains("alt=\"\""));
+            assertTrue(page.getAttachments().stream()
+                .allMatch(attachment -> attachment.getFilename().matches("[a-z]+-\\d+\\.(png|jpg|webm)")));
+            String firstWord = page.getTitle().split(" ")[0];
+            boolean startsWithVerb = List.of("Configure", "Install", "Create", "Upgrade", "Customize", "Export",
+                "Import", "Translate", "Secure", "Monitor").contains(firstWord);
+            boolean verbType =
+                CorpusGenerator.HOWTO.equals(page.getType()) || CorpusGenerator.TUTORIAL.equals(page.getType());
+            assertEquals(verbType, startsWithVerb, page.getTitle());
+        });
+    }
+
+    @Test
+    void generateInSeveralSpaces()
+    {
+        CorpusSettings settings = new CorpusSettings();
+        settings.setPageCount(25);
+        settings.setPagesPerSpace(10);
+
+        CorpusGenerator generator = new CorpusGenerator(settings);
+
+        assertEquals(List.of("Corpus", "Part0"), spaces(generator.generate(9)));
+        assertEquals(List.of("Corpus", "Part1"), spaces(generator.generate(10)));
+        assertEquals(List.of("Corpus", "Part2"), spaces(generator.generate(24)));
+
+        settings.setPagesPerSpace(25);
+        assertEquals(List.of("Corpus"), spaces(generator.generate(24)));
+    }
+
+    private List<String> spaces(CorpusPage page)
+    {
+        return page.getReference().getSpaceReferences().stream().map(space -> space.getName()).toList();
+    }
+
+    private int countOccurrences(String text, String value)
+    {
+        return text.split(Pattern.quote(value), -1).length - 1;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.corpus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link CorpusXarWriter}.
+ *
+ * @version $Id$
+ */
+class CorpusXarWriterTest
+{
+    @Test
+    void write() throws Exception
+    {
+        CorpusSettings settings = new CorpusSettings();
+        settings.setPageCount(3);
+        settings.setAttachments(CountDistribution.fixed(1));
+        settings.setFaqEntries(CountDistribution.fixed(1));
+        List<CorpusPage> pages = new CorpusGenerator(settings).generate().toList();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new CorpusXarWriter().write(pages.stream(), output);
+
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+
+        assertEquals(4, entries.size());
+        String packageXML = entries.get("package.xml");
+        for (CorpusPage page : pages) {
+            String name = page.getReference().getName();
+            String reference = "Corpus." + name;
+            assertTrue(packageXML.contains(">" + reference + "</file>"), packageXML);
+
+            String document = entries.get("Corpus/" + name + ".xml");
+            assertTrue(document.contains("reference=\"" + reference + "\""), document);
+            assertTrue(document.contains("<title>" + page.getTitle() + "</title>"), document);
+            assertTrue(document.contains("<className>DocApp.Code.DocumentationClass</className>"), document);
+            assertTrue(document.contains("<type>" + page.getType() + "</type>"), document);
+            assertTrue(document.contains("<filename>" + page.getAttachments().get(0).getFilename() + "</filename>"),
+                document);
+        }
+    }
+}
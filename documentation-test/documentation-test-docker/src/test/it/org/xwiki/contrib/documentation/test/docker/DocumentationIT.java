@@ -20,6 +20,7 @@
 package org.xwiki.contrib.documentation.test.docker;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.MethodOrderer;
@@ -141,8 +142,7 @@ class DocumentationIT
     @Order(3)
     void surfacesWarningViolationInBoxAndTab(TestUtils setup)
     {
-        setup.gotoPage(SPACE, VIOLATION_PAGE);
-        DocumentationViewPage viewPage = new DocumentationViewPage();
+        DocumentationViewPage viewPage = gotoAnalysedPage(setup, DocumentationViewPage::hasWarningValidationBox);
 
         assertTrue(viewPage.hasWarningValidationBox(), "Expected the on-page warning validation box to be displayed");
         assertFalse(viewPage.hasErrorValidationBox(), "No error box expected for an alt-only warning");
@@ -161,8 +161,7 @@ class DocumentationIT
         editPage.setContent("image:foo.png");
         editPage.clickSaveAndView();
 
-        setup.gotoPage(SPACE, VIOLATION_PAGE);
-        DocumentationViewPage viewPage = new DocumentationViewPage();
+        DocumentationViewPage viewPage = gotoAnalysedPage(setup, DocumentationViewPage::hasErrorValidationBox);
         assertTrue(viewPage.hasErrorValidationBox(), "Expected the on-page error validation box to be displayed");
 
         viewPage.openDocumentationTab();
@@ -179,8 +178,8 @@ class DocumentationIT
         editPage.setContent("{{image reference=\"foo.png\" alt=\"A foo\"/}}");
         editPage.clickSaveAndView();
 
-        setup.gotoPage(SPACE, VIOLATION_PAGE);
-        DocumentationViewPage viewPage = new DocumentationViewPage();
+        DocumentationViewPage viewPage = gotoAnalysedPage(setup,
+            page -> !page.hasWarningValidationBox() && !page.hasErrorValidationBox());
         assertFalse(viewPage.hasWarningValidationBox(), "The warning box should be gone once the content is fixed");
         assertFalse(viewPage.hasErrorValidationBox(), "No validation box should remain once the content is fixed");
     }
@@ -252,6 +251,19 @@ class DocumentationIT
             "Missing the Related content next to the UIXP object in:\n" + content);
     }
 
+    /**
+     * Documentation pages are analysed in the background after they're saved, so reload the violation-scenario page
+     * until the analysis results expected by the test are displayed.
+     */
+    private static DocumentationViewPage gotoAnalysedPage(TestUtils setup, Predicate<DocumentationViewPage> analysed)
+    {
+        setup.getDriver().waitUntilCondition(driver -> {
+            setup.gotoPage(SPACE, VIOLATION_PAGE);
+            return analysed.test(new DocumentationViewPage());
+        });
+        return new DocumentationViewPage();
+    }
+
     private static void createChild(TestUtils setup, String name, String title, String type)
     {
         List<String> childSpace = List.of(SPACE, "guide", name);
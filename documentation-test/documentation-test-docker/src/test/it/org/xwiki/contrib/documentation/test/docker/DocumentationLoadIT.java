@@ -0,0 +1,212 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.test.docker;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.xwiki.contrib.documentation.corpus.CorpusGenerator;
+import org.xwiki.contrib.documentation.corpus.CorpusPage;
+import org.xwiki.contrib.documentation.corpus.CorpusSettings;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.test.docker.junit5.UITest;
+import org.xwiki.test.ui.TestUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Load scenario measuring what the documentation analysis costs to the saves of documentation pages: many concurrent
+ * saves of generated documentation pages (see {@link CorpusGenerator}) are performed through the REST API, first with
+ * the analysis listener enabled, then with it disabled, and their latency percentiles and throughput are written in a
+ * JSON report ({@code target/documentation-load-report.json} by default).
+ * <p>
+ * This scenario is slow and its results are only meaningful on a quiet machine, so it only runs when the
+ * {@code load-tests} profile is enabled, e.g. {@code mvn verify -Pintegration-tests,docker,load-tests}. The size of
+ * the scenario can be tuned with the {@code documentation.loadTest.pages}, {@code documentation.loadTest.saves} and
+ * {@code documentation.loadTest.concurrency} system properties. The scenario fails if the analyses triggered by its
+ * saves don't complete within {@code documentation.loadTest.analysesTimeout} seconds (10 minutes by default).
+ *
+ * @version $Id$
+ */
+@UITest
+@EnabledIfSystemProperty(named = "documentation.loadTest", matches = "true")
+class DocumentationLoadIT
+{
+    private static final String SPACE = "DocumentationLoadIT";
+
+    private static final String TOGGLE_PAGE = "ToggleListener";
+
+    private static final String LISTENER_ENABLED = "listenerEnabled=";
+
+    /**
+     * Enables or disables the analysis listener depending on the {@code enabled} request parameter, by (un)registering
+     * it from the observation manager, which is closer to not having the listener at all than any configuration.
+     */
+    private static final String TOGGLE_SCRIPT = String.join("\n",
+        "{{groovy}}",
+        "def componentManager = services.component.componentManager",
+        "def observationManager = componentManager.getInstance(org.xwiki.observation.ObservationManager)",
+        "def name = 'DocumentationEventListener'",
+        "if (request.enabled == 'true') {",
+        "  if (observationManager.getListener(name) == null) {",
+        "    observationManager.addListener(componentManager.getInstance(org.xwiki.observation.EventListener, name))",
+        "  }",
+        "} else {",
+        "  observationManager.removeListener(name)",
+        "}",
+        "println \"" + LISTENER_ENABLED + "${observationManager.getListener(name) != null}\"",
+        "{{/groovy}}");
+
+    private static final int PAGES = Integer.getInteger("documentation.loadTest.pages", 50);
+
+    private static final int SAVES = Integer.getInteger("documentation.loadTest.saves", 500);
+
+    private static final int CONCURRENCY = Integer.getInteger("documentation.loadTest.concurrency", 8);
+
+    private static final Duration ANALYSES_TIMEOUT =
+        Duration.ofSeconds(Long.getLong("documentation.loadTest.analysesTimeout", 600));
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static final Path REPORT = Path.of(System.getProperty("documentation.loadTest.report",
+        "target/documentation-load-report.json"));
+
+    private static CorpusGenerator generator;
+
+    private static List<DocumentReference> references;
+
+    private static SaveLoadRunner runner;
+
+    @BeforeAll
+    static void setUp(TestUtils setup) throws Exception
+    {
+        setup.loginAsSuperAdmin();
+        setup.createPage(SPACE, TOGGLE_PAGE, TOGGLE_SCRIPT, "Toggle the documentation analysis listener");
+
+        runner = new SaveLoadRunner(setup.getBaseBindingURL(), TestUtils.SUPER_ADMIN_CREDENTIALS.getUserName(),
+            TestUtils.SUPER_ADMIN_CREDENTIALS.getPassword());
+
+        // The pages saved by the scenario are the first ones of the corpus, and their new contents are taken from the
+        // following pages of the same corpus.
+        CorpusSettings settings = new CorpusSettings();
+        settings.setSpace(List.of(SPACE));
+        settings.setPageCount(PAGES + SAVES);
+        settings.setPagesPerSpace(PAGES + SAVES);
+        generator = new CorpusGenerator(settings);
+
+        List<CorpusPage> pages = generator.generate().limit(PAGES).toList();
+        for (CorpusPage page : pages) {
+            runner.createPage(page);
+        }
+        references = pages.stream().map(CorpusPage::getReference).toList();
+    }
+
+    @Test
+    void measureSaveLatency() throws Exception
+    {
+        // Warm up the wiki (caches, JIT) so that the first measured scenario isn't penalized.
+        runner.run("warmup", PAGES, CONCURRENCY, references, this::getContent);
+        waitForAnalyses();
+
+        SaveLoadResult enabled = runner.run("listenerEnabled", SAVES, CONCURRENCY, references, this::getContent);
+        waitForAnalyses();
+
+        assertEquals(LISTENER_ENABLED + false, toggleListener(false));
+        SaveLoadResult disabled;
+        try {
+            disabled = runner.run("listenerDisabled", SAVES, CONCURRENCY, references, this::getContent);
+        } finally {
+            assertEquals(LISTENER_ENABLED + true, toggleListener(true));
+        }
+
+        writeReport(enabled, disabled);
+
+        assertEquals(0, enabled.getErrors(), "Some saves failed with the listener enabled");
+        assertEquals(0, disabled.getErrors(), "Some saves failed with the listener disabled");
+        assertTrue(Files.exists(REPORT));
+    }
+
+    private CorpusPage getContent(int save)
+    {
+        return generator.generate(PAGES + save % SAVES);
+    }
+
+    private String toggleListener(boolean enabled) throws Exception
+    {
+        return runner.getPlain(SPACE + '/' + TOGGLE_PAGE, "enabled=" + enabled);
+    }
+
+    /**
+     * Wait for the background analyses triggered by a scenario, so that they don't slow down the next one.
+     */
+    private void waitForAnalyses() throws Exception
+    {
+        long deadline = System.nanoTime() + ANALYSES_TIMEOUT.toNanos();
+        for (DocumentReference reference : references) {
+            while (isAnalysing(reference)) {
+                if (System.nanoTime() - deadline >= 0) {
+                    fail(String.format("The analysis of [%s] didn't complete within %s", reference,
+                        ANALYSES_TIMEOUT));
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    private boolean isAnalysing(DocumentReference reference) throws Exception
+    {
+        String status = runner.getPlain("DocApp/Code/DocumentationAnalysisStatus",
+            "reference=" + SPACE + '.' + reference.getName());
+        JsonNode analysing = JSON.readTree(status).get("analysing");
+        if (analysing == null || !analysing.isBoolean()) {
+            fail(String.format("Unexpected analysis status for [%s]: %s", reference, status));
+        }
+        return analysing.booleanValue();
+    }
+
+    private void writeReport(SaveLoadResult enabled, SaveLoadResult disabled) throws Exception
+    {
+        String report = String.format(Locale.ROOT,
+            "{%n  \"pages\": %d,%n  \"saves\": %d,%n  \"concurrency\": %d,%n  \"scenarios\": [%n    %s,%n    %s%n  ],%n"
+                + "  \"overhead\": {\"p50Ms\": %.1f, \"p95Ms\": %.1f, \"p99Ms\": %.1f, \"throughputRatio\": %.3f}%n}%n",
+            PAGES, SAVES, CONCURRENCY, enabled.toJSON(), disabled.toJSON(),
+            enabled.getPercentile(50) - disabled.getPercentile(50),
+            enabled.getPercentile(95) - disabled.getPercentile(95),
+            enabled.getPercentile(99) - disabled.getPercentile(99),
+            disabled.getThroughput() > 0 ? enabled.getThroughput() / disabled.getThroughput() : 0);
+        Path parent = REPORT.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(REPORT, report, StandardCharsets.UTF_8);
+    }
+}
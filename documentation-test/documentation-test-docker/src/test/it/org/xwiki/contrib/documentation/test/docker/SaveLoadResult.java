@@ -0,0 +1,106 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.test.docker;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The latencies of the saves performed by a load scenario, and the statistics computed from them.
+ *
+ * @version $Id$
+ */
+class SaveLoadResult
+{
+    private static final double NANOS_PER_MILLI = 1_000_000D;
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000D;
+
+    private final String name;
+
+    private final long[] latencies;
+
+    private final int errors;
+
+    private final long duration;
+
+    /**
+     * @param name the name of the scenario
+     * @param latencies the latencies of the successful saves, in nanoseconds
+     * @param errors the number of failed saves
+     * @param duration the duration of the whole scenario, in nanoseconds
+     */
+    SaveLoadResult(String name, long[] latencies, int errors, long duration)
+    {
+        this.name = name;
+        this.latencies = latencies.clone();
+        Arrays.sort(this.latencies);
+        this.errors = errors;
+        this.duration = duration;
+    }
+
+    String getName()
+    {
+        return this.name;
+    }
+
+    int getSaves()
+    {
+        return this.latencies.length;
+    }
+
+    int getErrors()
+    {
+        return this.errors;
+    }
+
+    /**
+     * @param percentile the percentile, between 0 (excluded) and 100
+     * @return the latency below which the given percentage of the saves are, in milliseconds (nearest-rank method)
+     */
+    double getPercentile(double percentile)
+    {
+        if (this.latencies.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * this.latencies.length);
+        return this.latencies[Math.max(0, rank - 1)] / NANOS_PER_MILLI;
+    }
+
+    /**
+     * @return the number of successful saves per second
+     */
+    double getThroughput()
+    {
+        return this.duration > 0 ? this.latencies.length * NANOS_PER_SECOND / this.duration : 0;
+    }
+
+    /**
+     * @return the statistics as a JSON object
+     */
+    String toJSON()
+    {
+        return String.format(Locale.ROOT,
+            "{\"name\": \"%s\", \"saves\": %d, \"errors\": %d, \"durationMs\": %.1f, \"throughput\": %.2f, "
+                + "\"p50Ms\": %.1f, \"p95Ms\": %.1f, \"p99Ms\": %.1f, \"maxMs\": %.1f}",
+            this.name, getSaves(), this.errors, this.duration / NANOS_PER_MILLI, getThroughput(), getPercentile(50),
+            getPercentile(95), getPercentile(99), getPercentile(100));
+    }
+}
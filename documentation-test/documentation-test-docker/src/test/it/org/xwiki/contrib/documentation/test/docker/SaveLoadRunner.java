@@ -0,0 +1,199 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.test.docker;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+import org.xwiki.contrib.documentation.corpus.CorpusPage;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+
+/**
+ * Saves documentation pages through the REST API, optionally from several threads at once, and measures how long
+ * each save takes. It uses its own HTTP client (rather than {@code TestUtils}, which isn't meant to be used
+ * concurrently) authenticated with HTTP basic authentication.
+ *
+ * @version $Id$
+ */
+class SaveLoadRunner
+{
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    private static final String CONTENT_TYPE = "Content-Type";
+
+    private static final String AUTHORIZATION = "Authorization";
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+
+    private final String baseURL;
+
+    private final String authorization;
+
+    /**
+     * @param baseURL the URL of the wiki, as seen from the tests (e.g. {@code http://localhost:8080/xwiki/})
+     * @param user the user performing the saves
+     * @param password the password of the user
+     */
+    SaveLoadRunner(String baseURL, String user, String password)
+    {
+        this.baseURL = baseURL.endsWith("/") ? baseURL : baseURL + '/';
+        this.authorization = "Basic "
+            + Base64.getEncoder().encodeToString((user + ':' + password).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates (or overwrites) the given page, with its documentation object.
+     *
+     * @param page the page to create
+     * @throws Exception if the page cannot be created
+     */
+    void createPage(CorpusPage page) throws Exception
+    {
+        savePage(page.getReference(), page);
+
+        String form = String.format("className=%s&property%%23type=%s&property%%23target=%s&property%%23faq=%s",
+            encode("DocApp.Code.DocumentationClass"), encode(page.getType()), encode(page.getTarget()),
+            encode(page.getFaq()));
+        HttpRequest request = newRequest(getPageURL(page.getReference()) + "/objects")
+            .header(CONTENT_TYPE, "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString(form)).build();
+        check(this.client.send(request, HttpResponse.BodyHandlers.ofString()), "add the documentation object to");
+    }
+
+    /**
+     * Performs the given number of saves, from the given number of threads.
+     *
+     * @param name the name of the scenario
+     * @param saves the number of saves to perform
+     * @param concurrency the number of threads saving pages at the same time
+     * @param references the pages to save, taken in turn
+     * @param contents the new content of each save, indexed by save number
+     * @return the latencies of the saves
+     * @throws Exception if the saves cannot be performed
+     */
+    SaveLoadResult run(String name, int saves, int concurrency, List<DocumentReference> references,
+        IntFunction<CorpusPage> contents) throws Exception
+    {
+        long[] latencies = new long[saves];
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>(saves);
+            for (int i = 0; i < saves; i++) {
+                int save = i;
+                futures.add(executor.submit(() -> {
+                    long saveStart = System.nanoTime();
+                    try {
+                        savePage(references.get(save % references.size()), contents.apply(save));
+                        latencies[successes.getAndIncrement()] = System.nanoTime() - saveStart;
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        long duration = System.nanoTime() - start;
+
+        long[] successfulLatencies = new long[successes.get()];
+        System.arraycopy(latencies, 0, successfulLatencies, 0, successfulLatencies.length);
+        return new SaveLoadResult(name, successfulLatencies, errors.get(), duration);
+    }
+
+    /**
+     * @param page the path of the page (e.g. {@code Space/Page})
+     * @param parameters the query string
+     * @return the plain text output of the page
+     * @throws Exception if the page cannot be rendered
+     */
+    String getPlain(String page, String parameters) throws Exception
+    {
+        HttpRequest request = newRequest(String.format("%sbin/get/%s?outputSyntax=plain&%s", this.baseURL, page,
+            parameters)).GET().build();
+        HttpResponse<String> response = this.client.send(request, HttpResponse.BodyHandlers.ofString());
+        check(response, "render");
+        return response.body().trim();
+    }
+
+    private void savePage(DocumentReference reference, CorpusPage page) throws Exception
+    {
+        String xml = String.format("<page xmlns=\"http://www.xwiki.org\"><title>%s</title><syntax>%s</syntax>"
+            + "<content>%s</content></page>", escape(page.getTitle()), escape(page.getSyntax()),
+            escape(page.getContent()));
+        HttpRequest request = newRequest(getPageURL(reference)).header(CONTENT_TYPE, "application/xml")
+            .PUT(HttpRequest.BodyPublishers.ofString(xml, StandardCharsets.UTF_8)).build();
+        check(this.client.send(request, HttpResponse.BodyHandlers.ofString()), "save");
+    }
+
+    private HttpRequest.Builder newRequest(String url)
+    {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(TIMEOUT).header(AUTHORIZATION, this.authorization);
+    }
+
+    private String getPageURL(DocumentReference reference)
+    {
+        return String.format("%srest/wikis/%s/%s/pages/%s", this.baseURL, encode(reference.getWikiReference()
+            .getName()), reference.getSpaceReferences().stream().map(EntityReference::getName)
+                .map(space -> "spaces/" + encode(space)).collect(Collectors.joining("/")),
+            encode(reference.getName()));
+    }
+
+    private void check(HttpResponse<String> response, String action) throws IOException
+    {
+        if (response.statusCode() >= 300) {
+            throw new IOException(String.format("Failed to %s [%s]: %s %s", action, response.request().uri(),
+                response.statusCode(), response.body()));
+        }
+    }
+
+    private static String encode(String value)
+    {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private static String escape(String value)
+    {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
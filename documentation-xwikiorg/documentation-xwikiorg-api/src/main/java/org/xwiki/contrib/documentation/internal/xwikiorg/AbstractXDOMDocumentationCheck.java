@@ -19,74 +19,184 @@
  */
 package org.xwiki.contrib.documentation.internal.xwikiorg;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Consumer;
+import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Inject;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
+import org.xwiki.contrib.documentation.AbstractDocumentationCheck;
+import org.xwiki.contrib.documentation.DocumentationAnalysisContext;
+import org.xwiki.contrib.documentation.DocumentationConfiguration;
 import org.xwiki.contrib.documentation.DocumentationCheck;
+import org.xwiki.contrib.documentation.DocumentationViolation;
 import org.xwiki.model.reference.LocalDocumentReference;
 import org.xwiki.rendering.block.Block;
-import org.xwiki.rendering.block.MacroBlock;
 import org.xwiki.rendering.block.XDOM;
-import org.xwiki.rendering.block.match.ClassBlockMatcher;
 import org.xwiki.rendering.macro.MacroContentParser;
 import org.xwiki.rendering.macro.MacroExecutionException;
-import org.xwiki.rendering.macro.MacroId;
-import org.xwiki.rendering.macro.MacroLookupException;
-import org.xwiki.rendering.macro.MacroManager;
-import org.xwiki.rendering.macro.descriptor.ContentDescriptor;
+import org.xwiki.rendering.syntax.Syntax;
 import org.xwiki.rendering.transformation.MacroTransformationContext;
 import org.xwiki.rendering.transformation.TransformationContext;
 
-import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
 
 /**
  * Base class for XWiki.org documentation checks that operate on parsed XDOM content, including macro bodies and the
  * FAQ property of the DocumentationClass XObject.
+ * <p>
+ * Checks declare the block types they're interested in ({@link #getVisitedBlockTypes()}) and the scopes they visit
+ * ({@link #isVisited(XDOMScope)}), and are called back for each matching block ({@link #visit}). The content is walked
+ * only once per analysis for all the XDOM checks of the analysis, when the checks are
+ * {@link #prepare(DocumentationAnalysisContext) prepared} (i.e. within the time budget of the analysis rather than the
+ * one of a check), and the parsed FAQ and macro bodies are memoized in the {@link DocumentationAnalysisContext}.
  *
  * @version $Id$
  * @since 1.13
  */
-public abstract class AbstractXDOMDocumentationCheck implements DocumentationCheck
+public abstract class AbstractXDOMDocumentationCheck extends AbstractDocumentationCheck
 {
     protected static final String ROOT_ERROR_CAUSE = "Root error cause: [{}]";
 
     protected static final LocalDocumentReference DOCUMENTATION_CLASS_REFERENCE =
         new LocalDocumentReference(List.of("DocApp", "Code"), "DocumentationClass");
 
+    private static final String XDOM_WALK_KEY = "xwikiorg.xdomWalk";
+
+    private static final String MACRO_CONTEXT_KEY = "xwikiorg.macroContext";
+
     @Inject
     protected Logger logger;
 
     @Inject
-    protected MacroManager macroManager;
+    protected MacroContentParser contentParser;
 
     @Inject
-    protected MacroContentParser contentParser;
+    protected MacroContentCache macroContentCache;
+
+    @Inject
+    protected DocumentationConfiguration configuration;
+
+    @Override
+    public void prepare(DocumentationAnalysisContext context)
+    {
+        if (isApplicable(context)) {
+            getSharedVisits(context);
+        }
+    }
+
+    @Override
+    public List<DocumentationViolation> check(DocumentationAnalysisContext context)
+    {
+        if (!isApplicable(context)) {
+            return List.of();
+        }
+        return getVisit(context).getViolations();
+    }
+
+    /**
+     * @return a human-readable check name used in warning messages (e.g. {@code "Image Macro"})
+     * @since 1.17
+     */
+    protected abstract String getCheckName();
+
+    /**
+     * @return the types of the blocks to pass to {@link #visit} (subtypes included)
+     * @since 1.17
+     */
+    protected abstract Set<Class<? extends Block>> getVisitedBlockTypes();
+
+    /**
+     * Called for each block of one of the {@link #getVisitedBlockTypes() visited types}, located in a
+     * {@link #isVisited(XDOMScope) visited scope}, in the order described in {@link XDOMWalker}.
+     *
+     * @param block the visited block
+     * @param scope where the block is located
+     * @param visit the state of the visit of the analysed document by this check
+     * @since 1.17
+     */
+    protected abstract void visit(Block block, XDOMScope scope, XDOMVisit visit);
+
+    /**
+     * @param scope a scope of the content of the analysed document
+     * @return {@code true} if the blocks located in the passed scope should be visited, which is the case of all
+     *     scopes by default
+     * @since 1.17
+     */
+    protected boolean isVisited(XDOMScope scope)
+    {
+        return true;
+    }
+
+    /**
+     * @param context the context of the analysis
+     * @return {@code true} if the analysed document needs to be visited by this check, which is the case by default
+     * @since 1.17
+     */
+    protected boolean isApplicable(DocumentationAnalysisContext context)
+    {
+        return true;
+    }
+
+    /**
+     * Return the visit of the analysed document by this check, walking the content for all the XDOM checks of the
+     * analysis if the checks haven't been {@link #prepare(DocumentationAnalysisContext) prepared}.
+     *
+     * @param context the context of the analysis
+     * @return the visit of the analysed document by this check
+     * @since 1.17
+     */
+    protected XDOMVisit getVisit(DocumentationAnalysisContext context)
+    {
+        XDOMVisit visit = getSharedVisits(context).get(this);
+        if (visit == null) {
+            // This check didn't take part in the shared walk (it's not one of the checks of the analysis).
+            visit = new XDOMWalker(context, List.of(this)).walk().get(this);
+        }
+        return visit;
+    }
+
+    private Map<AbstractXDOMDocumentationCheck, XDOMVisit> getSharedVisits(DocumentationAnalysisContext context)
+    {
+        return context.computeIfAbsent(XDOM_WALK_KEY, () -> new XDOMWalker(context, getVisitors(context)).walk());
+    }
+
+    private List<AbstractXDOMDocumentationCheck> getVisitors(DocumentationAnalysisContext context)
+    {
+        List<AbstractXDOMDocumentationCheck> visitors = new ArrayList<>();
+        for (DocumentationCheck check : context.getChecks()) {
+            if (check instanceof AbstractXDOMDocumentationCheck && ((AbstractXDOMDocumentationCheck) check)
+                .isApplicable(context)) {
+                visitors.add((AbstractXDOMDocumentationCheck) check);
+            }
+        }
+        if (!visitors.contains(this)) {
+            visitors.add(this);
+        }
+        return visitors;
+    }
 
     /**
-     * Parse the {@code faq} property of the DocumentationClass XObject attached to the given document and return its
-     * XDOM. Returns {@code null} if the object or property is absent, or if parsing fails (in which case a warning is
-     * logged).
+     * Parse the {@code faq} property of the DocumentationClass XObject attached to the analysed document and return
+     * its XDOM. Returns {@code null} if the object or property is absent, or if parsing fails (in which case a warning
+     * is logged).
      *
-     * @param document the document to inspect
-     * @param xdom the document's main XDOM, used as parsing context
+     * @param context the context of the analysis, holding the document to inspect
      * @param checkName a human-readable check name used in warning messages (e.g. {@code "Image Macro"})
      * @return the parsed XDOM of the faq property, or {@code null} if there's no FAQ xproperty or parsing fails
      */
-    protected XDOM parseFAQXDOM(XWikiDocument document, XDOM xdom, String checkName)
+    protected XDOM parseFAQXDOM(DocumentationAnalysisContext context, String checkName)
     {
-        BaseObject docObject = document.getXObject(DOCUMENTATION_CLASS_REFERENCE);
+        BaseObject docObject = context.getDocument().getXObject(DOCUMENTATION_CLASS_REFERENCE);
         if (docObject != null) {
             String faqContent = docObject.getLargeStringValue("faq");
             if (!faqContent.isEmpty()) {
                 try {
-                    TransformationContext context = new TransformationContext(xdom, document.getSyntax());
-                    MacroTransformationContext macroContext = new MacroTransformationContext(context);
-                    return this.contentParser.parse(faqContent, macroContext, false, false);
+                    return parseWikiContent(faqContent, context);
                 } catch (MacroExecutionException e) {
                     this.logger.warn("Failed to parse the FAQ content. Ignoring {} check inside it. "
                         + ROOT_ERROR_CAUSE, checkName, ExceptionUtils.getRootCauseMessage(e));
@@ -97,43 +207,34 @@ public abstract class AbstractXDOMDocumentationCheck implements DocumentationChe
     }
 
     /**
-     * Iterate over all macros in the given XDOM that have wiki-markup content (i.e. whose content descriptor type is
-     * {@link Block#LIST_BLOCK_TYPE}), parse each one's body, and pass the resulting XDOM to {@code consumer}.
-     * <p>
-     * Macros whose ID equals {@code skipMacroId} are skipped (pass {@code null} to skip nothing). Lookup or parse
-     * failures are logged as warnings and the macro is skipped.
+     * Parse some wiki content (FAQ, macro body) written in the syntax of the analysed document. The result is
+     * memoized in the analysis context by content and syntax, so that the same content is parsed only once per
+     * analysis. Parse failures are memoized too and thrown again to each caller.
      *
-     * @param xdom the XDOM to scan for macros
-     * @param document the enclosing document (used to obtain syntax for parsing)
-     * @param skipMacroId macro ID to skip, or {@code null} to process all macros
-     * @param checkName a human-readable check name used in warning messages
-     * @param consumer called with the parsed XDOM of each qualifying macro body
+     * @param content the content to parse
+     * @param context the context of the analysis
+     * @return the parsed content
+     * @throws MacroExecutionException if the content cannot be parsed
+     * @since 1.17
      */
-    protected void checkInsideWikiMacros(XDOM xdom, XWikiDocument document, String skipMacroId,
-        String checkName, Consumer<XDOM> consumer)
+    protected XDOM parseWikiContent(String content, DocumentationAnalysisContext context)
+        throws MacroExecutionException
     {
-        List<MacroBlock> macroBlocks =
-            xdom.getBlocks(new ClassBlockMatcher(MacroBlock.class), Block.Axes.DESCENDANT);
-        for (MacroBlock macroBlock : macroBlocks) {
-            if (skipMacroId != null && skipMacroId.equals(macroBlock.getId())) {
-                continue;
-            }
+        Syntax syntax = context.getDocument().getSyntax();
+        Object result = context.computeIfAbsent(Pair.of(content, syntax), () -> {
             try {
-                ContentDescriptor contentDescriptor = this.macroManager.getMacro(new MacroId(macroBlock.getId()))
-                    .getDescriptor().getContentDescriptor();
-                if (contentDescriptor != null && Block.LIST_BLOCK_TYPE.equals(contentDescriptor.getType())) {
-                    TransformationContext context = new TransformationContext(xdom, document.getSyntax());
-                    MacroTransformationContext macroContext = new MacroTransformationContext(context);
-                    XDOM macroXDOM = this.contentParser.parse(macroBlock.getContent(), macroContext, false, false);
-                    consumer.accept(macroXDOM);
-                }
-            } catch (MacroLookupException e) {
-                this.logger.warn("Failed to look up macro [{}]. Ignoring {} check inside it. "
-                    + ROOT_ERROR_CAUSE, macroBlock.getId(), checkName, ExceptionUtils.getRootCauseMessage(e));
+                // The parse context only depends on the content of the document and its syntax, so it's created once
+                // per analysis.
+                MacroTransformationContext macroContext = context.computeIfAbsent(Pair.of(MACRO_CONTEXT_KEY, syntax),
+                    () -> new MacroTransformationContext(new TransformationContext(context.getXDOM(), syntax)));
+                return this.contentParser.parse(content, macroContext, false, false);
             } catch (MacroExecutionException e) {
-                this.logger.warn("Failed to parse the content of macro [{}]. Ignoring {} check inside it. "
-                    + ROOT_ERROR_CAUSE, macroBlock.getId(), checkName, ExceptionUtils.getRootCauseMessage(e));
+                return e;
             }
+        });
+        if (result instanceof MacroExecutionException exception) {
+            throw exception;
         }
+        return (XDOM) result;
     }
 }
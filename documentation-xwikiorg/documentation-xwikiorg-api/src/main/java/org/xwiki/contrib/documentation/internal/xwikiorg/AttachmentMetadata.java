@@ -0,0 +1,134 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal.xwikiorg;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.xwiki.contrib.documentation.DocumentationAnalysisContext;
+
+/**
+ * What the attachment checks need to know about an attachment of the analysed document, derived from its filename
+ * once per analysis and shared by all the attachment checks through the {@link DocumentationAnalysisContext}.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+final class AttachmentMetadata
+{
+    /**
+     * The extension of the only video format allowed on documentation pages.
+     */
+    static final String WEBM_EXTENSION = "webm";
+
+    private static final Set<String> VIDEO_EXTENSIONS = Set.of(
+        "mp4", "mov", "avi", "mkv", "flv", "wmv", WEBM_EXTENSION, "ogv", "m4v", "3gp", "ts", "mts", "m2ts"
+    );
+
+    private static final String ATTACHMENTS_KEY = "xwikiorg.attachments";
+
+    private final String filename;
+
+    private final String stem;
+
+    private final String extension;
+
+    private final String lowerCaseExtension;
+
+    private final boolean video;
+
+    private final KebabNameValidator.KebabName kebabStem;
+
+    AttachmentMetadata(String filename)
+    {
+        this.filename = filename;
+        int lastDot = filename.lastIndexOf('.');
+        if (lastDot == -1) {
+            this.stem = filename;
+            this.extension = null;
+            this.lowerCaseExtension = "";
+        } else {
+            this.stem = filename.substring(0, lastDot);
+            this.extension = filename.substring(lastDot + 1);
+            this.lowerCaseExtension = this.extension.toLowerCase(Locale.ROOT);
+        }
+        this.video = VIDEO_EXTENSIONS.contains(this.lowerCaseExtension);
+        this.kebabStem = KebabNameValidator.parse(this.stem);
+    }
+
+    /**
+     * @param context the context of the analysis
+     * @return the metadata of the attachments of the analysed document, computed once per analysis
+     */
+    static List<AttachmentMetadata> of(DocumentationAnalysisContext context)
+    {
+        return context.computeIfAbsent(ATTACHMENTS_KEY, () -> context.getDocument().getAttachmentList().stream()
+            .map(attachment -> new AttachmentMetadata(attachment.getFilename())).toList());
+    }
+
+    /**
+     * @return the name of the attachment
+     */
+    String getFilename()
+    {
+        return this.filename;
+    }
+
+    /**
+     * @return the part of the filename before its last dot, or the whole filename when there's no dot
+     */
+    String getStem()
+    {
+        return this.stem;
+    }
+
+    /**
+     * @return the part of the filename after its last dot, as is, or {@code null} when there's no dot
+     */
+    String getExtension()
+    {
+        return this.extension;
+    }
+
+    /**
+     * @return the lower case extension of the filename, empty when there's no dot
+     */
+    String getLowerCaseExtension()
+    {
+        return this.lowerCaseExtension;
+    }
+
+    /**
+     * @return {@code true} if the attachment is a video, based on its extension
+     */
+    boolean isVideo()
+    {
+        return this.video;
+    }
+
+    /**
+     * @return the kebab forms of the stem of the filename
+     */
+    KebabNameValidator.KebabName getKebabStem()
+    {
+        return this.kebabStem;
+    }
+}
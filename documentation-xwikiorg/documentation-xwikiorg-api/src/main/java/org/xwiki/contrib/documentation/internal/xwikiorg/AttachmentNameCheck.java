@@ -20,21 +20,21 @@
 package org.xwiki.contrib.documentation.internal.xwikiorg;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Locale;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
-import org.xwiki.contrib.documentation.DocumentationCheck;
+import org.xwiki.contrib.documentation.AbstractDocumentationCheck;
+import org.xwiki.contrib.documentation.DocumentationAnalysisContext;
+import org.xwiki.contrib.documentation.DocumentationFacet;
 import org.xwiki.contrib.documentation.DocumentationViolation;
 import org.xwiki.contrib.documentation.DocumentationViolationSeverity;
 
-import com.xpn.xwiki.doc.XWikiAttachment;
-import com.xpn.xwiki.doc.XWikiDocument;
-
 /**
  * Verify that attachment filenames on documentation pages follow the kebab-case naming convention. The stem (part
  * before the last {@code .}) must be a valid slug, and the extension (part after the last {@code .}) must contain only
@@ -46,63 +46,57 @@ import com.xpn.xwiki.doc.XWikiDocument;
 @Component
 @Singleton
 @Named("attachmentName")
-public class AttachmentNameCheck implements DocumentationCheck
+public class AttachmentNameCheck extends AbstractDocumentationCheck
 {
     private static final Pattern LOWERCASE_EXTENSION_PATTERN = Pattern.compile("[a-z0-9]+");
 
     private static final String ATTACHMENT_NAME_CONTEXT = "Attachment name: [%s], Expected: [%s]";
 
     @Override
-    public List<DocumentationViolation> check(XWikiDocument document)
+    public Set<DocumentationFacet> getFacets()
+    {
+        return EnumSet.of(DocumentationFacet.ATTACHMENTS);
+    }
+
+    @Override
+    public List<DocumentationViolation> check(DocumentationAnalysisContext context)
     {
         List<DocumentationViolation> violations = new ArrayList<>();
-        for (XWikiAttachment attachment : document.getAttachmentList()) {
-            String filename = attachment.getFilename();
-            if (!isValidAttachmentName(filename)) {
+        for (AttachmentMetadata attachment : AttachmentMetadata.of(context)) {
+            if (!isValidAttachmentName(attachment)) {
                 violations.add(new DocumentationViolation(
                     "Attachment name must follow the kebab-case naming convention "
                         + "(lowercase, hyphens instead of spaces or special characters).",
-                    String.format(ATTACHMENT_NAME_CONTEXT, filename, toExpectedAttachmentName(filename)),
+                    String.format(ATTACHMENT_NAME_CONTEXT, attachment.getFilename(),
+                        toExpectedAttachmentName(attachment)),
                     DocumentationViolationSeverity.ERROR));
-            } else if (stemContainsReservedWord(filename)) {
+            } else if (attachment.getKebabStem().containsReservedWord()) {
                 violations.add(new DocumentationViolation(
                     "Attachment name must not contain documentation-type words "
                         + "(explanation, howto, reference, tutorial).",
-                    String.format(ATTACHMENT_NAME_CONTEXT, filename, toExpectedAttachmentName(filename)),
+                    String.format(ATTACHMENT_NAME_CONTEXT, attachment.getFilename(),
+                        toExpectedAttachmentName(attachment)),
                     DocumentationViolationSeverity.WARNING));
             }
         }
         return violations;
     }
 
-    private boolean isValidAttachmentName(String filename)
+    private boolean isValidAttachmentName(AttachmentMetadata attachment)
     {
-        int lastDot = filename.lastIndexOf('.');
-        if (lastDot == -1) {
-            return KebabNameValidator.isValidKebab(filename);
+        if (attachment.getExtension() == null) {
+            return attachment.getKebabStem().isValidKebab();
         }
-        String stem = filename.substring(0, lastDot);
-        String extension = filename.substring(lastDot + 1);
-        return !stem.isEmpty()
-            && KebabNameValidator.isValidKebab(stem)
-            && LOWERCASE_EXTENSION_PATTERN.matcher(extension).matches();
-    }
-
-    private boolean stemContainsReservedWord(String filename)
-    {
-        int lastDot = filename.lastIndexOf('.');
-        String stem = lastDot == -1 ? filename : filename.substring(0, lastDot);
-        return KebabNameValidator.containsReservedWord(stem);
+        return !attachment.getStem().isEmpty()
+            && attachment.getKebabStem().isValidKebab()
+            && LOWERCASE_EXTENSION_PATTERN.matcher(attachment.getExtension()).matches();
     }
 
-    private String toExpectedAttachmentName(String filename)
+    private String toExpectedAttachmentName(AttachmentMetadata attachment)
     {
-        int lastDot = filename.lastIndexOf('.');
-        if (lastDot == -1) {
-            return KebabNameValidator.toKebabStrict(filename);
+        if (attachment.getExtension() == null) {
+            return attachment.getKebabStem().getStrictKebab();
         }
-        String stem = filename.substring(0, lastDot);
-        String extension = filename.substring(lastDot + 1);
-        return KebabNameValidator.toKebabStrict(stem) + "." + extension.toLowerCase(Locale.ROOT);
+        return attachment.getKebabStem().getStrictKebab() + "." + attachment.getLowerCaseExtension();
     }
 }
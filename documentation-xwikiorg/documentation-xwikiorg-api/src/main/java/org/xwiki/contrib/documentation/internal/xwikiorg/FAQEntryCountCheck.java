@@ -20,20 +20,21 @@
 package org.xwiki.contrib.documentation.internal.xwikiorg;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.documentation.DocumentationAnalysisContext;
+import org.xwiki.contrib.documentation.DocumentationFacet;
 import org.xwiki.contrib.documentation.DocumentationViolation;
 import org.xwiki.contrib.documentation.DocumentationViolationSeverity;
 import org.xwiki.rendering.block.Block;
 import org.xwiki.rendering.block.HeaderBlock;
-import org.xwiki.rendering.block.XDOM;
-import org.xwiki.rendering.block.match.ClassBlockMatcher;
 
-import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
 
 /**
@@ -55,10 +56,18 @@ public class FAQEntryCountCheck extends AbstractXDOMDocumentationCheck
 
     private static final String CHECK_NAME = "FAQ Entry Count";
 
+    private static final String HEADER_COUNT_KEY = "headerCount";
+
+    @Override
+    public Set<DocumentationFacet> getFacets()
+    {
+        return EnumSet.of(DocumentationFacet.SYNTAX, DocumentationFacet.FAQ);
+    }
+
     @Override
-    public List<DocumentationViolation> check(XWikiDocument document)
+    public List<DocumentationViolation> check(DocumentationAnalysisContext context)
     {
-        BaseObject docObject = document.getXObject(DOCUMENTATION_CLASS_REFERENCE);
+        BaseObject docObject = context.getDocument().getXObject(DOCUMENTATION_CLASS_REFERENCE);
         if (docObject == null) {
             return List.of();
         }
@@ -76,20 +85,41 @@ public class FAQEntryCountCheck extends AbstractXDOMDocumentationCheck
                 "", DocumentationViolationSeverity.WARNING));
         }
 
-        XDOM faqXDOM = parseFAQXDOM(document, document.getXDOM(), CHECK_NAME);
-        if (faqXDOM != null) {
-            List<HeaderBlock> headers =
-                faqXDOM.getBlocks(new ClassBlockMatcher(HeaderBlock.class), Block.Axes.DESCENDANT);
-            if (headers.size() > MAX_FAQ_ENTRIES) {
-                violations.add(new DocumentationViolation(getViolationMessage(
-                    String.format("There are more than %s FAQ entries in this page", MAX_FAQ_ENTRIES)),
-                    "", DocumentationViolationSeverity.WARNING));
-            }
-        }
+        // The FAQ entries are counted while visiting the FAQ.
+        violations.addAll(getVisit(context).getViolations());
 
         return violations;
     }
 
+    @Override
+    protected String getCheckName()
+    {
+        return CHECK_NAME;
+    }
+
+    @Override
+    protected Set<Class<? extends Block>> getVisitedBlockTypes()
+    {
+        return Set.of(HeaderBlock.class);
+    }
+
+    @Override
+    protected boolean isVisited(XDOMScope scope)
+    {
+        // Only the headers located directly in the FAQ are entries.
+        return scope.getSource() == XDOMScope.Source.FAQ && scope.getDepth() == 0;
+    }
+
+    @Override
+    protected void visit(Block block, XDOMScope scope, XDOMVisit visit)
+    {
+        if (visit.incrementCounter(HEADER_COUNT_KEY) == MAX_FAQ_ENTRIES + 1) {
+            visit.addViolation(new DocumentationViolation(getViolationMessage(
+                String.format("There are more than %s FAQ entries in this page", MAX_FAQ_ENTRIES)),
+                "", DocumentationViolationSeverity.WARNING));
+        }
+    }
+
     private String getViolationMessage(String message)
     {
         return String.format("%s. This probably indicates that some documentation pages should be added.",
@@ -19,14 +19,16 @@
  */
 package org.xwiki.contrib.documentation.internal.xwikiorg;
 
-import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.documentation.DocumentationFacet;
 import org.xwiki.contrib.documentation.DocumentationViolation;
 import org.xwiki.contrib.documentation.DocumentationViolationSeverity;
 import org.xwiki.rendering.block.Block;
@@ -35,10 +37,6 @@ import org.xwiki.rendering.block.MacroBlock;
 import org.xwiki.rendering.block.XDOM;
 import org.xwiki.rendering.block.match.ClassBlockMatcher;
 import org.xwiki.rendering.macro.MacroExecutionException;
-import org.xwiki.rendering.transformation.MacroTransformationContext;
-import org.xwiki.rendering.transformation.TransformationContext;
-
-import com.xpn.xwiki.doc.XWikiDocument;
 
 /**
  * Verify that when the Gallery macro is used, all images inside it have the alt parameter specified.
@@ -56,56 +54,56 @@ public class GalleryMacroAltCheck extends AbstractXDOMDocumentationCheck
     private static final String GALLERY_MACRO_ID = "gallery";
 
     @Override
-    public List<DocumentationViolation> check(XWikiDocument document)
+    public Set<DocumentationFacet> getFacets()
     {
-        List<DocumentationViolation> violations = new ArrayList<>();
-        XDOM xdom = document.getXDOM();
+        return EnumSet.of(DocumentationFacet.CONTENT, DocumentationFacet.SYNTAX, DocumentationFacet.FAQ);
+    }
 
-        checkGalleriesInXDOM(xdom, document, violations);
-        checkInsideWikiMacros(xdom, document, GALLERY_MACRO_ID, CHECK_NAME,
-            macroXDOM -> checkGalleriesInXDOM(macroXDOM, document, violations));
+    @Override
+    protected String getCheckName()
+    {
+        return CHECK_NAME;
+    }
 
-        XDOM faqXDOM = parseFAQXDOM(document, xdom, CHECK_NAME);
-        if (faqXDOM != null) {
-            checkGalleriesInXDOM(faqXDOM, document, violations);
-            checkInsideWikiMacros(faqXDOM, document, GALLERY_MACRO_ID, CHECK_NAME,
-                macroXDOM -> checkGalleriesInXDOM(macroXDOM, document, violations));
-        }
+    @Override
+    protected Set<Class<? extends Block>> getVisitedBlockTypes()
+    {
+        return Set.of(MacroBlock.class);
+    }
 
-        return violations;
+    @Override
+    protected boolean isVisited(XDOMScope scope)
+    {
+        return !scope.isInsideMacro(GALLERY_MACRO_ID);
     }
 
-    private void checkGalleriesInXDOM(XDOM xdom, XWikiDocument document, List<DocumentationViolation> violations)
+    @Override
+    protected void visit(Block block, XDOMScope scope, XDOMVisit visit)
     {
-        List<MacroBlock> macroBlocks = xdom.getBlocks(new ClassBlockMatcher(MacroBlock.class), Block.Axes.DESCENDANT);
-        for (MacroBlock macroBlock : macroBlocks) {
-            if (GALLERY_MACRO_ID.equals(macroBlock.getId())) {
-                // The gallery macro can be written in any markup syntax. It's using the syntax of the document it
-                // is in.
-                TransformationContext context = new TransformationContext(xdom, document.getSyntax());
-                MacroTransformationContext macroContext = new MacroTransformationContext(context);
-                XDOM macroXDOM;
-                try {
-                    macroXDOM = this.contentParser.parse(macroBlock.getContent(), macroContext, false, false);
-                } catch (MacroExecutionException e) {
-                    // Failed to parse the content, don't consider that it's a violation. Just log an error and skip
-                    // the check
-                    this.logger.warn("Failed to parse the content of the gallery macro [{}]. Ignoring Gallery Macro "
-                        + "Alt check. Root error cause: [{}]", macroBlock.getContent(),
-                        ExceptionUtils.getRootCauseMessage(e));
-                    continue;
-                }
-                // Extract all ImageBlocks from the macro content XDOM, and verify that they have an "alt" parameter
-                // specified.
-                List<ImageBlock> imageBlocks =
-                    macroXDOM.getBlocks(new ClassBlockMatcher(ImageBlock.class), Block.Axes.DESCENDANT);
-                for (ImageBlock imageBlock : imageBlocks) {
-                    if (imageBlock.getParameter("alt") == null) {
-                        violations.add(new DocumentationViolation(
-                            "Images inside the Gallery macro should specify an 'alt' parameter.",
-                            String.format("Image reference : %s", imageBlock.getReference().getReference()),
-                            DocumentationViolationSeverity.WARNING));
-                    }
+        MacroBlock macroBlock = (MacroBlock) block;
+        if (GALLERY_MACRO_ID.equals(macroBlock.getId())) {
+            // The gallery macro can be written in any markup syntax. It's using the syntax of the document it is in.
+            XDOM macroXDOM;
+            try {
+                macroXDOM = parseWikiContent(macroBlock.getContent(), visit.getContext());
+            } catch (MacroExecutionException e) {
+                // Failed to parse the content, don't consider that it's a violation. Just log an error and skip
+                // the check
+                this.logger.warn("Failed to parse the content of the gallery macro [{}]. Ignoring Gallery Macro "
+                    + "Alt check. Root error cause: [{}]", macroBlock.getContent(),
+                    ExceptionUtils.getRootCauseMessage(e));
+                return;
+            }
+            // Extract all ImageBlocks from the macro content XDOM, and verify that they have an "alt" parameter
+            // specified.
+            List<ImageBlock> imageBlocks =
+                macroXDOM.getBlocks(new ClassBlockMatcher(ImageBlock.class), Block.Axes.DESCENDANT);
+            for (ImageBlock imageBlock : imageBlocks) {
+                if (imageBlock.getParameter("alt") == null) {
+                    visit.addViolation(new DocumentationViolation(
+                        "Images inside the Gallery macro should specify an 'alt' parameter.",
+                        String.format("Image reference : %s", imageBlock.getReference().getReference()),
+                        DocumentationViolationSeverity.WARNING));
                 }
             }
         }
@@ -20,15 +20,16 @@
 package org.xwiki.contrib.documentation.internal.xwikiorg;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
 import org.xwiki.contrib.documentation.DocumentationCheck;
+import org.xwiki.contrib.documentation.DocumentationFacet;
 import org.xwiki.contrib.documentation.DocumentationViolation;
 import org.xwiki.contrib.documentation.DocumentationViolationSeverity;
 import org.xwiki.model.reference.LocalDocumentReference;
@@ -47,12 +48,19 @@ import com.xpn.xwiki.objects.BaseObject;
 @Named("imageGallery")
 public class ImageGalleryCheck implements DocumentationCheck
 {
-    private static final Pattern PATTERN =
-        Pattern.compile(".*(\\{\\{image.*}}[\\s\\n\\r]*\\{\\{image.*}}).*", Pattern.DOTALL);
+    private static final String IMAGE_MACRO_START = "{{image";
+
+    private static final String MACRO_END = "}}";
 
     private static final LocalDocumentReference DOCUMENTATION_CLASS_REFERENCE =
         new LocalDocumentReference(List.of("DocApp", "Code"), "DocumentationClass");
 
+    @Override
+    public Set<DocumentationFacet> getFacets()
+    {
+        return EnumSet.of(DocumentationFacet.CONTENT, DocumentationFacet.FAQ);
+    }
+
     @Override
     public List<DocumentationViolation> check(XWikiDocument document)
     {
@@ -62,7 +70,7 @@ public class ImageGalleryCheck implements DocumentationCheck
         // document.getContent() returns the full raw wiki syntax including all macro bodies.
         checkContent(document.getContent(), violations);
 
-        // Also check the faq property content of the DocumentationClass XObject. The regex-based approach also
+        // Also check the faq property content of the DocumentationClass XObject. Scanning the raw content also
         // implicitly covers image macros inside rendering macros within the faq content.
         BaseObject docObject = document.getXObject(DOCUMENTATION_CLASS_REFERENCE);
         if (docObject != null) {
@@ -75,12 +83,73 @@ public class ImageGalleryCheck implements DocumentationCheck
         return violations;
     }
 
+    /**
+     * Report each run of image macros separated only by whitespace. The content is scanned once, without
+     * backtracking, so that the time taken is linear in the size of the content.
+     */
     private void checkContent(String content, List<DocumentationViolation> violations)
     {
-        Matcher matcher = PATTERN.matcher(content);
-        if (matcher.matches()) {
+        int runStart = -1;
+        int runEnd = -1;
+        int runLength = 0;
+        int start = findImageMacro(content, 0);
+        while (start >= 0) {
+            int end = content.indexOf(MACRO_END, start + IMAGE_MACRO_START.length());
+            if (end < 0) {
+                break;
+            }
+            end += MACRO_END.length();
+            if (runLength > 0 && isBlank(content, runEnd, start)) {
+                runLength++;
+            } else {
+                addViolation(content, runStart, runEnd, runLength, violations);
+                runStart = start;
+                runLength = 1;
+            }
+            runEnd = end;
+            start = findImageMacro(content, end);
+        }
+        addViolation(content, runStart, runEnd, runLength, violations);
+    }
+
+    private void addViolation(String content, int runStart, int runEnd, int runLength,
+        List<DocumentationViolation> violations)
+    {
+        if (runLength > 1) {
             violations.add(new DocumentationViolation("Use the Gallery macro when several images are displayed next "
-                + "to each other.", matcher.group(1), DocumentationViolationSeverity.ERROR));
+                + "to each other.", content.substring(runStart, runEnd), DocumentationViolationSeverity.ERROR));
+        }
+    }
+
+    /**
+     * @return the index of the next image macro call (and not of a macro whose name starts with "image") starting at
+     *     or after the passed index, or -1 if there's none
+     */
+    private int findImageMacro(String content, int fromIndex)
+    {
+        int index = content.indexOf(IMAGE_MACRO_START, fromIndex);
+        while (index >= 0 && !isImageMacroNameEnd(content, index + IMAGE_MACRO_START.length())) {
+            index = content.indexOf(IMAGE_MACRO_START, index + IMAGE_MACRO_START.length());
+        }
+        return index;
+    }
+
+    private boolean isImageMacroNameEnd(String content, int index)
+    {
+        if (index >= content.length()) {
+            return false;
+        }
+        char character = content.charAt(index);
+        return Character.isWhitespace(character) || character == '/' || character == '}';
+    }
+
+    private boolean isBlank(String content, int start, int end)
+    {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(content.charAt(i))) {
+                return false;
+            }
         }
+        return true;
     }
 }
@@ -19,21 +19,18 @@
  */
 package org.xwiki.contrib.documentation.internal.xwikiorg;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.EnumSet;
+import java.util.Set;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.documentation.DocumentationFacet;
 import org.xwiki.contrib.documentation.DocumentationViolation;
 import org.xwiki.contrib.documentation.DocumentationViolationSeverity;
 import org.xwiki.rendering.block.Block;
 import org.xwiki.rendering.block.MacroBlock;
-import org.xwiki.rendering.block.XDOM;
-import org.xwiki.rendering.block.match.ClassBlockMatcher;
-
-import com.xpn.xwiki.doc.XWikiDocument;
 
 /**
  * Verify that image macros are using the {@code alt} parameter for accessbility reasons.
@@ -51,35 +48,38 @@ public class ImageMacroAltCheck extends AbstractXDOMDocumentationCheck
     private static final String IMAGE_MACRO_ID = "image";
 
     @Override
-    public List<DocumentationViolation> check(XWikiDocument document)
+    public Set<DocumentationFacet> getFacets()
     {
-        List<DocumentationViolation> violations = new ArrayList<>();
-        XDOM xdom = document.getXDOM();
+        return EnumSet.of(DocumentationFacet.CONTENT, DocumentationFacet.SYNTAX, DocumentationFacet.FAQ);
+    }
 
-        checkXDOM(xdom, violations);
-        checkInsideWikiMacros(xdom, document, IMAGE_MACRO_ID, CHECK_NAME,
-            macroXDOM -> checkXDOM(macroXDOM, violations));
+    @Override
+    protected String getCheckName()
+    {
+        return CHECK_NAME;
+    }
 
-        XDOM faqXDOM = parseFAQXDOM(document, xdom, CHECK_NAME);
-        if (faqXDOM != null) {
-            checkXDOM(faqXDOM, violations);
-            checkInsideWikiMacros(faqXDOM, document, IMAGE_MACRO_ID, CHECK_NAME,
-                macroXDOM -> checkXDOM(macroXDOM, violations));
-        }
+    @Override
+    protected Set<Class<? extends Block>> getVisitedBlockTypes()
+    {
+        return Set.of(MacroBlock.class);
+    }
 
-        return violations;
+    @Override
+    protected boolean isVisited(XDOMScope scope)
+    {
+        return !scope.isInsideMacro(IMAGE_MACRO_ID);
     }
 
-    private void checkXDOM(XDOM xdom, List<DocumentationViolation> violations)
+    @Override
+    protected void visit(Block block, XDOMScope scope, XDOMVisit visit)
     {
-        List<MacroBlock> macroBlocks = xdom.getBlocks(new ClassBlockMatcher(MacroBlock.class), Block.Axes.DESCENDANT);
-        for (MacroBlock macroBlock : macroBlocks) {
-            if (IMAGE_MACRO_ID.equals(macroBlock.getId()) && macroBlock.getParameter("alt") == null) {
-                String reference = macroBlock.getParameter("reference");
-                violations.add(new DocumentationViolation("Missing 'alt' parameter usage in the Image macro.",
-                    String.format("Image reference : %s", reference == null ? "" : reference),
-                    DocumentationViolationSeverity.WARNING));
-            }
+        MacroBlock macroBlock = (MacroBlock) block;
+        if (IMAGE_MACRO_ID.equals(macroBlock.getId()) && macroBlock.getParameter("alt") == null) {
+            String reference = macroBlock.getParameter("reference");
+            visit.addViolation(new DocumentationViolation("Missing 'alt' parameter usage in the Image macro.",
+                String.format("Image reference : %s", reference == null ? "" : reference),
+                DocumentationViolationSeverity.WARNING));
         }
     }
 }
@@ -19,21 +19,18 @@
  */
 package org.xwiki.contrib.documentation.internal.xwikiorg;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.EnumSet;
+import java.util.Set;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.documentation.DocumentationFacet;
 import org.xwiki.contrib.documentation.DocumentationViolation;
 import org.xwiki.contrib.documentation.DocumentationViolationSeverity;
 import org.xwiki.rendering.block.Block;
 import org.xwiki.rendering.block.ImageBlock;
-import org.xwiki.rendering.block.XDOM;
-import org.xwiki.rendering.block.match.ClassBlockMatcher;
-
-import com.xpn.xwiki.doc.XWikiDocument;
 
 /**
  * Verify that documentation pages are not using the image syntax (i.e., they should use the image or gallery macros).
@@ -55,30 +52,29 @@ public class ImageMacroCheck extends AbstractXDOMDocumentationCheck
     private static final String CHECK_NAME = "Image Macro";
 
     @Override
-    public List<DocumentationViolation> check(XWikiDocument document)
+    public Set<DocumentationFacet> getFacets()
     {
-        List<DocumentationViolation> violations = new ArrayList<>();
-        XDOM xdom = document.getXDOM();
-
-        checkXDOM(xdom, violations);
-        checkInsideWikiMacros(xdom, document, null, CHECK_NAME, macroXDOM -> checkXDOM(macroXDOM, violations));
+        return EnumSet.of(DocumentationFacet.CONTENT, DocumentationFacet.SYNTAX, DocumentationFacet.FAQ);
+    }
 
-        XDOM faqXDOM = parseFAQXDOM(document, xdom, CHECK_NAME);
-        if (faqXDOM != null) {
-            checkXDOM(faqXDOM, violations);
-            checkInsideWikiMacros(faqXDOM, document, null, CHECK_NAME, macroXDOM -> checkXDOM(macroXDOM, violations));
-        }
+    @Override
+    protected String getCheckName()
+    {
+        return CHECK_NAME;
+    }
 
-        return violations;
+    @Override
+    protected Set<Class<? extends Block>> getVisitedBlockTypes()
+    {
+        return Set.of(ImageBlock.class);
     }
 
-    private void checkXDOM(XDOM xdom, List<DocumentationViolation> violations)
+    @Override
+    protected void visit(Block block, XDOMScope scope, XDOMVisit visit)
     {
-        List<ImageBlock> imageBlocks = xdom.getBlocks(new ClassBlockMatcher(ImageBlock.class), Block.Axes.DESCENDANT);
-        for (ImageBlock imageBlock : imageBlocks) {
-            violations.add(new DocumentationViolation("Use the Image macro instead.",
-                String.format("Image reference : %s", imageBlock.getReference().getReference()),
-                DocumentationViolationSeverity.ERROR));
-        }
+        ImageBlock imageBlock = (ImageBlock) block;
+        visit.addViolation(new DocumentationViolation("Use the Image macro instead.",
+            String.format("Image reference : %s", imageBlock.getReference().getReference()),
+            DocumentationViolationSeverity.ERROR));
     }
 }
@@ -19,12 +19,14 @@
  */
 package org.xwiki.contrib.documentation.internal.xwikiorg;
 
-import java.util.Locale;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.Strings;
 
 /**
  * Utility for validating and transforming kebab-style names used for pages and attachments.
@@ -36,15 +38,18 @@ import org.apache.commons.lang3.Strings;
  * Transformation rules applied in order by {@link #toKebab(String)}:
  * <ol>
  *   <li>Strip accents.</li>
- *   <li>Protect dots that appear between two digits (e.g. {@code 1.0}).</li>
- *   <li>Replace all remaining non-word characters with {@code -}.</li>
- *   <li>Restore protected dots.</li>
+ *   <li>Replace all non-word characters (anything that is not {@code [a-zA-Z0-9_]}) with {@code -}, except dots that
+ *       appear between two digits (e.g. {@code 1.0}).</li>
  *   <li>Convert to lowercase.</li>
  *   <li>Remove stop-word segments (whole hyphen-delimited segments that are stop words).</li>
  *   <li>Collapse consecutive {@code -} into one.</li>
  *   <li>Strip leading/trailing {@code -}.</li>
  * </ol>
  * {@link #toKebabStrict(String)} additionally strips {@link #RESERVED_WORDS} segments.
+ * <p>
+ * All the forms of a name are computed at once by {@link #parse(String)}, in a single pass over its characters, and
+ * the result is memoized for the most recently parsed names since the same names (e.g. attachment names) are checked
+ * over and over.
  *
  * @version $Id$
  * @since 1.13
@@ -81,19 +86,23 @@ public final class KebabNameValidator
      */
     static final Set<String> RESERVED_WORDS = Set.of("explanation", "howto", "reference", "tutorial");
 
-    private static final String REPLACEMENT_CHARACTER = "-";
+    private static final char REPLACEMENT_CHARACTER = '-';
 
-    private static final Pattern DASH_PATTERN = Pattern.compile("-+");
+    private static final int MAX_PARSED_NAMES = 10000;
 
-    private static final Pattern NONWORD_PATTERN = Pattern.compile("\\W");
+    private static final int INITIAL_CAPACITY = 16;
 
-    /**
-     * Matches a literal dot that is immediately preceded by a digit and immediately followed by a digit, so that
-     * version numbers such as {@code 1.0} are preserved through the transformation.
-     */
-    private static final Pattern DOTSBETWEENDIGITS_PATTERN = Pattern.compile("(?<=\\d)\\.(?=\\d)");
+    private static final float LOAD_FACTOR = 0.75F;
 
-    private static final String PROTECTED_DOT = "__DOT__";
+    private static final Map<String, KebabName> PARSED_NAMES =
+        Collections.synchronizedMap(new LinkedHashMap<String, KebabName>(INITIAL_CAPACITY, LOAD_FACTOR, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, KebabName> eldest)
+            {
+                return size() > MAX_PARSED_NAMES;
+            }
+        });
 
     private KebabNameValidator()
     {
@@ -107,7 +116,7 @@ public final class KebabNameValidator
      */
     public static boolean isValidKebab(String name)
     {
-        return toKebab(name).equals(name);
+        return parse(name).isValidKebab();
     }
 
     /**
@@ -116,12 +125,7 @@ public final class KebabNameValidator
      */
     public static boolean containsReservedWord(String name)
     {
-        for (String segment : toKebab(name).split(REPLACEMENT_CHARACTER, -1)) {
-            if (RESERVED_WORDS.contains(segment)) {
-                return true;
-            }
-        }
-        return false;
+        return parse(name).containsReservedWord();
     }
 
     /**
@@ -132,26 +136,7 @@ public final class KebabNameValidator
      */
     public static String toKebab(String name)
     {
-        // 1. Remove accents.
-        String result = StringUtils.stripAccents(name);
-        // 2. Protect dots between digits so they survive the non-word replacement step.
-        result = DOTSBETWEENDIGITS_PATTERN.matcher(result).replaceAll(PROTECTED_DOT);
-        // 3. Replace non-word characters (anything that is not [a-zA-Z0-9_]) with a hyphen.
-        result = NONWORD_PATTERN.matcher(result).replaceAll(REPLACEMENT_CHARACTER);
-        // 4. Restore protected dots.
-        result = result.replace(PROTECTED_DOT, ".");
-        // 5. Convert to lowercase.
-        result = result.toLowerCase(Locale.ROOT);
-        // 6. Collapse consecutive hyphens before splitting (prevents empty segments from double hyphens in input).
-        result = DASH_PATTERN.matcher(result).replaceAll(REPLACEMENT_CHARACTER);
-        // 7. Remove stop-word segments.
-        result = removeSegments(result, STOP_WORDS);
-        // 8. Collapse consecutive hyphens again (stop-word removal may produce adjacent hyphens).
-        result = DASH_PATTERN.matcher(result).replaceAll(REPLACEMENT_CHARACTER);
-        // 9. Remove leading and trailing hyphens.
-        result = Strings.CS.removeEnd(result, REPLACEMENT_CHARACTER);
-        result = Strings.CS.removeStart(result, REPLACEMENT_CHARACTER);
-        return result;
+        return parse(name).getKebab();
     }
 
     /**
@@ -162,26 +147,162 @@ public final class KebabNameValidator
      */
     public static String toKebabStrict(String name)
     {
-        String result = toKebab(name);
-        result = removeSegments(result, RESERVED_WORDS);
-        result = DASH_PATTERN.matcher(result).replaceAll(REPLACEMENT_CHARACTER);
-        result = Strings.CS.removeEnd(result, REPLACEMENT_CHARACTER);
-        result = Strings.CS.removeStart(result, REPLACEMENT_CHARACTER);
-        return result;
+        return parse(name).getStrictKebab();
+    }
+
+    /**
+     * Compute all the forms of a name at once, or return them from the memoized names.
+     *
+     * @param name the name to parse
+     * @return the kebab forms of the name
+     * @since 1.17
+     */
+    public static KebabName parse(String name)
+    {
+        KebabName kebabName = PARSED_NAMES.get(name);
+        if (kebabName == null) {
+            kebabName = scan(name);
+            PARSED_NAMES.put(name, kebabName);
+        }
+        return kebabName;
     }
 
-    private static String removeSegments(String name, Set<String> words)
+    private static KebabName scan(String name)
     {
-        String[] segments = name.split(REPLACEMENT_CHARACTER);
-        StringBuilder filtered = new StringBuilder();
-        for (String segment : segments) {
-            if (!segment.isEmpty() && !words.contains(segment)) {
-                if (!filtered.isEmpty()) {
-                    filtered.append(REPLACEMENT_CHARACTER);
+        String text = isAscii(name) ? name : StringUtils.stripAccents(name);
+        StringBuilder kebab = new StringBuilder(text.length());
+        StringBuilder strictKebab = new StringBuilder(text.length());
+        List<String> segments = new ArrayList<>();
+        boolean reservedWord = false;
+        StringBuilder segment = new StringBuilder();
+        // Iterate one character past the end so that the last segment is handled like the others.
+        for (int i = 0; i <= text.length(); i++) {
+            char character = i < text.length() ? text.charAt(i) : REPLACEMENT_CHARACTER;
+            if (isWordCharacter(character)
+                || (character == '.' && isDigit(text, i - 1) && isDigit(text, i + 1)))
+            {
+                segment.append(Character.toLowerCase(character));
+            } else if (!segment.isEmpty()) {
+                String word = segment.toString();
+                segment.setLength(0);
+                if (!STOP_WORDS.contains(word)) {
+                    segments.add(word);
+                    append(kebab, word);
+                    if (RESERVED_WORDS.contains(word)) {
+                        reservedWord = true;
+                    } else {
+                        append(strictKebab, word);
+                    }
                 }
-                filtered.append(segment);
             }
         }
-        return filtered.toString();
+        String kebabForm = kebab.toString();
+        return new KebabName(kebabForm, strictKebab.toString(), segments, kebabForm.equals(name), reservedWord);
+    }
+
+    private static boolean isAscii(String name)
+    {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) > Byte.MAX_VALUE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code true} if the character matches the {@code \w} regular expression character class
+     */
+    private static boolean isWordCharacter(char character)
+    {
+        return (character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z') || isDigit(character)
+            || character == '_';
+    }
+
+    private static boolean isDigit(char character)
+    {
+        return character >= '0' && character <= '9';
+    }
+
+    private static boolean isDigit(String text, int index)
+    {
+        return index >= 0 && index < text.length() && isDigit(text.charAt(index));
+    }
+
+    private static void append(StringBuilder kebab, String segment)
+    {
+        if (!kebab.isEmpty()) {
+            kebab.append(REPLACEMENT_CHARACTER);
+        }
+        kebab.append(segment);
+    }
+
+    /**
+     * The kebab forms of a name.
+     *
+     * @version $Id$
+     * @since 1.17
+     */
+    public static final class KebabName
+    {
+        private final String kebab;
+
+        private final String strictKebab;
+
+        private final List<String> segments;
+
+        private final boolean validKebab;
+
+        private final boolean reservedWord;
+
+        KebabName(String kebab, String strictKebab, List<String> segments, boolean validKebab, boolean reservedWord)
+        {
+            this.kebab = kebab;
+            this.strictKebab = strictKebab;
+            this.segments = List.copyOf(segments);
+            this.validKebab = validKebab;
+            this.reservedWord = reservedWord;
+        }
+
+        /**
+         * @return the kebab-case form of the name (see {@link KebabNameValidator#toKebab(String)})
+         */
+        public String getKebab()
+        {
+            return this.kebab;
+        }
+
+        /**
+         * @return the kebab-case form of the name without reserved words (see
+         *     {@link KebabNameValidator#toKebabStrict(String)})
+         */
+        public String getStrictKebab()
+        {
+            return this.strictKebab;
+        }
+
+        /**
+         * @return the segments of the kebab-case form of the name
+         */
+        public List<String> getSegments()
+        {
+            return this.segments;
+        }
+
+        /**
+         * @return {@code true} if the name is already in kebab-case form
+         */
+        public boolean isValidKebab()
+        {
+            return this.validKebab;
+        }
+
+        /**
+         * @return {@code true} if the kebab-case form of the name contains at least one reserved word segment
+         */
+        public boolean containsReservedWord()
+        {
+            return this.reservedWord;
+        }
     }
 }
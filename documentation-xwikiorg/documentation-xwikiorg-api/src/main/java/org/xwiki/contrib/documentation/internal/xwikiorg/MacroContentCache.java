@@ -0,0 +1,109 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal.xwikiorg;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.macro.Macro;
+import org.xwiki.rendering.macro.MacroId;
+import org.xwiki.rendering.macro.MacroLookupException;
+import org.xwiki.rendering.macro.MacroManager;
+import org.xwiki.rendering.macro.MacroNotFoundException;
+import org.xwiki.rendering.macro.descriptor.ContentDescriptor;
+
+import com.xpn.xwiki.XWikiContext;
+
+/**
+ * Remembers, per wiki, which macros have a body containing wiki markup, so that the macros found in the analysed
+ * content (wiki macros in particular) are not looked up again for each macro call of each analysis. The cache is
+ * cleared when a macro is registered or unregistered (see {@link MacroContentCacheListener}).
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@Component(roles = MacroContentCache.class)
+@Singleton
+public class MacroContentCache
+{
+    @Inject
+    private MacroManager macroManager;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    /**
+     * Whether the body of each macro contains wiki markup, indexed by wiki identifier and macro id. Replaced (rather
+     * than cleared) when invalidated, so that a lookup running concurrently with an invalidation cannot store an
+     * outdated value.
+     */
+    private volatile Map<String, Map<String, Boolean>> wikiContentMacros = new ConcurrentHashMap<>();
+
+    /**
+     * @param macroId the id of a macro
+     * @return {@code true} if the body of the macro contains wiki markup (i.e. its content descriptor type is
+     *     {@link Block#LIST_BLOCK_TYPE}), {@code false} otherwise (including when the macro is unknown, which is
+     *     remembered until a macro is registered)
+     * @throws MacroLookupException if the macro cannot be looked up for another reason than not existing (in which
+     *     case nothing is remembered)
+     */
+    public boolean hasWikiContent(String macroId) throws MacroLookupException
+    {
+        Map<String, Map<String, Boolean>> cache = this.wikiContentMacros;
+        Map<String, Boolean> macros =
+            cache.computeIfAbsent(this.xcontextProvider.get().getWikiId(), wiki -> new ConcurrentHashMap<>());
+        Boolean wikiContent = macros.get(macroId);
+        if (wikiContent == null) {
+            wikiContent = lookUpWikiContent(macroId);
+            macros.put(macroId, wikiContent);
+        }
+        return wikiContent;
+    }
+
+    /**
+     * Forget all the macros, so that they are looked up again.
+     */
+    public void invalidate()
+    {
+        this.wikiContentMacros = new ConcurrentHashMap<>();
+    }
+
+    private boolean lookUpWikiContent(String macroId) throws MacroLookupException
+    {
+        Macro<?> macro;
+        try {
+            macro = this.macroManager.getMacro(new MacroId(macroId));
+        } catch (MacroNotFoundException e) {
+            // Content using macros that are not installed on the wiki is common, don't look them up for each call.
+            return false;
+        }
+        if (macro == null) {
+            return false;
+        }
+        ContentDescriptor contentDescriptor = macro.getDescriptor().getContentDescriptor();
+        return contentDescriptor != null && Block.LIST_BLOCK_TYPE.equals(contentDescriptor.getType());
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal.xwikiorg;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.event.ComponentDescriptorAddedEvent;
+import org.xwiki.component.event.ComponentDescriptorEvent;
+import org.xwiki.component.event.ComponentDescriptorRemovedEvent;
+import org.xwiki.component.util.ReflectionUtils;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+import org.xwiki.rendering.macro.Macro;
+
+/**
+ * Invalidate the {@link MacroContentCache} when a macro (e.g. a wiki macro) is registered or unregistered.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@Component
+@Singleton
+@Named(MacroContentCacheListener.NAME)
+public class MacroContentCacheListener extends AbstractEventListener
+{
+    /**
+     * The name of the listener.
+     */
+    public static final String NAME = "MacroContentCacheListener";
+
+    @Inject
+    private MacroContentCache cache;
+
+    /**
+     * Default constructor.
+     */
+    public MacroContentCacheListener()
+    {
+        // Macros may be registered with a parameterized role type, so the events are filtered on the raw role type
+        // when they're received.
+        super(NAME, new ComponentDescriptorAddedEvent(), new ComponentDescriptorRemovedEvent());
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        if (Macro.class.equals(ReflectionUtils.getTypeClass(((ComponentDescriptorEvent) event).getRoleType()))) {
+            this.cache.invalidate();
+        }
+    }
+}
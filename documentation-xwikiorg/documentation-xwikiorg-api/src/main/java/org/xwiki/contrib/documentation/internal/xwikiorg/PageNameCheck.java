@@ -20,13 +20,16 @@
 package org.xwiki.contrib.documentation.internal.xwikiorg;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
 import org.xwiki.contrib.documentation.DocumentationCheck;
+import org.xwiki.contrib.documentation.DocumentationFacet;
 import org.xwiki.contrib.documentation.DocumentationViolation;
 import org.xwiki.contrib.documentation.DocumentationViolationSeverity;
 
@@ -46,6 +49,12 @@ public class PageNameCheck implements DocumentationCheck
 {
     private static final String PAGE_NAME_CONTEXT = "Page name: [%s], Expected: [%s]";
 
+    @Override
+    public Set<DocumentationFacet> getFacets()
+    {
+        return EnumSet.of(DocumentationFacet.REFERENCE);
+    }
+
     @Override
     public List<DocumentationViolation> check(XWikiDocument document)
     {
@@ -54,17 +63,18 @@ public class PageNameCheck implements DocumentationCheck
         if ("WebHome".equals(pageName)) {
             pageName = document.getDocumentReference().getLastSpaceReference().getName();
         }
-        if (!KebabNameValidator.isValidKebab(pageName)) {
+        KebabNameValidator.KebabName kebabName = KebabNameValidator.parse(pageName);
+        if (!kebabName.isValidKebab()) {
             violations.add(new DocumentationViolation(
                 "Page name must follow the kebab-case naming convention "
                     + "(lowercase, hyphens instead of spaces or special characters).",
-                String.format(PAGE_NAME_CONTEXT, pageName, KebabNameValidator.toKebabStrict(pageName)),
+                String.format(PAGE_NAME_CONTEXT, pageName, kebabName.getStrictKebab()),
                 DocumentationViolationSeverity.ERROR));
-        } else if (KebabNameValidator.containsReservedWord(pageName)) {
+        } else if (kebabName.containsReservedWord()) {
             violations.add(new DocumentationViolation(
                 "Page name must not contain documentation-type words "
                     + "(explanation, howto, reference, tutorial).",
-                String.format(PAGE_NAME_CONTEXT, pageName, KebabNameValidator.toKebabStrict(pageName)),
+                String.format(PAGE_NAME_CONTEXT, pageName, kebabName.getStrictKebab()),
                 DocumentationViolationSeverity.ERROR));
         }
         return violations;
@@ -20,13 +20,16 @@
 package org.xwiki.contrib.documentation.internal.xwikiorg;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
 import org.xwiki.contrib.documentation.DocumentationCheck;
+import org.xwiki.contrib.documentation.DocumentationFacet;
 import org.xwiki.contrib.documentation.DocumentationViolation;
 import org.xwiki.contrib.documentation.DocumentationViolationSeverity;
 
@@ -46,6 +49,12 @@ public class PageTitleCheck implements DocumentationCheck
 {
     private static final String PAGE_TITLE_CONTEXT = "Page title: [%s]";
 
+    @Override
+    public Set<DocumentationFacet> getFacets()
+    {
+        return EnumSet.of(DocumentationFacet.TITLE);
+    }
+
     @Override
     public List<DocumentationViolation> check(XWikiDocument document)
     {
@@ -20,13 +20,16 @@
 package org.xwiki.contrib.documentation.internal.xwikiorg;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
 import org.xwiki.contrib.documentation.DocumentationCheck;
+import org.xwiki.contrib.documentation.DocumentationFacet;
 import org.xwiki.contrib.documentation.DocumentationViolation;
 import org.xwiki.contrib.documentation.DocumentationViolationSeverity;
 import org.xwiki.rendering.syntax.Syntax;
@@ -44,6 +47,12 @@ import com.xpn.xwiki.doc.XWikiDocument;
 @Named("syntax")
 public class SyntaxCheck implements DocumentationCheck
 {
+    @Override
+    public Set<DocumentationFacet> getFacets()
+    {
+        return EnumSet.of(DocumentationFacet.SYNTAX);
+    }
+
     @Override
     public List<DocumentationViolation> check(XWikiDocument document)
     {
@@ -20,14 +20,17 @@
 package org.xwiki.contrib.documentation.internal.xwikiorg;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
 import org.xwiki.contrib.documentation.DocumentationCheck;
+import org.xwiki.contrib.documentation.DocumentationFacet;
 import org.xwiki.contrib.documentation.DocumentationViolation;
 import org.xwiki.contrib.documentation.DocumentationViolationSeverity;
 import org.xwiki.model.reference.LocalDocumentReference;
@@ -76,6 +79,12 @@ public class VerbCheck implements DocumentationCheck
         "The page name of a Reference or Explanation page must not start with a verb "
             + "(e.g. 'user-management', not 'managing-users').";
 
+    @Override
+    public Set<DocumentationFacet> getFacets()
+    {
+        return EnumSet.of(DocumentationFacet.TITLE, DocumentationFacet.REFERENCE, DocumentationFacet.TYPE);
+    }
+
     @Override
     public List<DocumentationViolation> check(XWikiDocument document)
     {
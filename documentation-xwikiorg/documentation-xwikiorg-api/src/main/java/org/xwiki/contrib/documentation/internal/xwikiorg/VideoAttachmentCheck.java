@@ -20,21 +20,20 @@
 package org.xwiki.contrib.documentation.internal.xwikiorg;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Set;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
-import org.xwiki.contrib.documentation.DocumentationCheck;
+import org.xwiki.contrib.documentation.AbstractDocumentationCheck;
+import org.xwiki.contrib.documentation.DocumentationAnalysisContext;
+import org.xwiki.contrib.documentation.DocumentationFacet;
 import org.xwiki.contrib.documentation.DocumentationViolation;
 import org.xwiki.contrib.documentation.DocumentationViolationSeverity;
 
-import com.xpn.xwiki.doc.XWikiAttachment;
-import com.xpn.xwiki.doc.XWikiDocument;
-
 /**
  * Verify that video attachments on documentation pages use the {@code .webm} format. Any video file with a non-webm
  * extension (e.g. {@code .mp4}, {@code .mov}) triggers an ERROR violation.
@@ -45,37 +44,28 @@ import com.xpn.xwiki.doc.XWikiDocument;
 @Component
 @Singleton
 @Named("videoAttachment")
-public class VideoAttachmentCheck implements DocumentationCheck
+public class VideoAttachmentCheck extends AbstractDocumentationCheck
 {
-    private static final String WEBM_EXTENSION = "webm";
-
-    private static final Set<String> VIDEO_EXTENSIONS = Set.of(
-        "mp4", "mov", "avi", "mkv", "flv", "wmv", WEBM_EXTENSION, "ogv", "m4v", "3gp", "ts", "mts", "m2ts"
-    );
+    @Override
+    public Set<DocumentationFacet> getFacets()
+    {
+        return EnumSet.of(DocumentationFacet.ATTACHMENTS);
+    }
 
     @Override
-    public List<DocumentationViolation> check(XWikiDocument document)
+    public List<DocumentationViolation> check(DocumentationAnalysisContext context)
     {
         List<DocumentationViolation> violations = new ArrayList<>();
-        for (XWikiAttachment attachment : document.getAttachmentList()) {
-            String filename = attachment.getFilename();
-            String extension = getExtension(filename);
-            if (VIDEO_EXTENSIONS.contains(extension) && !WEBM_EXTENSION.equals(extension)) {
+        for (AttachmentMetadata attachment : AttachmentMetadata.of(context)) {
+            if (attachment.isVideo()
+                && !AttachmentMetadata.WEBM_EXTENSION.equals(attachment.getLowerCaseExtension()))
+            {
                 violations.add(new DocumentationViolation(
                     "Video attachments must use the \".webm\" format.",
-                    String.format("Attachment name: [%s]", filename),
+                    String.format("Attachment name: [%s]", attachment.getFilename()),
                     DocumentationViolationSeverity.ERROR));
             }
         }
         return violations;
     }
-
-    private String getExtension(String filename)
-    {
-        int lastDot = filename.lastIndexOf('.');
-        if (lastDot == -1) {
-            return "";
-        }
-        return filename.substring(lastDot + 1).toLowerCase(Locale.ROOT);
-    }
 }
@@ -19,23 +19,19 @@
  */
 package org.xwiki.contrib.documentation.internal.xwikiorg;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Locale;
+import java.util.EnumSet;
 import java.util.Set;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
+import org.xwiki.contrib.documentation.DocumentationAnalysisContext;
+import org.xwiki.contrib.documentation.DocumentationFacet;
 import org.xwiki.contrib.documentation.DocumentationViolation;
 import org.xwiki.contrib.documentation.DocumentationViolationSeverity;
 import org.xwiki.rendering.block.Block;
 import org.xwiki.rendering.block.MacroBlock;
-import org.xwiki.rendering.block.XDOM;
-import org.xwiki.rendering.block.match.ClassBlockMatcher;
-
-import com.xpn.xwiki.doc.XWikiDocument;
 
 /**
  * Verify that documentation pages with video attachments use the {@code {{embed}}} macro instead of the
@@ -52,50 +48,46 @@ public class VideoMacroCheck extends AbstractXDOMDocumentationCheck
 {
     private static final String VIDEO_MACRO_ID = "video";
 
-    private static final Set<String> VIDEO_EXTENSIONS = Set.of(
-        "mp4", "mov", "avi", "mkv", "flv", "wmv", "webm", "ogv", "m4v", "3gp", "ts", "mts", "m2ts"
-    );
-
     @Override
-    public List<DocumentationViolation> check(XWikiDocument document)
+    public Set<DocumentationFacet> getFacets()
     {
-        boolean hasVideoAttachment = document.getAttachmentList().stream()
-            .anyMatch(attachment -> isVideoFile(attachment.getFilename()));
-
-        if (!hasVideoAttachment) {
-            return List.of();
-        }
+        return EnumSet.of(DocumentationFacet.CONTENT, DocumentationFacet.SYNTAX, DocumentationFacet.ATTACHMENTS);
+    }
 
-        List<DocumentationViolation> violations = new ArrayList<>();
-        XDOM xdom = document.getXDOM();
+    @Override
+    protected String getCheckName()
+    {
+        return "Video Macro";
+    }
 
-        checkXDOM(xdom, violations);
-        checkInsideWikiMacros(xdom, document, VIDEO_MACRO_ID, "Video Macro",
-            macroXDOM -> checkXDOM(macroXDOM, violations));
+    @Override
+    protected Set<Class<? extends Block>> getVisitedBlockTypes()
+    {
+        return Set.of(MacroBlock.class);
+    }
 
-        return violations;
+    @Override
+    protected boolean isApplicable(DocumentationAnalysisContext context)
+    {
+        return AttachmentMetadata.of(context).stream().anyMatch(AttachmentMetadata::isVideo);
     }
 
-    private void checkXDOM(XDOM xdom, List<DocumentationViolation> violations)
+    @Override
+    protected boolean isVisited(XDOMScope scope)
     {
-        List<MacroBlock> macroBlocks =
-            xdom.getBlocks(new ClassBlockMatcher(MacroBlock.class), Block.Axes.DESCENDANT);
-        for (MacroBlock macroBlock : macroBlocks) {
-            if (VIDEO_MACRO_ID.equals(macroBlock.getId())) {
-                violations.add(new DocumentationViolation(
-                    "Use the Embed macro instead of the Video macro.",
-                    String.format("Macro parameters: [%s]", macroBlock.getParameters()),
-                    DocumentationViolationSeverity.ERROR));
-            }
-        }
+        // The FAQ is not checked.
+        return scope.getSource() == XDOMScope.Source.CONTENT && !scope.isInsideMacro(VIDEO_MACRO_ID);
     }
 
-    private boolean isVideoFile(String filename)
+    @Override
+    protected void visit(Block block, XDOMScope scope, XDOMVisit visit)
     {
-        int lastDot = filename.lastIndexOf('.');
-        if (lastDot == -1) {
-            return false;
+        MacroBlock macroBlock = (MacroBlock) block;
+        if (VIDEO_MACRO_ID.equals(macroBlock.getId())) {
+            visit.addViolation(new DocumentationViolation(
+                "Use the Embed macro instead of the Video macro.",
+                String.format("Macro parameters: [%s]", macroBlock.getParameters()),
+                DocumentationViolationSeverity.ERROR));
         }
-        return VIDEO_EXTENSIONS.contains(filename.substring(lastDot + 1).toLowerCase(Locale.ROOT));
     }
 }
@@ -0,0 +1,112 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal.xwikiorg;
+
+/**
+ * Describes where a block visited by the {@link XDOMWalker} is located: in the content of the document or in the FAQ
+ * of its DocumentationClass XObject, and inside which macro body, if any.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+public final class XDOMScope
+{
+    /**
+     * The scope of the blocks located directly in the content of the document.
+     */
+    public static final XDOMScope CONTENT = new XDOMScope(Source.CONTENT, null, 0);
+
+    /**
+     * The scope of the blocks located directly in the FAQ of the document.
+     */
+    public static final XDOMScope FAQ = new XDOMScope(Source.FAQ, null, 0);
+
+    /**
+     * The content from which the visited blocks have been parsed.
+     */
+    public enum Source
+    {
+        /**
+         * The content of the document.
+         */
+        CONTENT,
+
+        /**
+         * The {@code faq} property of the DocumentationClass XObject.
+         */
+        FAQ
+    }
+
+    private final Source source;
+
+    private final String macroId;
+
+    private final int depth;
+
+    private XDOMScope(Source source, String macroId, int depth)
+    {
+        this.source = source;
+        this.macroId = macroId;
+        this.depth = depth;
+    }
+
+    /**
+     * @param enclosingMacroId the id of the macro whose body is entered
+     * @return the scope of the blocks located in the body of a macro having the passed id, located in this scope
+     */
+    public XDOMScope enter(String enclosingMacroId)
+    {
+        return new XDOMScope(this.source, enclosingMacroId, this.depth + 1);
+    }
+
+    /**
+     * @return the content from which the blocks have been parsed
+     */
+    public Source getSource()
+    {
+        return this.source;
+    }
+
+    /**
+     * @return the id of the innermost macro whose body contains the blocks, or {@code null} if they're not inside a
+     *     macro body
+     */
+    public String getMacroId()
+    {
+        return this.macroId;
+    }
+
+    /**
+     * @return the number of macro bodies containing the blocks ({@code 0} for the blocks not inside a macro body)
+     */
+    public int getDepth()
+    {
+        return this.depth;
+    }
+
+    /**
+     * @param id a macro id
+     * @return {@code true} if the blocks are located in the body of a macro having the passed id
+     */
+    public boolean isInsideMacro(String id)
+    {
+        return id.equals(this.macroId);
+    }
+}
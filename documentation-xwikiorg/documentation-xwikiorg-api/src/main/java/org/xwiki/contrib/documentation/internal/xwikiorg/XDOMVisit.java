@@ -0,0 +1,88 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal.xwikiorg;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.xwiki.contrib.documentation.DocumentationAnalysisContext;
+import org.xwiki.contrib.documentation.DocumentationViolation;
+
+/**
+ * The state of the visit of the content of a document by a single {@link AbstractXDOMDocumentationCheck}, collecting
+ * the violations it found.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+public class XDOMVisit
+{
+    private final DocumentationAnalysisContext context;
+
+    private final List<DocumentationViolation> violations = new ArrayList<>();
+
+    private final Map<String, Integer> counters = new HashMap<>();
+
+    /**
+     * @param context the context of the analysis during which the content is visited
+     */
+    public XDOMVisit(DocumentationAnalysisContext context)
+    {
+        this.context = context;
+    }
+
+    /**
+     * @return the context of the analysis during which the content is visited
+     */
+    public DocumentationAnalysisContext getContext()
+    {
+        return this.context;
+    }
+
+    /**
+     * @param violation a violation found while visiting the content
+     */
+    public void addViolation(DocumentationViolation violation)
+    {
+        this.violations.add(violation);
+    }
+
+    /**
+     * Increment a counter kept with this visit, so that walking the content again (e.g. when the check is executed on
+     * its own) starts counting from zero.
+     *
+     * @param counter the name of the counter
+     * @return the value of the counter after incrementing it
+     */
+    public int incrementCounter(String counter)
+    {
+        return this.counters.merge(counter, 1, Integer::sum);
+    }
+
+    /**
+     * @return the violations found while visiting the content, in the visit order
+     */
+    public List<DocumentationViolation> getViolations()
+    {
+        return this.violations;
+    }
+}
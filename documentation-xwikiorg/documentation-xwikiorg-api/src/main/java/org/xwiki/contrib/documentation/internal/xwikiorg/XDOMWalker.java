@@ -0,0 +1,207 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal.xwikiorg;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.xwiki.contrib.documentation.DocumentationAnalysisContext;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.block.MacroBlock;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.macro.MacroExecutionException;
+import org.xwiki.rendering.macro.MacroLookupException;
+
+/**
+ * Walks the content of a document once on behalf of several {@link AbstractXDOMDocumentationCheck}s, dispatching each
+ * block to the checks interested in its type and scope. The content is visited in the following order (each XDOM in
+ * document order):
+ * <ul>
+ *     <li>the content of the document,</li>
+ *     <li>the bodies of the macros with wiki content found in the content of the document, level by level, down to
+ *     {@link org.xwiki.contrib.documentation.DocumentationConfiguration#getMacroDepth() the configured depth},</li>
+ *     <li>the FAQ property of the DocumentationClass XObject,</li>
+ *     <li>the bodies of the macros with wiki content found in the FAQ, level by level.</li>
+ * </ul>
+ * A macro body is parsed only if at least one check visits its scope, and the FAQ is parsed only if at least one
+ * check visits the FAQ. Parsed macro bodies are memoized by content and syntax in the analysis context, so each
+ * distinct body is parsed once per analysis whatever the number of checks and the number of macros having it, and
+ * each parsed block is visited once for all the checks. The walk stops as soon as the cancellation token of the
+ * analysis context is cancelled.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+final class XDOMWalker
+{
+    private final DocumentationAnalysisContext context;
+
+    /**
+     * The maximum number of nested macro bodies to visit.
+     */
+    private final int maxDepth;
+
+    /**
+     * The check used to look up macros, parse content and log problems (all checks share the same components).
+     */
+    private final AbstractXDOMDocumentationCheck helper;
+
+    private final Map<AbstractXDOMDocumentationCheck, XDOMVisit> visits = new LinkedHashMap<>();
+
+    /**
+     * The checks interested in each block class, computed the first time a block of that class is met.
+     */
+    private final Map<Class<?>, List<AbstractXDOMDocumentationCheck>> listeners = new HashMap<>();
+
+    private final Queue<MacroBody> macroBodies = new ArrayDeque<>();
+
+    /**
+     * @param context the context of the analysis
+     * @param checks the checks for which the content is visited (must not be empty)
+     */
+    XDOMWalker(DocumentationAnalysisContext context, List<AbstractXDOMDocumentationCheck> checks)
+    {
+        this.context = context;
+        this.helper = checks.get(0);
+        this.maxDepth = this.helper.configuration.getMacroDepth();
+        for (AbstractXDOMDocumentationCheck check : checks) {
+            this.visits.put(check, new XDOMVisit(context));
+        }
+    }
+
+    /**
+     * @return the visit of each check
+     */
+    Map<AbstractXDOMDocumentationCheck, XDOMVisit> walk()
+    {
+        List<AbstractXDOMDocumentationCheck> checks = new ArrayList<>(this.visits.keySet());
+
+        walk(this.context.getXDOM(), XDOMScope.CONTENT, getVisitors(checks, XDOMScope.CONTENT));
+
+        List<AbstractXDOMDocumentationCheck> faqVisitors = getVisitors(checks, XDOMScope.FAQ);
+        if (!faqVisitors.isEmpty()) {
+            XDOM faqXDOM = this.helper.parseFAQXDOM(this.context, getNames(faqVisitors));
+            if (faqXDOM != null) {
+                walk(faqXDOM, XDOMScope.FAQ, faqVisitors);
+            }
+        }
+
+        return this.visits;
+    }
+
+    private void walk(XDOM xdom, XDOMScope scope, List<AbstractXDOMDocumentationCheck> visitors)
+    {
+        if (!visitors.isEmpty()) {
+            visitDescendants(xdom, scope, visitors);
+            // Visiting a macro body queues the bodies of the macros it contains, until the maximum depth is reached.
+            while (!this.macroBodies.isEmpty()) {
+                visitMacroBody(this.macroBodies.remove());
+            }
+        }
+    }
+
+    private void visitDescendants(Block block, XDOMScope scope, List<AbstractXDOMDocumentationCheck> visitors)
+    {
+        for (Block child : block.getChildren()) {
+            this.context.getCancellationToken().checkCancelled();
+            for (AbstractXDOMDocumentationCheck check : getListeners(child.getClass())) {
+                if (visitors.contains(check)) {
+                    check.visit(child, scope, this.visits.get(check));
+                }
+            }
+            if (child instanceof MacroBlock && scope.getDepth() < this.maxDepth) {
+                addMacroBody((MacroBlock) child, scope, visitors);
+            }
+            visitDescendants(child, scope, visitors);
+        }
+    }
+
+    private void addMacroBody(MacroBlock macroBlock, XDOMScope scope, List<AbstractXDOMDocumentationCheck> visitors)
+    {
+        XDOMScope bodyScope = scope.enter(macroBlock.getId());
+        List<AbstractXDOMDocumentationCheck> bodyVisitors = getVisitors(visitors, bodyScope);
+        if (!bodyVisitors.isEmpty()) {
+            this.macroBodies.add(new MacroBody(macroBlock, bodyScope, bodyVisitors));
+        }
+    }
+
+    private void visitMacroBody(MacroBody body)
+    {
+        String macroId = body.macroBlock.getId();
+        try {
+            if (this.helper.macroContentCache.hasWikiContent(macroId)) {
+                XDOM bodyXDOM = this.helper.parseWikiContent(body.macroBlock.getContent(), this.context);
+                visitDescendants(bodyXDOM, body.scope, body.visitors);
+            }
+        } catch (MacroLookupException e) {
+            this.helper.logger.warn("Failed to look up macro [{}]. Ignoring {} check inside it. "
+                + AbstractXDOMDocumentationCheck.ROOT_ERROR_CAUSE, macroId, getNames(body.visitors),
+                ExceptionUtils.getRootCauseMessage(e));
+        } catch (MacroExecutionException e) {
+            this.helper.logger.warn("Failed to parse the content of macro [{}]. Ignoring {} check inside it. "
+                + AbstractXDOMDocumentationCheck.ROOT_ERROR_CAUSE, macroId, getNames(body.visitors),
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    private List<AbstractXDOMDocumentationCheck> getListeners(Class<?> blockClass)
+    {
+        return this.listeners.computeIfAbsent(blockClass, key -> this.visits.keySet().stream()
+            .filter(check -> check.getVisitedBlockTypes().stream().anyMatch(type -> type.isAssignableFrom(key)))
+            .collect(Collectors.toList()));
+    }
+
+    private static List<AbstractXDOMDocumentationCheck> getVisitors(List<AbstractXDOMDocumentationCheck> checks,
+        XDOMScope scope)
+    {
+        return checks.stream().filter(check -> check.isVisited(scope)).collect(Collectors.toList());
+    }
+
+    private static String getNames(List<AbstractXDOMDocumentationCheck> checks)
+    {
+        return checks.stream().map(AbstractXDOMDocumentationCheck::getCheckName).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * A macro body waiting to be visited, once the XDOM containing the macro has been visited.
+     */
+    private static final class MacroBody
+    {
+        private final MacroBlock macroBlock;
+
+        private final XDOMScope scope;
+
+        private final List<AbstractXDOMDocumentationCheck> visitors;
+
+        MacroBody(MacroBlock macroBlock, XDOMScope scope, List<AbstractXDOMDocumentationCheck> visitors)
+        {
+            this.macroBlock = macroBlock;
+            this.scope = scope;
+            this.visitors = visitors;
+        }
+    }
+}
@@ -19,18 +19,27 @@
  */
 package org.xwiki.contrib.documentation.internal.xwikiorg;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.slf4j.LoggerFactory;
+import org.xwiki.component.util.ReflectionUtils;
+import org.xwiki.contrib.documentation.DocumentationAnalysisContext;
+import org.xwiki.contrib.documentation.DocumentationConfiguration;
 import org.xwiki.contrib.documentation.DocumentationViolation;
+import org.xwiki.contrib.documentation.DocumentationViolationSeverity;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.LocalDocumentReference;
 import org.xwiki.rendering.block.Block;
 import org.xwiki.rendering.block.MacroBlock;
+import org.xwiki.rendering.block.WordBlock;
 import org.xwiki.rendering.block.XDOM;
 import org.xwiki.rendering.macro.Macro;
 import org.xwiki.rendering.macro.MacroContentParser;
@@ -43,6 +52,7 @@ import org.xwiki.rendering.syntax.Syntax;
 import org.xwiki.test.LogLevel;
 import org.xwiki.test.junit5.LogCaptureExtension;
 
+import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
 
@@ -51,19 +61,25 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 /**
- * Unit tests for the uncovered branches of {@link AbstractXDOMDocumentationCheck}: the FAQ parse failure, the
- * {@code skipMacroId} skip, and macros whose content descriptor is {@code null} or not
- * {@link Block#LIST_BLOCK_TYPE}.
+ * Unit tests for {@link AbstractXDOMDocumentationCheck} and the {@link XDOMWalker} it relies on: the FAQ parse
+ * failure, the order in which the blocks are visited, the macro bodies that are not visited (scope not visited by
+ * any check, content descriptor not {@link Block#LIST_BLOCK_TYPE}), and the single walk shared by the checks of an
+ * analysis.
  * <p>
  * The base class is abstract, so a minimal concrete subclass ({@link TestableXDOMDocumentationCheck}) is
- * instantiated directly (bypassing component injection) to expose {@code parseFAQXDOM} and
- * {@code checkInsideWikiMacros} to the tests. Its {@code @Inject}-annotated fields are wired manually with mocks
- * since the fields are package-protected.
+ * instantiated directly (bypassing component injection). It records each visited block as a violation whose message
+ * is made of the block type and the enclosing macro id. Its {@code @Inject}-annotated fields are wired
+ * manually with mocks since the fields are package-protected.
  *
  * @version $Id$
  * @since 1.14
@@ -74,28 +90,45 @@ class AbstractXDOMDocumentationCheckTest
         new LocalDocumentReference(List.of("DocApp", "Code"), "DocumentationClass");
 
     /**
-     * Minimal concrete subclass exposing the protected methods of {@link AbstractXDOMDocumentationCheck} under
-     * test. It is not used to perform an actual check; {@link #check} is never called by the tests.
+     * Minimal concrete subclass visiting all the blocks, except the ones inside the body of a given macro.
      */
     private static final class TestableXDOMDocumentationCheck extends AbstractXDOMDocumentationCheck
     {
+        private final String skippedMacroId;
+
+        TestableXDOMDocumentationCheck(String skippedMacroId)
+        {
+            this.skippedMacroId = skippedMacroId;
+        }
+
+        @Override
+        protected String getCheckName()
+        {
+            return "Some Check";
+        }
+
+        @Override
+        protected Set<Class<? extends Block>> getVisitedBlockTypes()
+        {
+            return Set.of(Block.class);
+        }
+
         @Override
-        public List<DocumentationViolation> check(XWikiDocument document)
+        protected boolean isVisited(XDOMScope scope)
         {
-            return List.of();
+            return this.skippedMacroId == null || !scope.isInsideMacro(this.skippedMacroId);
         }
 
-        public XDOM callParseFAQXDOM(XWikiDocument document, XDOM xdom, String checkName)
+        @Override
+        protected void visit(Block block, XDOMScope scope, XDOMVisit visit)
         {
-            return parseFAQXDOM(document, xdom, checkName);
+            visit.addViolation(new DocumentationViolation(visited(block.getClass(), scope.getMacroId()), "",
+                DocumentationViolationSeverity.WARNING));
         }
 
-        public List<XDOM> callCheckInsideWikiMacros(XDOM xdom, XWikiDocument document, String skipMacroId,
-            String checkName)
+        public XDOM callParseFAQXDOM(DocumentationAnalysisContext context, String checkName)
         {
-            List<XDOM> collected = new ArrayList<>();
-            checkInsideWikiMacros(xdom, document, skipMacroId, checkName, collected::add);
-            return collected;
+            return parseFAQXDOM(context, checkName);
         }
     }
 
@@ -106,12 +139,38 @@ class AbstractXDOMDocumentationCheckTest
 
     private final MacroContentParser contentParser = mock(MacroContentParser.class);
 
-    private TestableXDOMDocumentationCheck createChecker()
+    private final MacroContentCache macroContentCache = new MacroContentCache();
+
+    private final DocumentationConfiguration configuration = mock(DocumentationConfiguration.class);
+
+    @BeforeEach
+    void setUp()
     {
-        TestableXDOMDocumentationCheck checker = new TestableXDOMDocumentationCheck();
+        XWikiContext xcontext = mock(XWikiContext.class);
+        when(xcontext.getWikiId()).thenReturn("wiki");
+        when(this.configuration.getMacroDepth()).thenReturn(5);
+        ReflectionUtils.setFieldValue(this.macroContentCache, "macroManager", this.macroManager);
+        Provider<XWikiContext> xcontextProvider = () -> xcontext;
+        ReflectionUtils.setFieldValue(this.macroContentCache, "xcontextProvider", xcontextProvider);
+    }
+
+    private static String visited(Class<?> blockClass, String macroId)
+    {
+        return blockClass.getSimpleName() + '@' + macroId;
+    }
+
+    private static List<String> getVisits(List<DocumentationViolation> violations)
+    {
+        return violations.stream().map(DocumentationViolation::getViolationMessage).collect(Collectors.toList());
+    }
+
+    private TestableXDOMDocumentationCheck createChecker(String skippedMacroId)
+    {
+        TestableXDOMDocumentationCheck checker = new TestableXDOMDocumentationCheck(skippedMacroId);
         checker.logger = LoggerFactory.getLogger(TestableXDOMDocumentationCheck.class);
-        checker.macroManager = this.macroManager;
         checker.contentParser = this.contentParser;
+        checker.macroContentCache = this.macroContentCache;
+        checker.configuration = this.configuration;
         return checker;
     }
 
@@ -133,6 +192,17 @@ class AbstractXDOMDocumentationCheckTest
         };
     }
 
+    private void registerMacro(String id, Class<?> contentType) throws Exception
+    {
+        Macro<?> macro = mock(Macro.class);
+        MacroDescriptor descriptor = mock(MacroDescriptor.class);
+        ContentDescriptor contentDescriptor = mock(ContentDescriptor.class);
+        when(contentDescriptor.getType()).thenReturn(contentType);
+        when(descriptor.getContentDescriptor()).thenReturn(contentDescriptor);
+        when(macro.getDescriptor()).thenReturn(descriptor);
+        doReturn(macro).when(this.macroManager).getMacro(new MacroId(id));
+    }
+
     @Test
     void parseFAQReturnsNullAndWarnsOnParseFailure() throws Exception
     {
@@ -145,44 +215,116 @@ class AbstractXDOMDocumentationCheckTest
         XWikiDocument document = mock(XWikiDocument.class);
         when(document.getXObject(DOCUMENTATION_CLASS_REFERENCE)).thenReturn(faqObj);
         when(document.getSyntax()).thenReturn(Syntax.XWIKI_2_1);
-        XDOM xdom = new XDOM(List.of());
+        when(document.getXDOM()).thenReturn(new XDOM(List.of()));
 
-        XDOM result = createChecker().callParseFAQXDOM(document, xdom, "Some Check");
+        XDOM result =
+            createChecker(null).callParseFAQXDOM(new DocumentationAnalysisContext(document), "Some Check");
 
         assertNull(result);
         assertTrue(this.logCapture.getMessage(0).startsWith("Failed to parse the FAQ content."));
     }
 
     @Test
-    void checkInsideWikiMacrosSkipsSkipMacroId()
+    void checkVisitsContentBeforeMacroBodies() throws Exception
+    {
+        registerMacro("info", Block.LIST_BLOCK_TYPE);
+        when(this.contentParser.parse(eq("body"), any(), anyBoolean(), anyBoolean()))
+            .thenReturn(new XDOM(List.of(new WordBlock("inside"))));
+        XWikiDocument document = createDocument(
+            new XDOM(List.of(new MacroBlock("info", Map.of(), "body", false), new WordBlock("outside"))));
+
+        List<String> visits = getVisits(createChecker(null).check(document));
+
+        assertEquals(List.of(visited(MacroBlock.class, null), visited(WordBlock.class, null),
+            visited(WordBlock.class, "info")), visits);
+    }
+
+    @Test
+    void checkSkipsMacroBodyWhenScopeIsNotVisited() throws Exception
     {
         MacroBlock macroBlock = new MacroBlock("note", Map.of(), "some content", false);
         XWikiDocument document = createDocument(new XDOM(List.of(macroBlock)));
 
-        List<XDOM> collected =
-            createChecker().callCheckInsideWikiMacros(document.getXDOM(), document, "note", "Some Check");
+        List<String> visits = getVisits(createChecker("note").check(document));
 
-        assertEquals(0, collected.size());
+        assertEquals(List.of(visited(MacroBlock.class, null)), visits);
+        verifyNoInteractions(this.macroManager, this.contentParser);
     }
 
     @Test
-    void checkInsideWikiMacrosSkipsNonListContentMacro() throws Exception
+    void checkSkipsNonListContentMacro() throws Exception
     {
-        Macro<?> macro = mock(Macro.class);
-        MacroDescriptor descriptor = mock(MacroDescriptor.class);
-        ContentDescriptor contentDescriptor = mock(ContentDescriptor.class);
-        // Content descriptor type is not LIST_BLOCK_TYPE, so the macro must be skipped.
-        when(contentDescriptor.getType()).thenReturn(String.class);
-        when(descriptor.getContentDescriptor()).thenReturn(contentDescriptor);
-        when(macro.getDescriptor()).thenReturn(descriptor);
-        doReturn(macro).when(this.macroManager).getMacro(new MacroId("info"));
-
+        // Content descriptor type is not LIST_BLOCK_TYPE, so the macro body must not be visited.
+        registerMacro("info", String.class);
         MacroBlock macroBlock = new MacroBlock("info", Map.of(), "some content", false);
         XWikiDocument document = createDocument(new XDOM(List.of(macroBlock)));
 
-        List<XDOM> collected =
-            createChecker().callCheckInsideWikiMacros(document.getXDOM(), document, null, "Some Check");
+        List<String> visits = getVisits(createChecker(null).check(document));
+
+        assertEquals(List.of(visited(MacroBlock.class, null)), visits);
+        verify(this.contentParser, never()).parse(any(), any(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    void checksOfAnAnalysisShareASingleWalk() throws Exception
+    {
+        registerMacro("info", Block.LIST_BLOCK_TYPE);
+        when(this.contentParser.parse(any(), any(), anyBoolean(), anyBoolean())).thenReturn(new XDOM(List.of()));
+
+        // Two macros with the same body, inspected by two checks of the same analysis.
+        XWikiDocument document = createDocument(new XDOM(List.of(
+            new MacroBlock("info", Map.of(), "same content", false),
+            new MacroBlock("info", Map.of(), "same content", false))));
+        TestableXDOMDocumentationCheck firstCheck = createChecker(null);
+        TestableXDOMDocumentationCheck secondCheck = createChecker(null);
+        DocumentationAnalysisContext context =
+            new DocumentationAnalysisContext(document, List.of(firstCheck, secondCheck));
+
+        List<String> expected = List.of(visited(MacroBlock.class, null), visited(MacroBlock.class, null));
+        assertEquals(expected, getVisits(firstCheck.check(context)));
+        assertEquals(expected, getVisits(secondCheck.check(context)));
+
+        // The macro is looked up once, and the shared body is parsed once.
+        verify(this.macroManager, times(1)).getMacro(new MacroId("info"));
+        verify(this.contentParser, times(1)).parse(eq("same content"), any(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    void checkVisitsNestedMacroBodiesLevelByLevel() throws Exception
+    {
+        registerMacro("version", Block.LIST_BLOCK_TYPE);
+        registerMacro("info", Block.LIST_BLOCK_TYPE);
+        when(this.contentParser.parse(eq("version body"), any(), anyBoolean(), anyBoolean()))
+            .thenReturn(new XDOM(List.of(new MacroBlock("info", Map.of(), "info body", false))));
+        when(this.contentParser.parse(eq("info body"), any(), anyBoolean(), anyBoolean()))
+            .thenReturn(new XDOM(List.of(new WordBlock("inside"))));
+        XWikiDocument document = createDocument(new XDOM(List.of(
+            new MacroBlock("version", Map.of(), "version body", false),
+            new MacroBlock("info", Map.of(), "info body", false))));
+
+        List<String> visits = getVisits(createChecker(null).check(document));
+
+        assertEquals(List.of(visited(MacroBlock.class, null), visited(MacroBlock.class, null),
+            visited(MacroBlock.class, "version"), visited(WordBlock.class, "info"), visited(WordBlock.class, "info")),
+            visits);
+        // The body shared by the two info macros is parsed once.
+        verify(this.contentParser, times(1)).parse(eq("info body"), any(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    void checkStopsAtTheMaximumMacroDepth() throws Exception
+    {
+        when(this.configuration.getMacroDepth()).thenReturn(2);
+        registerMacro("info", Block.LIST_BLOCK_TYPE);
+        when(this.contentParser.parse(eq("body"), any(), anyBoolean(), anyBoolean()))
+            .thenReturn(new XDOM(List.of(new MacroBlock("info", Map.of(), "body", false))));
+        XWikiDocument document = createDocument(new XDOM(List.of(new MacroBlock("info", Map.of(), "body", false))));
+
+        List<String> visits = getVisits(createChecker(null).check(document));
 
-        assertEquals(0, collected.size());
+        // A macro containing itself is only visited down to the maximum depth.
+        assertEquals(List.of(visited(MacroBlock.class, null), visited(MacroBlock.class, "info"),
+            visited(MacroBlock.class, "info")), visits);
+        verify(this.contentParser, times(1)).parse(eq("body"), any(), anyBoolean(), anyBoolean());
     }
 }
@@ -0,0 +1,83 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal.xwikiorg;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.contrib.documentation.DocumentationAnalysisContext;
+
+import com.xpn.xwiki.doc.XWikiAttachment;
+import com.xpn.xwiki.doc.XWikiDocument;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link AttachmentMetadata}.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+class AttachmentMetadataTest
+{
+    @Test
+    void metadata()
+    {
+        AttachmentMetadata video = new AttachmentMetadata("My Demo.MP4");
+        assertEquals("My Demo", video.getStem());
+        assertEquals("MP4", video.getExtension());
+        assertEquals("mp4", video.getLowerCaseExtension());
+        assertTrue(video.isVideo());
+        assertEquals("my-demo", video.getKebabStem().getKebab());
+
+        assertFalse(new AttachmentMetadata("screenshot.png").isVideo());
+
+        AttachmentMetadata noExtension = new AttachmentMetadata("readme");
+        assertEquals("readme", noExtension.getStem());
+        assertNull(noExtension.getExtension());
+        assertEquals("", noExtension.getLowerCaseExtension());
+        assertFalse(noExtension.isVideo());
+    }
+
+    @Test
+    void ofIsComputedOncePerAnalysis()
+    {
+        XWikiDocument document = mock(XWikiDocument.class);
+        XWikiAttachment attachment = mock(XWikiAttachment.class);
+        when(attachment.getFilename()).thenReturn("screenshot.png");
+        when(document.getAttachmentList()).thenReturn(List.of(attachment));
+        DocumentationAnalysisContext context = new DocumentationAnalysisContext(document);
+
+        List<AttachmentMetadata> attachments = AttachmentMetadata.of(context);
+
+        assertEquals(1, attachments.size());
+        assertEquals("screenshot.png", attachments.get(0).getFilename());
+        assertSame(attachments, AttachmentMetadata.of(context));
+        verify(document, times(1)).getAttachmentList();
+    }
+}
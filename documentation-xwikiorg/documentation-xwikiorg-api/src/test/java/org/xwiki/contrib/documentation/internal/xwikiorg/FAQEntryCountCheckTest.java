@@ -26,6 +26,7 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
+import org.xwiki.contrib.documentation.DocumentationAnalysisContext;
 import org.xwiki.contrib.documentation.DocumentationCheck;
 import org.xwiki.contrib.documentation.DocumentationViolation;
 import org.xwiki.contrib.documentation.DocumentationViolationSeverity;
@@ -162,6 +163,24 @@ class FAQEntryCountCheckTest
         assertEquals(DocumentationViolationSeverity.WARNING, violations.get(0).getViolationSeverity());
     }
 
+    @Test
+    void checkCountsEntriesFromZeroOnEachWalk() throws Exception
+    {
+        MacroContentParser contentParser =
+            this.oldcore.getMocker().registerMockComponent(MacroContentParser.class);
+        when(contentParser.parse(any(), any(), anyBoolean(), anyBoolean())).thenReturn(xdomWithHeaders(3));
+
+        XWikiDocument document = createDocument(new XDOM(Collections.emptyList()));
+        document.addXObject(createFAQObject("= Q1 =\n= Q2 =\n= Q3 ="));
+        // The shared walk is done for another check, so the FAQ is walked separately for each execution of this check.
+        DocumentationCheck otherCheck = this.oldcore.getMocker().getInstance(DocumentationCheck.class, "imageMacro");
+        DocumentationAnalysisContext context = new DocumentationAnalysisContext(document, List.of(otherCheck));
+        otherCheck.prepare(context);
+
+        assertEquals(0, getChecker().check(context).size());
+        assertEquals(0, getChecker().check(context).size());
+    }
+
     @Test
     void checkWhenFAQHasFifteenLines() throws Exception
     {
@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 import org.xwiki.contrib.documentation.DocumentationCheck;
 import org.xwiki.contrib.documentation.DocumentationViolation;
 import org.xwiki.contrib.documentation.DocumentationViolationSeverity;
@@ -107,4 +108,58 @@ class ImageGalleryCheckTest
             violations.get(0).getViolationContext());
         assertEquals(DocumentationViolationSeverity.ERROR, violations.get(0).getViolationSeverity());
     }
+
+    @Test
+    void checkReportsEachRunOfImageMacros() throws Exception
+    {
+        String input = "{{image reference='test1.png'/}}\n{{image reference='test2.png'/}}\n"
+            + "{{image reference='test3.png'/}}\n\ntext\n\n"
+            + "{{image reference='test4.png'/}} {{image reference='test5.png'/}}";
+
+        XWikiDocument document = new XWikiDocument(new DocumentReference("wiki", "space", "page"));
+        document.setContent(input);
+
+        List<DocumentationViolation> violations = getChecker().check(document);
+
+        assertEquals(2, violations.size());
+        assertEquals("{{image reference='test1.png'/}}\n{{image reference='test2.png'/}}\n"
+            + "{{image reference='test3.png'/}}", violations.get(0).getViolationContext());
+        assertEquals("{{image reference='test4.png'/}} {{image reference='test5.png'/}}",
+            violations.get(1).getViolationContext());
+    }
+
+    @Test
+    void checkIgnoresOtherMacrosStartingWithImage() throws Exception
+    {
+        String input = "{{imageCaption/}}\n{{image reference='test1.png'/}}\n{{images/}}";
+
+        XWikiDocument document = new XWikiDocument(new DocumentReference("wiki", "space", "page"));
+        document.setContent(input);
+
+        assertEquals(0, getChecker().check(document).size());
+    }
+
+    /**
+     * A large page with many image macros that are not next to each other, which took seconds with the previous
+     * backtracking regular expression.
+     */
+    @Test
+    @Timeout(10)
+    void checkLargePage() throws Exception
+    {
+        StringBuilder input = new StringBuilder();
+        while (input.length() < 2 * 1024 * 1024) {
+            input.append("{{image reference='test.png'}} text\n");
+        }
+        input.append("{{image reference='last1.png'}}\n{{image reference='last2.png'}}");
+
+        XWikiDocument document = new XWikiDocument(new DocumentReference("wiki", "space", "page"));
+        document.setContent(input.toString());
+
+        List<DocumentationViolation> violations = getChecker().check(document);
+
+        assertEquals(1, violations.size());
+        assertEquals("{{image reference='last1.png'}}\n{{image reference='last2.png'}}",
+            violations.get(0).getViolationContext());
+    }
 }
@@ -19,10 +19,13 @@
  */
 package org.xwiki.contrib.documentation.internal.xwikiorg;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -160,4 +163,24 @@ class KebabNameValidatorTest
         // Name without reserved words is unchanged.
         assertEquals("installation-guide", KebabNameValidator.toKebabStrict("installation-guide"));
     }
+
+    @Test
+    void parse()
+    {
+        KebabNameValidator.KebabName kebabName = KebabNameValidator.parse("The Tutorial of XWiki 1.0");
+
+        assertEquals("tutorial-xwiki-1.0", kebabName.getKebab());
+        assertEquals("xwiki-1.0", kebabName.getStrictKebab());
+        assertEquals(List.of("tutorial", "xwiki", "1.0"), kebabName.getSegments());
+        assertFalse(kebabName.isValidKebab());
+        assertTrue(kebabName.containsReservedWord());
+        // The parsed names are memoized.
+        assertSame(kebabName, KebabNameValidator.parse("The Tutorial of XWiki 1.0"));
+    }
+
+    @Test
+    void toKebabReplacesCharactersWithoutAccentsAndUnicodeSymbols()
+    {
+        assertEquals("stra-e-cafe", KebabNameValidator.toKebab("Straße Café \uD83D\uDE00"));
+    }
 }
@@ -0,0 +1,154 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.contrib.documentation.internal.xwikiorg;
+
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.rendering.block.Block;
+import org.xwiki.rendering.macro.Macro;
+import org.xwiki.rendering.macro.MacroId;
+import org.xwiki.rendering.macro.MacroLookupException;
+import org.xwiki.rendering.macro.MacroManager;
+import org.xwiki.rendering.macro.MacroNotFoundException;
+import org.xwiki.rendering.macro.descriptor.ContentDescriptor;
+import org.xwiki.rendering.macro.descriptor.MacroDescriptor;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWikiContext;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link MacroContentCache}.
+ *
+ * @version $Id$
+ * @since 1.17
+ */
+@ComponentTest
+class MacroContentCacheTest
+{
+    @InjectMockComponents
+    private MacroContentCache cache;
+
+    @MockComponent
+    private MacroManager macroManager;
+
+    @MockComponent
+    private Provider<XWikiContext> xcontextProvider;
+
+    private XWikiContext xcontext;
+
+    @BeforeEach
+    void setUp()
+    {
+        this.xcontext = mock(XWikiContext.class);
+        when(this.xcontext.getWikiId()).thenReturn("wiki");
+        when(this.xcontextProvider.get()).thenReturn(this.xcontext);
+    }
+
+    private void registerMacro(String id, Class<?> contentType) throws Exception
+    {
+        Macro<?> macro = mock(Macro.class);
+        MacroDescriptor descriptor = mock(MacroDescriptor.class);
+        ContentDescriptor contentDescriptor = mock(ContentDescriptor.class);
+        when(contentDescriptor.getType()).thenReturn(contentType);
+        when(descriptor.getContentDescriptor()).thenReturn(contentDescriptor);
+        when(macro.getDescriptor()).thenReturn(descriptor);
+        doReturn(macro).when(this.macroManager).getMacro(new MacroId(id));
+    }
+
+    @Test
+    void hasWikiContentLooksUpEachMacroOnce() throws Exception
+    {
+        registerMacro("info", Block.LIST_BLOCK_TYPE);
+        registerMacro("code", String.class);
+
+        assertTrue(this.cache.hasWikiContent("info"));
+        assertTrue(this.cache.hasWikiContent("info"));
+        assertFalse(this.cache.hasWikiContent("code"));
+        assertFalse(this.cache.hasWikiContent("code"));
+        assertFalse(this.cache.hasWikiContent("unknown"));
+
+        verify(this.macroManager, times(1)).getMacro(new MacroId("info"));
+        verify(this.macroManager, times(1)).getMacro(new MacroId("code"));
+        verify(this.macroManager, times(1)).getMacro(new MacroId("unknown"));
+    }
+
+    @Test
+    void hasWikiContentIsCachedPerWiki() throws Exception
+    {
+        registerMacro("info", Block.LIST_BLOCK_TYPE);
+
+        assertTrue(this.cache.hasWikiContent("info"));
+        when(this.xcontext.getWikiId()).thenReturn("otherwiki");
+        assertTrue(this.cache.hasWikiContent("info"));
+
+        verify(this.macroManager, times(2)).getMacro(new MacroId("info"));
+    }
+
+    @Test
+    void invalidateForgetsTheMacros() throws Exception
+    {
+        registerMacro("info", Block.LIST_BLOCK_TYPE);
+        assertTrue(this.cache.hasWikiContent("info"));
+
+        registerMacro("info", String.class);
+        this.cache.invalidate();
+
+        assertFalse(this.cache.hasWikiContent("info"));
+    }
+
+    @Test
+    void hasWikiContentDoesNotRememberLookupFailures() throws Exception
+    {
+        when(this.macroManager.getMacro(new MacroId("info"))).thenThrow(new MacroLookupException("not found"));
+        assertThrows(MacroLookupException.class, () -> this.cache.hasWikiContent("info"));
+
+        registerMacro("info", Block.LIST_BLOCK_TYPE);
+        assertTrue(this.cache.hasWikiContent("info"));
+    }
+
+    @Test
+    void hasWikiContentRemembersUnknownMacrosUntilInvalidated() throws Exception
+    {
+        when(this.macroManager.getMacro(new MacroId("info"))).thenThrow(new MacroNotFoundException("not found"));
+
+        assertFalse(this.cache.hasWikiContent("info"));
+        assertFalse(this.cache.hasWikiContent("info"));
+        verify(this.macroManager, times(1)).getMacro(new MacroId("info"));
+
+        // The macro is installed.
+        registerMacro("info", Block.LIST_BLOCK_TYPE);
+        this.cache.invalidate();
+
+        assertTrue(this.cache.hasWikiContent("info"));
+    }
+}